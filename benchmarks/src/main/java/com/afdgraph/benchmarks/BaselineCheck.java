@@ -0,0 +1,123 @@
+package com.afdgraph.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compares a JMH CSV result file (-rf csv) with the committed baseline and exits with 1 when a
+// benchmark got slower than the tolerance allows. A row whose 99.9% error interval, in the baseline
+// or in the new run, is wider than the tolerance can't show a change that size, so it is reported
+// as NOISY and not counted:
+//   java -cp benchmarks/target/benchmarks.jar com.afdgraph.benchmarks.BaselineCheck \
+//       benchmarks/baseline.csv results.csv [tolerance-percent]
+public class BaselineCheck {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <baseline.csv> <results.csv> [tolerance-percent]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.20;
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        int noisy = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            Result now = entry.getValue();
+            if (before == null) {
+                System.out.printf("NEW        %s: %.3f %s%n", entry.getKey(), now.score, now.unit);
+                continue;
+            }
+            // Average time: lower is better; throughput: higher is better
+            double change = now.mode.equals("thrpt")
+                    ? (before.score - now.score) / before.score
+                    : (now.score - before.score) / before.score;
+            String status;
+            if (before.relativeError() > tolerance || now.relativeError() > tolerance) {
+                status = "NOISY";
+                noisy++;
+            } else if (change > tolerance) {
+                status = "REGRESSION";
+                regressions++;
+            } else {
+                status = "ok";
+            }
+            System.out.printf("%-10s %s: %.3f +- %.3f -> %.3f +- %.3f %s (%+.1f%%)%n", status, entry.getKey(),
+                    before.score, before.error, now.score, now.error, now.unit, change * 100);
+        }
+        System.out.println(regressions + " regression(s) over " + Math.round(tolerance * 100) + "%" +
+                (noisy > 0 ? ", " + noisy + " row(s) too noisy to compare" : ""));
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static class Result {
+        private final String mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        Result(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        // Half-width of the error interval against the score; JMH writes NaN for a single sample
+        double relativeError() {
+            return Double.isNaN(error) ? Double.POSITIVE_INFINITY : error / score;
+        }
+    }
+
+    // Key is the benchmark name plus its parameters, e.g. "...LexerBenchmark.analyze{automata=10, ...}"
+    private static Map<String, Result> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        List<String> header = split(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int error = header.indexOf("Score Error (99.9%)");
+        int unit = header.indexOf("Unit");
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) continue;
+            List<String> fields = split(line);
+            StringBuilder key = new StringBuilder(fields.get(benchmark)).append('{');
+            for (int i = 0; i < header.size(); i++) {
+                if (!header.get(i).startsWith("Param: ")) continue;
+                if (key.charAt(key.length() - 1) != '{') key.append(", ");
+                key.append(header.get(i).substring(7)).append('=').append(fields.get(i));
+            }
+            key.append('}');
+            results.put(key.toString(), new Result(fields.get(mode), Double.parseDouble(fields.get(score)),
+                    Double.parseDouble(fields.get(error)), fields.get(unit)));
+        }
+        return results;
+    }
+
+    // JMH quotes every text field and never embeds quotes inside them
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        boolean quoted = false;
+        StringBuilder field = new StringBuilder();
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
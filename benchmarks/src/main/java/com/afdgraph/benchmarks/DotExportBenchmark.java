@@ -0,0 +1,37 @@
+package com.afdgraph.benchmarks;
+
+import com.afdgraph.export.DotGraphExporter;
+import com.afdgraph.lexer.AutomatonParser;
+import com.afdgraph.lexer.Lexer;
+import com.afdgraph.models.Automaton;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class DotExportBenchmark {
+    @Param({"10", "100", "1000"})
+    public int states;
+
+    @Param({"4", "16"})
+    public int alphabet;
+
+    private Automaton automaton;
+
+    @Setup
+    public void setUp() {
+        Lexer lexer = new Lexer(SyntheticInput.lfp(1, states, alphabet, 0, 42));
+        lexer.analyze();
+        automaton = new AutomatonParser(lexer.getTokens()).parseAll().get(0);
+    }
+
+    @Benchmark
+    public String generateDot() {
+        return DotGraphExporter.generateDot(automaton);
+    }
+}
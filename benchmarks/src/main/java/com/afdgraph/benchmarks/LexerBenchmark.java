@@ -0,0 +1,49 @@
+package com.afdgraph.benchmarks;
+
+import com.afdgraph.lexer.Lexer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class LexerBenchmark {
+    @Param({"10", "100"})
+    public int automata;
+
+    @Param({"10", "100"})
+    public int states;
+
+    @Param({"4"})
+    public int alphabet;
+
+    @Param({"0.0", "0.1"})
+    public double noise;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = SyntheticInput.lfp(automata, states, alphabet, noise, 42);
+    }
+
+    @Benchmark
+    public void analyze(Blackhole blackhole) {
+        Lexer lexer = new Lexer(input);
+        lexer.analyze();
+        blackhole.consume(lexer.getTokens());
+        blackhole.consume(lexer.getErrors());
+    }
+
+    @Benchmark
+    public void analyzeToStream(Blackhole blackhole) {
+        Lexer lexer = new Lexer(input);
+        blackhole.consume(lexer.analyzeToStream());
+        blackhole.consume(lexer.getErrors());
+    }
+}
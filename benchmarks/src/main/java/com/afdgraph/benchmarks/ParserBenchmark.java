@@ -0,0 +1,50 @@
+package com.afdgraph.benchmarks;
+
+import com.afdgraph.lexer.AutomatonParser;
+import com.afdgraph.lexer.Lexer;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.Token;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class ParserBenchmark {
+    @Param({"10", "100"})
+    public int automata;
+
+    @Param({"10", "100"})
+    public int states;
+
+    @Param({"4", "16"})
+    public int alphabet;
+
+    @Param({"0.0"})
+    public double noise;
+
+    // Lexed once; only parsing is measured
+    private List<Token> tokens;
+
+    @Setup
+    public void setUp() {
+        Lexer lexer = new Lexer(SyntheticInput.lfp(automata, states, alphabet, noise, 42));
+        lexer.analyze();
+        tokens = lexer.getTokens();
+    }
+
+    @Benchmark
+    public List<Automaton> parseAll() {
+        return new AutomatonParser(tokens).parseAll();
+    }
+
+    @Benchmark
+    public List<Automaton> parseAllParallel() {
+        return new AutomatonParser(tokens).parseAllParallel();
+    }
+}
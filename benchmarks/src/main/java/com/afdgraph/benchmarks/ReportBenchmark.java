@@ -0,0 +1,56 @@
+package com.afdgraph.benchmarks;
+
+import com.afdgraph.lexer.Lexer;
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.Token;
+import com.afdgraph.report.ReportGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class ReportBenchmark {
+    @Param({"10", "100"})
+    public int automata;
+
+    @Param({"50"})
+    public int states;
+
+    @Param({"4"})
+    public int alphabet;
+
+    @Param({"0.1"})
+    public double noise;
+
+    private List<Token> tokens;
+    private List<LexicalException> errors;
+    private Path output;
+
+    @Setup
+    public void setUp() throws IOException {
+        Lexer lexer = new Lexer(SyntheticInput.lfp(automata, states, alphabet, noise, 42));
+        lexer.analyze();
+        tokens = lexer.getTokens();
+        errors = lexer.getErrors();
+        output = Files.createTempFile("afdgraph-report", ".html");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public void generateHtmlReport() throws IOException {
+        ReportGenerator.generateHtmlReport(tokens, errors, output.toString());
+    }
+}
@@ -0,0 +1,73 @@
+package com.afdgraph.benchmarks;
+
+import java.util.SplittableRandom;
+
+// Reproducible .lfp files: the same parameters and seed always give the same text
+public final class SyntheticInput {
+    private static final String NOISE = "@%#$&~!?";
+    private static final String SYMBOL_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private SyntheticInput() {
+    }
+
+    // noise is the chance, per line, of a stray char the lexer must report as an error
+    public static String lfp(int automata, int states, int alphabet, double noise, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] symbols = new String[alphabet];
+        for (int i = 0; i < alphabet; i++) {
+            symbols[i] = i < SYMBOL_CHARS.length() ? String.valueOf(SYMBOL_CHARS.charAt(i)) : "s" + i;
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append("{\n");
+        for (int a = 0; a < automata; a++) {
+            text.append("    AFD").append(a).append(": {\n");
+            line(text, "        descripcion: \"Automata sintetico " + a + "\",", random, noise);
+
+            StringBuilder list = new StringBuilder("        estados: [");
+            for (int s = 0; s < states; s++) {
+                list.append(s == 0 ? "" : ", ").append('S').append(s);
+            }
+            line(text, list.append("],").toString(), random, noise);
+
+            list = new StringBuilder("        alfabeto: [");
+            for (int i = 0; i < alphabet; i++) {
+                list.append(i == 0 ? "" : ", ").append('"').append(symbols[i]).append('"');
+            }
+            line(text, list.append("],").toString(), random, noise);
+            line(text, "        inicial: S0,", random, noise);
+
+            list = new StringBuilder("        finales: [");
+            boolean first = true;
+            for (int s = 0; s < states; s++) {
+                if (random.nextInt(3) != 0) continue;
+                list.append(first ? "" : ", ").append('S').append(s);
+                first = false;
+            }
+            line(text, list.append("],").toString(), random, noise);
+
+            text.append("        transiciones: {\n");
+            for (int s = 0; s < states; s++) {
+                StringBuilder row = new StringBuilder("            S").append(s).append(" = (");
+                for (int i = 0; i < alphabet; i++) {
+                    row.append(i == 0 ? "" : ", ").append('"').append(symbols[i]).append("\" -> S")
+                            .append(random.nextInt(states));
+                }
+                row.append(')').append(s + 1 < states ? "," : "");
+                line(text, row.toString(), random, noise);
+            }
+            text.append("        }\n");
+            text.append("    }").append(a + 1 < automata ? "," : "").append('\n');
+        }
+        text.append("}\n");
+        return text.toString();
+    }
+
+    private static void line(StringBuilder text, String line, SplittableRandom random, double noise) {
+        text.append(line);
+        if (random.nextDouble() < noise) {
+            text.append(NOISE.charAt(random.nextInt(NOISE.length())));
+        }
+        text.append('\n');
+    }
+}
@@ -0,0 +1,126 @@
+package com.afdgraph;
+
+import com.afdgraph.batch.BatchAnalyzer;
+import com.afdgraph.batch.FileAnalysis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BatchMain {
+    private static final String USAGE =
+            "Usage: BatchMain <input-dir> [--output <dir>] [--threads <n> | --virtual-threads] [--cache <dir>]";
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (!Files.isDirectory(options.getInput())) {
+            System.err.println("Input directory not found: " + options.getInput());
+            System.exit(2);
+        }
+
+        Path output = options.getOutput();
+        long start = System.nanoTime();
+        try {
+            List<FileAnalysis> results = options.createAnalyzer().analyzeDirectory(options.getInput());
+            long failed = results.stream().filter(FileAnalysis::isFailed).count();
+            int automata = results.stream().mapToInt(r -> r.getAutomata().size()).sum();
+
+            System.out.printf("Analyzed %d files (%d failed), %d automata in %d ms%n",
+                    results.size(), failed, automata, (System.nanoTime() - start) / 1_000_000);
+            System.out.println("Summary: " + output.resolve(BatchAnalyzer.SUMMARY_FILE).toAbsolutePath());
+            System.exit(failed > 0 ? 1 : 0);
+        } catch (IOException e) {
+            System.err.println("Batch analysis failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Command line arguments; parse() throws IllegalArgumentException with the message to print before the usage
+    public static class Options {
+        private final Path input;
+        private Path output = Path.of("data/batch");
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private boolean virtualThreads;
+        private Path cache;
+
+        private Options(Path input) {
+            this.input = input;
+        }
+
+        public static Options parse(String[] args) {
+            if (args.length == 0) {
+                throw new IllegalArgumentException("Missing input directory");
+            }
+
+            Options options = new Options(Path.of(args[0]));
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--output" -> options.output = Path.of(requireValue(args, ++i));
+                    case "--threads" -> options.threads = parseThreads(requireValue(args, ++i));
+                    case "--virtual-threads" -> options.virtualThreads = true;
+                    case "--cache" -> options.cache = Path.of(requireValue(args, ++i));
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            return options;
+        }
+
+        public BatchAnalyzer createAnalyzer() {
+            BatchAnalyzer analyzer = virtualThreads
+                    ? BatchAnalyzer.withVirtualThreads(output)
+                    : BatchAnalyzer.withThreads(output, threads);
+            return cache != null ? analyzer.withCache(cache) : analyzer;
+        }
+
+        private static String requireValue(String[] args, int index) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+            }
+            return args[index];
+        }
+
+        private static int parseThreads(String value) {
+            int threads;
+            try {
+                threads = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid thread count: " + value);
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("Thread count must be at least 1");
+            }
+            return threads;
+        }
+
+        // Getters
+        public Path getInput() {
+            return input;
+        }
+
+        public Path getOutput() {
+            return output;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public Path getCache() {
+            return cache;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.afdgraph.batch;
+
+import com.afdgraph.engine.AutomatonCache;
+import com.afdgraph.export.DotGraphExporter;
+import com.afdgraph.lexer.AutomatonParser;
+import com.afdgraph.lexer.Lexer;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.ParseDiagnostic;
+import com.afdgraph.models.TokenStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Lexes, parses and exports every .lfp file of a directory in parallel, without any UI
+public class BatchAnalyzer {
+    public static final String SUMMARY_FILE = "summary.csv";
+
+    private final Path outputDirectory;
+    private final Supplier<ExecutorService> executorFactory;
+    private final AutomatonCache cache;
+
+    private BatchAnalyzer(Path outputDirectory, Supplier<ExecutorService> executorFactory, AutomatonCache cache) {
+        this.outputDirectory = outputDirectory;
+        this.executorFactory = executorFactory;
+        this.cache = cache;
+    }
+
+    public static BatchAnalyzer withThreads(Path outputDirectory, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        return new BatchAnalyzer(outputDirectory, () -> Executors.newFixedThreadPool(threads), null);
+    }
+
+    public static BatchAnalyzer withVirtualThreads(Path outputDirectory) {
+        return new BatchAnalyzer(outputDirectory, Executors::newVirtualThreadPerTaskExecutor, null);
+    }
+
+    // Same analyzer, but files whose content was analyzed before are loaded from the cache directory
+    public BatchAnalyzer withCache(Path cacheDirectory) {
+        return new BatchAnalyzer(outputDirectory, executorFactory, new AutomatonCache(cacheDirectory));
+    }
+
+    public List<FileAnalysis> analyzeDirectory(Path inputDirectory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(inputDirectory)) {
+            files = listing.filter(p -> p.toString().endsWith(".lfp") && Files.isRegularFile(p))
+                    .sorted()
+                    .toList();
+        }
+        return analyzeFiles(files);
+    }
+
+    public List<FileAnalysis> analyzeFiles(List<Path> files) throws IOException {
+        Files.createDirectories(outputDirectory);
+
+        List<Future<FileAnalysis>> pending = new ArrayList<>(files.size());
+        List<FileAnalysis> results = new ArrayList<>(files.size());
+        try (ExecutorService executor = executorFactory.get()) {
+            for (Path file : files) {
+                pending.add(executor.submit(() -> analyzeFile(file)));
+            }
+            for (Future<FileAnalysis> future : pending) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch analysis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Batch analysis failed", e.getCause());
+        }
+
+        writeSummary(results);
+        return results;
+    }
+
+    // Never throws for a bad file; failures are recorded in the result instead
+    public FileAnalysis analyzeFile(Path file) {
+        long start = System.nanoTime();
+        try {
+            if (cache != null) {
+                AutomatonCache.Entry entry = cache.load(file);
+                FileAnalysis analysis = new FileAnalysis(file, entry.getTokenCount(), entry.getErrors(),
+                        entry.getDiagnostics(), entry.getAutomata(), System.nanoTime() - start);
+                writeFileResults(analysis);
+                return analysis;
+            }
+
+            String content = Files.readString(file);
+
+            Lexer lexer = new Lexer(content);
+            TokenStream tokens = lexer.analyzeToStream();
+            AutomatonParser parser = new AutomatonParser(tokens);
+            List<Automaton> automata = parser.parseAllParallel();
+
+            FileAnalysis analysis = new FileAnalysis(file, tokens.size(), lexer.getErrors(), parser.getDiagnostics(),
+                    automata, System.nanoTime() - start);
+            writeFileResults(analysis);
+            return analysis;
+        } catch (Exception e) {
+            return FileAnalysis.failed(file, e, System.nanoTime() - start);
+        }
+    }
+
+    private void writeFileResults(FileAnalysis analysis) throws IOException {
+        Path directory = outputDirectory.resolve(baseName(analysis.getFile()));
+        Files.createDirectories(directory);
+
+        for (Automaton automaton : analysis.getAutomata()) {
+            if (automaton.getInitialState() == null) continue;
+            DotGraphExporter.exportToDot(automaton, directory.resolve(automaton.getName() + ".dot"));
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve("analysis.txt"), StandardCharsets.UTF_8)) {
+            writer.write("File: " + analysis.getFile() + "\n");
+            writer.write("Tokens: " + analysis.getTokenCount() + "\n");
+            writer.write("Lexical errors: " + analysis.getErrors().size() + "\n");
+            for (LexicalException error : analysis.getErrors()) {
+                writer.write("  " + error.getErrorMessage() + " at line " + error.getLine() +
+                        ", column " + error.getColumn() + "\n");
+            }
+            writer.write("Syntax errors: " + analysis.getDiagnostics().size() + "\n");
+            for (ParseDiagnostic diagnostic : analysis.getDiagnostics()) {
+                writer.write("  " + diagnostic.getMessage() + " at line " + diagnostic.getLine() +
+                        ", column " + diagnostic.getColumn() + "\n");
+            }
+            writer.write("Automata: " + analysis.getAutomata().size() + "\n");
+            for (Automaton automaton : analysis.getAutomata()) {
+                int transitions = automaton.getTransitions().values().stream().mapToInt(m -> m.size()).sum();
+                writer.write("  " + automaton.getName() +
+                        ": states=" + automaton.getStates().size() +
+                        ", alphabet=" + automaton.getAlphabet().size() +
+                        ", finals=" + automaton.getFinalStates().size() +
+                        ", transitions=" + transitions + "\n");
+            }
+        }
+    }
+
+    private void writeSummary(List<FileAnalysis> results) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(outputDirectory.resolve(SUMMARY_FILE), StandardCharsets.UTF_8)) {
+            writer.write("file,status,tokens,lexical_errors,syntax_errors,automata,states,transitions,millis\n");
+            for (FileAnalysis result : results) {
+                writer.write(csv(result.getFile().toString()) + ',' +
+                        (result.isFailed() ? csv("FAILED: " + result.getFailure()) : "OK") + ',' +
+                        result.getTokenCount() + ',' +
+                        result.getErrors().size() + ',' +
+                        result.getDiagnostics().size() + ',' +
+                        result.getAutomata().size() + ',' +
+                        result.getStateCount() + ',' +
+                        result.getTransitionCount() + ',' +
+                        result.getElapsedNanos() / 1_000_000 + '\n');
+            }
+        }
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,103 @@
+package com.afdgraph.batch;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.ParseDiagnostic;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public class FileAnalysis {
+    private final Path file;
+    private final int tokenCount;
+    private final List<LexicalException> errors;
+    private final List<ParseDiagnostic> diagnostics;
+    private final List<Automaton> automata;
+    private final long elapsedNanos;
+    private final String failure;
+
+    public FileAnalysis(Path file, int tokenCount, List<LexicalException> errors,
+                        List<Automaton> automata, long elapsedNanos) {
+        this(file, tokenCount, errors, List.of(), automata, elapsedNanos);
+    }
+
+    public FileAnalysis(Path file, int tokenCount, List<LexicalException> errors, List<ParseDiagnostic> diagnostics,
+                        List<Automaton> automata, long elapsedNanos) {
+        this.file = file;
+        this.tokenCount = tokenCount;
+        this.errors = errors;
+        this.diagnostics = diagnostics;
+        this.automata = automata;
+        this.elapsedNanos = elapsedNanos;
+        this.failure = null;
+    }
+
+    private FileAnalysis(Path file, String failure, long elapsedNanos) {
+        this.file = file;
+        this.tokenCount = 0;
+        this.errors = List.of();
+        this.diagnostics = List.of();
+        this.automata = List.of();
+        this.elapsedNanos = elapsedNanos;
+        this.failure = failure;
+    }
+
+    public static FileAnalysis failed(Path file, Exception cause, long elapsedNanos) {
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return new FileAnalysis(file, message, elapsedNanos);
+    }
+
+    // Getters
+    public Path getFile() {
+        return file;
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    public List<LexicalException> getErrors() {
+        return errors;
+    }
+
+    public List<ParseDiagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    public List<Automaton> getAutomata() {
+        return automata;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public int getStateCount() {
+        return automata.stream().mapToInt(a -> a.getStates().size()).sum();
+    }
+
+    public int getTransitionCount() {
+        return automata.stream()
+                .mapToInt(a -> a.getTransitions().values().stream().mapToInt(m -> m.size()).sum())
+                .sum();
+    }
+
+    @Override
+    public String toString() {
+        return "FileAnalysis{" +
+                "file=" + file +
+                ", tokenCount=" + tokenCount +
+                ", errors=" + errors.size() +
+                ", automata=" + automata.size() +
+                ", failure='" + failure + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,380 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.lexer.AutomatonParser;
+import com.afdgraph.lexer.Lexer;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.ParseDiagnostic;
+import com.afdgraph.models.State;
+import com.afdgraph.models.TokenStream;
+import com.afdgraph.models.TokenType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+// Content-addressed cache of analyzed .lfp files. An entry is named after the SHA-256 of the source
+// and holds the lexing summary plus every automaton in compiled form: state names, a symbol
+// dictionary, a final-state bitset and the dense transition table. Entries are read back through a
+// memory mapping, so a hit costs a hash of the source and a bulk copy of the tables instead of a
+// full lex and parse. Automaton objects are only rebuilt from the tables when asked for.
+public class AutomatonCache {
+    private static final int MAGIC = 0x41464443; // "AFDC"
+    // Bumped whenever the format or what the parser produces changes, so older entries are misses
+    private static final int VERSION = 3;
+    private static final String EXTENSION = ".afdc";
+
+    private final Path directory;
+
+    public AutomatonCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public static class Entry {
+        private final int tokenCount;
+        private final List<LexicalException> errors;
+        private final List<ParseDiagnostic> diagnostics;
+        private final List<CompiledAutomaton> compiled;
+        private final List<String> descriptions;
+        private final int[] declaredStates;
+        private final int[] declaredSymbols;
+        private final List<List<String>> extraFinals;
+        private final boolean cached;
+        private List<Automaton> automata;
+
+        private Entry(int tokenCount, List<LexicalException> errors, List<ParseDiagnostic> diagnostics,
+                      List<CompiledAutomaton> compiled, List<String> descriptions, int[] declaredStates,
+                      int[] declaredSymbols, List<List<String>> extraFinals, boolean cached) {
+            this.tokenCount = tokenCount;
+            this.errors = errors;
+            this.diagnostics = diagnostics;
+            this.compiled = compiled;
+            this.descriptions = descriptions;
+            this.declaredStates = declaredStates;
+            this.declaredSymbols = declaredSymbols;
+            this.extraFinals = extraFinals;
+            this.cached = cached;
+        }
+
+        // Getters
+        public int getTokenCount() {
+            return tokenCount;
+        }
+
+        public List<LexicalException> getErrors() {
+            return errors;
+        }
+
+        public List<ParseDiagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+        public List<CompiledAutomaton> getCompiled() {
+            return compiled;
+        }
+
+        // True when the entry was loaded from the cache rather than analyzed
+        public boolean isCached() {
+            return cached;
+        }
+
+        // Rebuilt from the compiled tables on first use, in the order the parser returned them
+        public synchronized List<Automaton> getAutomata() {
+            if (automata == null) {
+                List<Automaton> rebuilt = new ArrayList<>(compiled.size());
+                for (int i = 0; i < compiled.size(); i++) {
+                    rebuilt.add(rebuild(i));
+                }
+                automata = Collections.unmodifiableList(rebuilt);
+            }
+            return automata;
+        }
+
+        private Automaton rebuild(int index) {
+            CompiledAutomaton dfa = compiled.get(index);
+            Automaton automaton = new Automaton(dfa.getName());
+            automaton.setDescription(descriptions.get(index));
+
+            State[] states = new State[dfa.getStateCount()];
+            for (int id = 0; id < states.length; id++) {
+                states[id] = new State(dfa.getState(id).getName());
+            }
+            for (int id = 0; id < declaredStates[index]; id++) {
+                automaton.addState(states[id]);
+            }
+            for (int column = 0; column < declaredSymbols[index]; column++) {
+                automaton.addAlphabetSymbol(dfa.getSymbol(column));
+            }
+            if (dfa.getInitialState() != CompiledAutomaton.DEAD) {
+                State initial = states[dfa.getInitialState()];
+                initial.setInitial(true);
+                automaton.setInitialState(initial);
+            }
+            for (int id = 0; id < states.length; id++) {
+                if (dfa.isAccepting(id)) {
+                    states[id].setFinal(true);
+                    automaton.addFinalState(states[id]);
+                }
+                for (int column = 0; column < dfa.getSymbolCount(); column++) {
+                    int next = dfa.step(id, column);
+                    if (next != CompiledAutomaton.DEAD) {
+                        automaton.addTransition(states[id], dfa.getSymbol(column), states[next]);
+                    }
+                }
+            }
+            for (String name : extraFinals.get(index)) {
+                State state = new State(name);
+                state.setFinal(true);
+                automaton.addFinalState(state);
+            }
+            return automaton;
+        }
+    }
+
+    // Loads the entry for the file's current content, analyzing and storing it on a miss
+    public Entry load(Path source) throws IOException {
+        byte[] content = Files.readAllBytes(source);
+        byte[] hash = sha256(content);
+        Path entryFile = directory.resolve(hex(hash) + EXTENSION);
+
+        if (Files.isRegularFile(entryFile)) {
+            Entry entry = read(entryFile, hash);
+            if (entry != null) return entry;
+        }
+
+        Lexer lexer = new Lexer(new String(content, StandardCharsets.UTF_8));
+        TokenStream tokens = lexer.analyzeToStream();
+        AutomatonParser parser = new AutomatonParser(tokens);
+        List<Automaton> automata = parser.parseAllParallel();
+        Entry entry = analyzed(tokens.size(), lexer.getErrors(), parser.getDiagnostics(), automata);
+        write(entryFile, hash, entry, automata);
+        return entry;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private static Entry analyzed(int tokenCount, List<LexicalException> errors, List<ParseDiagnostic> diagnostics,
+                                  List<Automaton> automata) {
+        List<CompiledAutomaton> compiled = new ArrayList<>(automata.size());
+        List<String> descriptions = new ArrayList<>(automata.size());
+        int[] declaredStates = new int[automata.size()];
+        int[] declaredSymbols = new int[automata.size()];
+        List<List<String>> extraFinals = new ArrayList<>(automata.size());
+        for (int i = 0; i < automata.size(); i++) {
+            Automaton automaton = automata.get(i);
+            CompiledAutomaton dfa = CompiledAutomaton.compile(automaton);
+            compiled.add(dfa);
+            descriptions.add(automaton.getDescription());
+            // The compiled order starts with the declared states and alphabet
+            declaredStates[i] = automaton.getStates().size();
+            declaredSymbols[i] = automaton.getAlphabet().size();
+            List<String> extra = new ArrayList<>();
+            for (State state : automaton.getFinalStates()) {
+                if (dfa.getStateId(state) == CompiledAutomaton.DEAD) extra.add(state.getName());
+            }
+            extraFinals.add(extra);
+        }
+        Entry entry = new Entry(tokenCount, errors, diagnostics, compiled, descriptions, declaredStates,
+                declaredSymbols, extraFinals, false);
+        entry.automata = automata;
+        return entry;
+    }
+
+    // Format (big-endian): magic, version, source SHA-256, token count, errors (line, column,
+    // message), parse diagnostics (line, column, message, expected and found type names), then per
+    // automaton: name, description, state/symbol counts, initial state, state names, symbols, final-state bitset as longs, finals outside the table, and the table itself
+    private void write(Path entryFile, byte[] hash, Entry entry, List<Automaton> automata) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(hash);
+            out.writeInt(entry.tokenCount);
+            out.writeInt(entry.errors.size());
+            for (LexicalException error : entry.errors) {
+                out.writeInt(error.getLine());
+                out.writeInt(error.getColumn());
+                writeString(out, error.getErrorMessage());
+            }
+            out.writeInt(entry.diagnostics.size());
+            for (ParseDiagnostic diagnostic : entry.diagnostics) {
+                out.writeInt(diagnostic.getLine());
+                out.writeInt(diagnostic.getColumn());
+                writeString(out, diagnostic.getMessage());
+                writeString(out, diagnostic.getExpected() == null ? null : diagnostic.getExpected().name());
+                writeString(out, diagnostic.getFound() == null ? null : diagnostic.getFound().name());
+            }
+
+            out.writeInt(automata.size());
+            for (int i = 0; i < automata.size(); i++) {
+                CompiledAutomaton dfa = entry.compiled.get(i);
+                writeString(out, dfa.getName());
+                writeString(out, entry.descriptions.get(i));
+                out.writeInt(dfa.getStateCount());
+                out.writeInt(entry.declaredStates[i]);
+                out.writeInt(dfa.getSymbolCount());
+                out.writeInt(entry.declaredSymbols[i]);
+                out.writeInt(dfa.getInitialState());
+                for (int id = 0; id < dfa.getStateCount(); id++) {
+                    writeString(out, dfa.getState(id).getName());
+                }
+                for (int column = 0; column < dfa.getSymbolCount(); column++) {
+                    writeString(out, dfa.getSymbol(column));
+                }
+                long[] finals = new long[(dfa.getStateCount() + 63) >>> 6];
+                for (int id = 0; id < dfa.getStateCount(); id++) {
+                    if (dfa.isAccepting(id)) finals[id >>> 6] |= 1L << id;
+                }
+                for (long word : finals) {
+                    out.writeLong(word);
+                }
+                out.writeInt(entry.extraFinals.get(i).size());
+                for (String name : entry.extraFinals.get(i)) {
+                    writeString(out, name);
+                }
+                for (int id = 0; id < dfa.getStateCount(); id++) {
+                    for (int column = 0; column < dfa.getSymbolCount(); column++) {
+                        out.writeInt(dfa.step(id, column));
+                    }
+                }
+            }
+        }
+
+        // Write aside and move into place, so concurrent readers never see a partial entry
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+        try {
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, entryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Returns null for an entry that is stale, truncated or from another format version
+    private static Entry read(Path entryFile, byte[] hash) throws IOException {
+        try (FileChannel channel = FileChannel.open(entryFile, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+            byte[] stored = new byte[hash.length];
+            in.get(stored);
+            if (!Arrays.equals(stored, hash)) return null;
+
+            int tokenCount = in.getInt();
+            int errorCount = in.getInt();
+            List<LexicalException> errors = new ArrayList<>(errorCount);
+            for (int i = 0; i < errorCount; i++) {
+                int line = in.getInt();
+                int column = in.getInt();
+                errors.add(new LexicalException(readString(in), line, column));
+            }
+            int diagnosticCount = in.getInt();
+            List<ParseDiagnostic> diagnostics = new ArrayList<>(diagnosticCount);
+            for (int i = 0; i < diagnosticCount; i++) {
+                int line = in.getInt();
+                int column = in.getInt();
+                String message = readString(in);
+                TokenType expected = tokenType(readString(in));
+                diagnostics.add(new ParseDiagnostic(message, expected, tokenType(readString(in)), line, column));
+            }
+
+            int count = in.getInt();
+            List<CompiledAutomaton> compiled = new ArrayList<>(count);
+            List<String> descriptions = new ArrayList<>(count);
+            int[] declaredStates = new int[count];
+            int[] declaredSymbols = new int[count];
+            List<List<String>> extraFinals = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = readString(in);
+                descriptions.add(readString(in));
+                int stateCount = in.getInt();
+                declaredStates[i] = in.getInt();
+                int symbolCount = in.getInt();
+                declaredSymbols[i] = in.getInt();
+                int initial = in.getInt();
+
+                State[] states = new State[stateCount];
+                for (int id = 0; id < stateCount; id++) {
+                    states[id] = new State(readString(in));
+                }
+                String[] symbols = new String[symbolCount];
+                for (int column = 0; column < symbolCount; column++) {
+                    symbols[column] = readString(in);
+                }
+                boolean[] accepting = new boolean[stateCount];
+                long[] finals = new long[(stateCount + 63) >>> 6];
+                in.asLongBuffer().get(finals);
+                in.position(in.position() + finals.length * Long.BYTES);
+                for (int id = 0; id < stateCount; id++) {
+                    accepting[id] = (finals[id >>> 6] & (1L << id)) != 0;
+                }
+                List<String> extra = new ArrayList<>();
+                for (int e = in.getInt(); e > 0; e--) {
+                    extra.add(readString(in));
+                }
+                extraFinals.add(extra);
+
+                int[] table = new int[stateCount * symbolCount];
+                in.asIntBuffer().get(table);
+                in.position(in.position() + table.length * Integer.BYTES);
+                compiled.add(CompiledAutomaton.of(name, states, symbols, initial, accepting, table));
+            }
+            return new Entry(tokenCount, errors, diagnostics, compiled, descriptions, declaredStates,
+                    declaredSymbols, extraFinals, true);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException and friends: treat a damaged entry as a miss
+            return null;
+        }
+    }
+
+    // Length-prefixed UTF-8; -1 stands for null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static TokenType tokenType(String name) {
+        return name == null ? null : TokenType.valueOf(name);
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,182 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+// Runs many inputs through one compiled DFA on a fork/join pool. Each char of an input is one
+// symbol, as in CompiledAutomaton.run(CharSequence). Inputs are split into ranges of whole 64-input
+// words, so every task writes its own longs of the result bitset and no synchronization is needed.
+public class BatchEvaluator {
+    // Below this many chars a range is run in the current task instead of being split further
+    private static final int MIN_CHARS_PER_TASK = 64 * 1024;
+
+    private final CompiledAutomaton dfa;
+    private final ForkJoinPool pool;
+
+    public BatchEvaluator(Automaton automaton) {
+        this(CompiledAutomaton.compile(automaton));
+    }
+
+    public BatchEvaluator(CompiledAutomaton dfa) {
+        this(dfa, ForkJoinPool.commonPool());
+    }
+
+    public BatchEvaluator(CompiledAutomaton dfa, ForkJoinPool pool) {
+        this.dfa = dfa;
+        this.pool = pool;
+    }
+
+    public static class Result {
+        private final int size;
+        private final long[] accepted;
+        private final int[] finalStates;
+
+        Result(int size, long[] accepted, int[] finalStates) {
+            this.size = size;
+            this.accepted = accepted;
+            this.finalStates = finalStates;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isAccepted(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            return (accepted[index >>> 6] & (1L << index)) != 0;
+        }
+
+        public int getAcceptedCount() {
+            int count = 0;
+            for (long word : accepted) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        // Getters
+        public BitSet getAccepted() {
+            return BitSet.valueOf(accepted);
+        }
+
+        public boolean hasFinalStates() {
+            return finalStates != null;
+        }
+
+        // State id in the compiled automaton where the input ended, or CompiledAutomaton.DEAD
+        public int getFinalState(int index) {
+            if (finalStates == null) {
+                throw new IllegalStateException("Final states were not recorded for this batch");
+            }
+            return finalStates[index];
+        }
+    }
+
+    public Result evaluate(List<? extends CharSequence> inputs) {
+        return evaluate(inputs, false);
+    }
+
+    public Result evaluate(List<? extends CharSequence> inputs, boolean recordFinalStates) {
+        CharSequence[] array = inputs.toArray(new CharSequence[0]);
+        return evaluate(array, recordFinalStates);
+    }
+
+    public Result evaluate(Stream<? extends CharSequence> inputs, boolean recordFinalStates) {
+        return evaluate(inputs.toArray(CharSequence[]::new), recordFinalStates);
+    }
+
+    // One input per line, without the line terminator
+    public Result evaluate(Path file, boolean recordFinalStates) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        }
+        return evaluate(lines, recordFinalStates);
+    }
+
+    private Result evaluate(CharSequence[] inputs, boolean recordFinalStates) {
+        int words = (inputs.length + 63) >>> 6;
+        long[] accepted = new long[words];
+        int[] finalStates = recordFinalStates ? new int[inputs.length] : null;
+
+        // Prefix sums of input lengths let ranges be split by work instead of by count
+        long[] charsBefore = new long[words + 1];
+        for (int word = 0; word < words; word++) {
+            long chars = 0;
+            for (int i = word << 6, end = Math.min(inputs.length, i + 64); i < end; i++) {
+                chars += inputs[i].length() + 1;
+            }
+            charsBefore[word + 1] = charsBefore[word] + chars;
+        }
+
+        Chunk root = new Chunk(inputs, accepted, finalStates, charsBefore, 0, words);
+        if (charsBefore[words] <= MIN_CHARS_PER_TASK) {
+            root.compute();
+        } else {
+            pool.invoke(root);
+        }
+        return new Result(inputs.length, accepted, finalStates);
+    }
+
+    // Runs the inputs of words [fromWord, toWord), splitting in two while the range is large enough
+    private class Chunk extends RecursiveAction {
+        private final CharSequence[] inputs;
+        private final long[] accepted;
+        private final int[] finalStates;
+        private final long[] charsBefore;
+        private final int fromWord;
+        private final int toWord;
+
+        Chunk(CharSequence[] inputs, long[] accepted, int[] finalStates, long[] charsBefore,
+              int fromWord, int toWord) {
+            this.inputs = inputs;
+            this.accepted = accepted;
+            this.finalStates = finalStates;
+            this.charsBefore = charsBefore;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected void compute() {
+            if (toWord - fromWord > 1 && charsBefore[toWord] - charsBefore[fromWord] > MIN_CHARS_PER_TASK) {
+                // Split where half of the chars are on each side
+                long half = (charsBefore[fromWord] + charsBefore[toWord]) >>> 1;
+                int mid = Arrays.binarySearch(charsBefore, fromWord + 1, toWord, half);
+                mid = mid >= 0 ? mid : -mid - 1;
+                mid = Math.max(fromWord + 1, Math.min(toWord - 1, mid));
+                invokeAll(new Chunk(inputs, accepted, finalStates, charsBefore, fromWord, mid),
+                        new Chunk(inputs, accepted, finalStates, charsBefore, mid, toWord));
+                return;
+            }
+
+            int initial = dfa.getInitialState();
+            for (int word = fromWord; word < toWord; word++) {
+                long bits = 0;
+                int base = word << 6;
+                int end = Math.min(inputs.length, base + 64);
+                for (int i = base; i < end; i++) {
+                    CharSequence input = inputs[i];
+                    int state = dfa.run(initial, input, 0, input.length());
+                    if (dfa.isAccepting(state)) bits |= 1L << (i - base);
+                    if (finalStates != null) finalStates[i] = state;
+                }
+                accepted[word] = bits;
+            }
+        }
+    }
+}
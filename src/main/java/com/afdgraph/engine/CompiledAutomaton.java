@@ -0,0 +1,213 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import com.afdgraph.models.TransitionIndex;
+
+import java.util.*;
+
+public final class CompiledAutomaton {
+    public static final int DEAD = -1;
+
+    private static final int DIRECT_CHARS = 256;
+
+    private final String name;
+    private final State[] states;
+    private final String[] symbols;
+    private final int symbolCount;
+    private final int initialState;
+    private final boolean[] accepting;
+    // Row-major: table[state * symbolCount + column], DEAD for missing transitions
+    private final int[] table;
+    private final Map<State, Integer> stateIds;
+    private final Map<String, Integer> symbolIds;
+
+    // Single-character symbols: Latin-1 chars index directly, the rest go through a sorted lookup
+    private final int[] directColumns;
+    private final char[] wideChars;
+    private final int[] wideColumns;
+
+    private CompiledAutomaton(String name, State[] states, String[] symbols, int initialState,
+                              boolean[] accepting, int[] table) {
+        this.name = name;
+        this.states = states;
+        this.symbols = symbols;
+        this.symbolCount = symbols.length;
+        this.initialState = initialState;
+        this.accepting = accepting;
+        this.table = table;
+
+        this.stateIds = new HashMap<>();
+        for (int i = 0; i < states.length; i++) {
+            stateIds.put(states[i], i);
+        }
+        this.symbolIds = new HashMap<>();
+        for (int i = 0; i < symbols.length; i++) {
+            symbolIds.put(symbols[i], i);
+        }
+
+        this.directColumns = new int[DIRECT_CHARS];
+        Arrays.fill(directColumns, DEAD);
+        TreeMap<Character, Integer> wide = new TreeMap<>();
+        for (int i = 0; i < symbols.length; i++) {
+            if (symbols[i].length() != 1) continue;
+            char c = symbols[i].charAt(0);
+            if (c < DIRECT_CHARS) {
+                directColumns[c] = i;
+            } else {
+                wide.put(c, i);
+            }
+        }
+        this.wideChars = new char[wide.size()];
+        this.wideColumns = new int[wide.size()];
+        int w = 0;
+        for (Map.Entry<Character, Integer> entry : wide.entrySet()) {
+            wideChars[w] = entry.getKey();
+            wideColumns[w] = entry.getValue();
+            w++;
+        }
+    }
+
+    public static CompiledAutomaton compile(Automaton automaton) {
+        TransitionIndex index = automaton.getTransitionIndex();
+        int stateCount = index.getStateCount();
+        int symbolCount = index.getSymbolCount();
+
+        State[] states = new State[stateCount];
+        String[] symbols = new String[symbolCount];
+        for (int i = 0; i < stateCount; i++) {
+            states[i] = index.getState(i);
+        }
+        for (int i = 0; i < symbolCount; i++) {
+            symbols[i] = index.getSymbol(i);
+        }
+
+        // Widen the per-state edge rows into one dense table
+        int[] table = new int[stateCount * symbolCount];
+        Arrays.fill(table, DEAD);
+        for (int state = 0; state < stateCount; state++) {
+            int[] edges = index.getEdges(state);
+            System.arraycopy(edges, 0, table, state * symbolCount, edges.length);
+        }
+
+        boolean[] accepting = new boolean[stateCount];
+        for (State state : automaton.getFinalStates()) {
+            int id = index.getStateId(state);
+            if (id != TransitionIndex.DEAD) accepting[id] = true;
+        }
+
+        return new CompiledAutomaton(automaton.getName(), states, symbols,
+                index.getStateId(automaton.getInitialState()), accepting, table);
+    }
+
+    // For readers of the binary cache format, which stores exactly these arrays
+    static CompiledAutomaton of(String name, State[] states, String[] symbols, int initialState,
+                                boolean[] accepting, int[] table) {
+        return new CompiledAutomaton(name, states, symbols, initialState, accepting, table);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStateCount() {
+        return states.length;
+    }
+
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    public int getInitialState() {
+        return initialState;
+    }
+
+    public State getState(int id) {
+        return states[id];
+    }
+
+    public int getStateId(State state) {
+        Integer id = stateIds.get(state);
+        return id == null ? DEAD : id;
+    }
+
+    public String getSymbol(int column) {
+        return symbols[column];
+    }
+
+    public int getSymbolColumn(String symbol) {
+        Integer column = symbolIds.get(symbol);
+        return column == null ? DEAD : column;
+    }
+
+    public int getColumn(char c) {
+        if (c < DIRECT_CHARS) {
+            return directColumns[c];
+        }
+        int index = Arrays.binarySearch(wideChars, c);
+        return index < 0 ? DEAD : wideColumns[index];
+    }
+
+    public boolean isAccepting(int state) {
+        return state != DEAD && accepting[state];
+    }
+
+    public int step(int state, int column) {
+        if (state == DEAD || column == DEAD) return DEAD;
+        return table[state * symbolCount + column];
+    }
+
+    // Runs every char of the input as a single-character symbol, returning the final state id or DEAD
+    public int run(CharSequence input) {
+        return run(initialState, input, 0, input.length());
+    }
+
+    public int run(int state, CharSequence input, int start, int end) {
+        for (int i = start; i < end && state != DEAD; i++) {
+            char c = input.charAt(i);
+            int column = c < DIRECT_CHARS ? directColumns[c] : getColumn(c);
+            state = column == DEAD ? DEAD : table[state * symbolCount + column];
+        }
+        return state;
+    }
+
+    // Runs a sequence of pre-resolved symbol columns, for alphabets with multi-character symbols
+    public int run(int[] columns, int start, int end) {
+        int state = initialState;
+        for (int i = start; i < end && state != DEAD; i++) {
+            int column = columns[i];
+            state = column == DEAD ? DEAD : table[state * symbolCount + column];
+        }
+        return state;
+    }
+
+    public int run(List<String> symbols) {
+        int state = initialState;
+        for (int i = 0, n = symbols.size(); i < n && state != DEAD; i++) {
+            state = step(state, getSymbolColumn(symbols.get(i)));
+        }
+        return state;
+    }
+
+    public boolean accepts(CharSequence input) {
+        return isAccepting(run(input));
+    }
+
+    public boolean accepts(int[] columns) {
+        return isAccepting(run(columns, 0, columns.length));
+    }
+
+    public boolean accepts(List<String> symbols) {
+        return isAccepting(run(symbols));
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledAutomaton{" +
+                "name='" + name + '\'' +
+                ", states=" + states.length +
+                ", symbols=" + symbolCount +
+                ", initialState=" + initialState +
+                '}';
+    }
+}
@@ -0,0 +1,318 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+
+import java.util.*;
+
+// Hopcroft minimization over the compiled transition table. Unreachable states are dropped first;
+// missing transitions go to an implicit sink, and states that end up equivalent to it can never
+// accept, so they are dropped as well. Each remaining class keeps the name of its first state.
+public final class DfaMinimizer {
+
+    private DfaMinimizer() {
+    }
+
+    public static class Result {
+        private final Automaton automaton;
+        private final Map<State, State> stateMapping;
+        private final List<State> unreachableStates;
+        private final List<State> deadStates;
+
+        Result(Automaton automaton, Map<State, State> stateMapping, List<State> unreachableStates,
+               List<State> deadStates) {
+            this.automaton = automaton;
+            this.stateMapping = stateMapping;
+            this.unreachableStates = unreachableStates;
+            this.deadStates = deadStates;
+        }
+
+        // Getters
+        public Automaton getAutomaton() {
+            return automaton;
+        }
+
+        // Original state -> state of the minimized automaton, for every state that was kept
+        public Map<State, State> getStateMapping() {
+            return stateMapping;
+        }
+
+        public List<State> getUnreachableStates() {
+            return unreachableStates;
+        }
+
+        // Reachable states from which no final state can be reached
+        public List<State> getDeadStates() {
+            return deadStates;
+        }
+
+        // One line per minimized state with the original states merged into it
+        public String getReport() {
+            Map<State, List<String>> merged = new LinkedHashMap<>();
+            for (Map.Entry<State, State> entry : stateMapping.entrySet()) {
+                merged.computeIfAbsent(entry.getValue(), k -> new ArrayList<>()).add(entry.getKey().getName());
+            }
+            StringBuilder report = new StringBuilder();
+            report.append(automaton.getName()).append(": ")
+                    .append(stateMapping.size() + unreachableStates.size() + deadStates.size())
+                    .append(" -> ").append(automaton.getStates().size()).append(" states\n");
+            for (Map.Entry<State, List<String>> entry : merged.entrySet()) {
+                report.append("  ").append(entry.getKey().getName()).append(" <- ")
+                        .append(String.join(", ", entry.getValue())).append('\n');
+            }
+            if (!unreachableStates.isEmpty()) {
+                report.append("  unreachable: ").append(names(unreachableStates)).append('\n');
+            }
+            if (!deadStates.isEmpty()) {
+                report.append("  dead: ").append(names(deadStates)).append('\n');
+            }
+            return report.toString();
+        }
+
+        private static String names(List<State> states) {
+            StringJoiner joiner = new StringJoiner(", ");
+            for (State state : states) {
+                joiner.add(state.getName());
+            }
+            return joiner.toString();
+        }
+    }
+
+    public static Result minimize(Automaton automaton) {
+        return minimize(automaton, CompiledAutomaton.compile(automaton));
+    }
+
+    public static Result minimize(Automaton automaton, CompiledAutomaton dfa) {
+        int symbolCount = dfa.getSymbolCount();
+        if (dfa.getInitialState() == CompiledAutomaton.DEAD) {
+            throw new IllegalArgumentException("Automaton " + automaton.getName() + " has no initial state");
+        }
+
+        // Reachable states get dense ids in BFS order; the sink takes the last id
+        int[] reachableId = new int[dfa.getStateCount()];
+        Arrays.fill(reachableId, -1);
+        int[] original = new int[dfa.getStateCount()];
+        int count = 0;
+        reachableId[dfa.getInitialState()] = count;
+        original[count++] = dfa.getInitialState();
+        for (int head = 0; head < count; head++) {
+            for (int column = 0; column < symbolCount; column++) {
+                int next = dfa.step(original[head], column);
+                if (next != CompiledAutomaton.DEAD && reachableId[next] < 0) {
+                    reachableId[next] = count;
+                    original[count++] = next;
+                }
+            }
+        }
+        int sink = count;
+        int n = count + 1;
+
+        int[] next = new int[n * symbolCount];
+        for (int s = 0; s < count; s++) {
+            for (int column = 0; column < symbolCount; column++) {
+                int target = dfa.step(original[s], column);
+                next[s * symbolCount + column] = target == CompiledAutomaton.DEAD ? sink : reachableId[target];
+            }
+        }
+        Arrays.fill(next, sink * symbolCount, n * symbolCount, sink);
+
+        int[] classOf = refine(n, symbolCount, next, s -> s < sink && dfa.isAccepting(original[s]));
+        return build(automaton, dfa, original, count, classOf, symbolCount, next, reachableId);
+    }
+
+    interface Acceptance {
+        boolean test(int state);
+    }
+
+    // Partition refinement: returns the class of every state, classes numbered from 0
+    static int[] refine(int n, int symbolCount, int[] next, Acceptance accepting) {
+        // Predecessors grouped by (target, symbol) in one CSR array
+        int[] predecessorStart = new int[n * symbolCount + 1];
+        for (int s = 0; s < n; s++) {
+            for (int column = 0; column < symbolCount; column++) {
+                predecessorStart[next[s * symbolCount + column] * symbolCount + column + 1]++;
+            }
+        }
+        for (int i = 0; i < n * symbolCount; i++) {
+            predecessorStart[i + 1] += predecessorStart[i];
+        }
+        int[] predecessors = new int[n * symbolCount];
+        int[] fill = Arrays.copyOf(predecessorStart, n * symbolCount);
+        for (int s = 0; s < n; s++) {
+            for (int column = 0; column < symbolCount; column++) {
+                predecessors[fill[next[s * symbolCount + column] * symbolCount + column]++] = s;
+            }
+        }
+
+        // Blocks are ranges of elements; [first, marked) holds the states marked by the current splitter
+        int[] elements = new int[n];
+        int[] location = new int[n];
+        int[] blockOf = new int[n];
+        int[] first = new int[n];
+        int[] end = new int[n];
+        int[] marked = new int[n];
+        int blocks = 0;
+
+        int accepted = 0;
+        for (int s = 0; s < n; s++) {
+            if (accepting.test(s)) elements[accepted++] = s;
+        }
+        int rejected = accepted;
+        for (int s = 0; s < n; s++) {
+            if (!accepting.test(s)) elements[rejected++] = s;
+        }
+        if (accepted > 0) {
+            first[blocks] = 0;
+            end[blocks] = accepted;
+            blocks++;
+        }
+        if (accepted < n) {
+            first[blocks] = accepted;
+            end[blocks] = n;
+            blocks++;
+        }
+        for (int b = 0; b < blocks; b++) {
+            marked[b] = first[b];
+            for (int i = first[b]; i < end[b]; i++) {
+                location[elements[i]] = i;
+                blockOf[elements[i]] = b;
+            }
+        }
+
+        // Splitters as block * symbolCount + symbol
+        BitSet pending = new BitSet();
+        int[] work = new int[Math.max(1, n * symbolCount)];
+        int workSize = 0;
+        if (blocks == 2) {
+            int smaller = end[0] - first[0] <= end[1] - first[1] ? 0 : 1;
+            for (int column = 0; column < symbolCount; column++) {
+                work[workSize++] = smaller * symbolCount + column;
+                pending.set(smaller * symbolCount + column);
+            }
+        }
+
+        int[] splitter = new int[n];
+        int[] touched = new int[n];
+        while (workSize > 0) {
+            int item = work[--workSize];
+            pending.clear(item);
+            int block = item / symbolCount;
+            int column = item % symbolCount;
+
+            // Copy the splitter first: marking reorders elements, possibly inside this block
+            int size = end[block] - first[block];
+            System.arraycopy(elements, first[block], splitter, 0, size);
+            int touchedCount = 0;
+            for (int i = 0; i < size; i++) {
+                int key = splitter[i] * symbolCount + column;
+                for (int p = predecessorStart[key]; p < predecessorStart[key + 1]; p++) {
+                    int s = predecessors[p];
+                    int b = blockOf[s];
+                    if (location[s] < marked[b]) continue;
+                    if (marked[b] == first[b]) touched[touchedCount++] = b;
+                    swap(elements, location, location[s], marked[b]);
+                    marked[b]++;
+                }
+            }
+
+            for (int t = 0; t < touchedCount; t++) {
+                int b = touched[t];
+                if (marked[b] == end[b]) {
+                    marked[b] = first[b];
+                    continue;
+                }
+                // The marked part becomes a new block
+                int split = blocks++;
+                first[split] = first[b];
+                end[split] = marked[b];
+                marked[split] = first[split];
+                first[b] = end[split];
+                marked[b] = first[b];
+                for (int i = first[split]; i < end[split]; i++) {
+                    blockOf[elements[i]] = split;
+                }
+
+                int smaller = end[split] - first[split] <= end[b] - first[b] ? split : b;
+                for (int c = 0; c < symbolCount; c++) {
+                    int add = pending.get(b * symbolCount + c) ? split : smaller;
+                    if (!pending.get(add * symbolCount + c)) {
+                        pending.set(add * symbolCount + c);
+                        work[workSize++] = add * symbolCount + c;
+                    }
+                }
+            }
+        }
+        return blockOf;
+    }
+
+    private static void swap(int[] elements, int[] location, int i, int j) {
+        int a = elements[i];
+        int b = elements[j];
+        elements[i] = b;
+        elements[j] = a;
+        location[b] = i;
+        location[a] = j;
+    }
+
+    private static Result build(Automaton automaton, CompiledAutomaton dfa, int[] original, int count,
+                                int[] classOf, int symbolCount, int[] next, int[] reachableId) {
+        int sinkClass = classOf[count];
+
+        // Classes are named after their first member in declaration order
+        State[] classState = new State[count + 1];
+        int[] representative = new int[count + 1];
+        List<Integer> classes = new ArrayList<>();
+        Map<State, State> mapping = new LinkedHashMap<>();
+        List<State> unreachable = new ArrayList<>();
+        List<State> dead = new ArrayList<>();
+        for (int id = 0; id < dfa.getStateCount(); id++) {
+            State state = dfa.getState(id);
+            int s = reachableId[id];
+            if (s < 0) {
+                unreachable.add(state);
+            } else if (classOf[s] == sinkClass) {
+                dead.add(state);
+            } else {
+                int c = classOf[s];
+                if (classState[c] == null) {
+                    classState[c] = new State(state.getName());
+                    representative[c] = s;
+                    classes.add(c);
+                }
+                mapping.put(state, classState[c]);
+            }
+        }
+
+        Automaton minimized = new Automaton(automaton.getName());
+        minimized.setDescription(automaton.getDescription());
+        for (int column = 0; column < symbolCount; column++) {
+            minimized.addAlphabetSymbol(dfa.getSymbol(column));
+        }
+
+        // When nothing is accepted the initial state is the only one left, with no edges
+        int initialClass = classOf[0];
+        State initial = initialClass == sinkClass
+                ? new State(dfa.getState(original[0]).getName())
+                : classState[initialClass];
+        initial.setInitial(true);
+        minimized.setInitialState(initial);
+        minimized.addState(initial);
+
+        for (int c : classes) {
+            State state = classState[c];
+            minimized.addState(state);
+            int s = representative[c];
+            if (dfa.isAccepting(original[s])) {
+                state.setFinal(true);
+                minimized.addFinalState(state);
+            }
+            for (int column = 0; column < symbolCount; column++) {
+                int target = classOf[next[s * symbolCount + column]];
+                if (target == sinkClass) continue;
+                minimized.addTransition(state, dfa.getSymbol(column), classState[target]);
+            }
+        }
+
+        return new Result(minimized, mapping, unreachable, dead);
+    }
+}
@@ -0,0 +1,253 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+
+import java.util.*;
+
+// Maximal-munch scanner over a set of automata used as token definitions. The automata are run
+// together as one combined DFA whose states are tuples of their states; tuples are built lazily the
+// first time the scan reaches them. From each start the scan follows the combined DFA until every
+// automaton is dead, remembering the last accepting position, and backs up only to that point.
+// Ties between automata accepting the same longest match go to the highest priority, then to the
+// earliest in the list. Each char of the text is one symbol.
+// Not thread-safe: the combined table grows while scanning, so use one tokenizer per thread.
+public class LongestMatchTokenizer {
+    private static final int DIRECT_CHARS = 256;
+    private static final int UNKNOWN = -2;
+    private static final int DEAD = CompiledAutomaton.DEAD;
+
+    private final CompiledAutomaton[] automata;
+    private final String[] names;
+    private final int[] priorities;
+    private final char[] symbols;
+    private final int[] directColumns;
+    private final char[] wideChars;
+    private final int[] wideColumns;
+
+    // Combined states: the tuple of automaton states, the automaton it accepts for (or -1),
+    // and a row of transitions that are UNKNOWN until first taken
+    private final Map<Tuple, Integer> stateIds = new HashMap<>();
+    private final List<int[]> tuples = new ArrayList<>();
+    private int[] accepts = new int[16];
+    private int[] table;
+    private final int initialState;
+
+    public interface Listener {
+        void match(int automaton, int start, int end);
+
+        // Called for each char where no automaton matches; the scan resumes at the next char
+        default void unmatched(int position) {
+        }
+    }
+
+    public static class Match {
+        private final String name;
+        private final int start;
+        private final int end;
+
+        Match(String name, int start, int end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+
+        // Getters
+        public String getName() {
+            return name;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return name + "[" + start + ", " + end + ")";
+        }
+    }
+
+    // Earlier automata win ties
+    public LongestMatchTokenizer(List<Automaton> automata) {
+        this(automata, new int[automata.size()]);
+    }
+
+    // priorities[i] belongs to automata.get(i); a higher value wins ties
+    public LongestMatchTokenizer(List<Automaton> automata, int[] priorities) {
+        if (priorities.length != automata.size()) {
+            throw new IllegalArgumentException("Expected " + automata.size() + " priorities, got " +
+                    priorities.length);
+        }
+        this.automata = new CompiledAutomaton[automata.size()];
+        this.names = new String[automata.size()];
+        this.priorities = priorities.clone();
+        for (int i = 0; i < automata.size(); i++) {
+            this.automata[i] = CompiledAutomaton.compile(automata.get(i));
+            this.names[i] = automata.get(i).getName();
+        }
+
+        TreeSet<Character> chars = new TreeSet<>();
+        for (CompiledAutomaton dfa : this.automata) {
+            for (int column = 0; column < dfa.getSymbolCount(); column++) {
+                String symbol = dfa.getSymbol(column);
+                if (symbol.length() == 1) chars.add(symbol.charAt(0));
+            }
+        }
+        symbols = new char[chars.size()];
+        directColumns = new int[DIRECT_CHARS];
+        Arrays.fill(directColumns, DEAD);
+        List<Character> wide = new ArrayList<>();
+        int column = 0;
+        for (char c : chars) {
+            symbols[column] = c;
+            if (c < DIRECT_CHARS) {
+                directColumns[c] = column;
+            } else {
+                wide.add(c);
+            }
+            column++;
+        }
+        wideChars = new char[wide.size()];
+        wideColumns = new int[wide.size()];
+        for (int w = 0; w < wide.size(); w++) {
+            wideChars[w] = wide.get(w);
+            wideColumns[w] = symbols.length - wide.size() + w;
+        }
+
+        table = new int[16 * Math.max(1, symbols.length)];
+        int[] initial = new int[this.automata.length];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = this.automata[i].getInitialState();
+        }
+        initialState = intern(initial);
+    }
+
+    public String getName(int automaton) {
+        return names[automaton];
+    }
+
+    // Number of combined states built so far
+    public int getStateCount() {
+        return tuples.size();
+    }
+
+    public List<Match> tokenize(CharSequence text) {
+        List<Match> matches = new ArrayList<>();
+        scan(text, 0, text.length(), (automaton, start, end) -> matches.add(new Match(names[automaton], start, end)));
+        return matches;
+    }
+
+    public void scan(CharSequence text, Listener listener) {
+        scan(text, 0, text.length(), listener);
+    }
+
+    public void scan(CharSequence text, int from, int to, Listener listener) {
+        scan(text, from, to, to, true, listener);
+    }
+
+    // Only starts matches before stop, but lets them run on up to to; returns where the next match
+    // would start. Lets a caller scan a long input in overlapping windows. Unless to is the end of
+    // the input, a match still alive at to may be longer than what is visible: it is not reported
+    // and its start is returned, so the caller can rescan from there with more text
+    int scan(CharSequence text, int from, int stop, int to, boolean endOfInput, Listener listener) {
+        int symbolCount = symbols.length;
+        int position = from;
+        while (position < stop) {
+            int state = initialState;
+            int lastAccept = -1;
+            int lastEnd = position;
+            // Empty matches are ignored, so the scan always moves forward
+            for (int i = position; i < to; i++) {
+                char c = text.charAt(i);
+                int column = c < DIRECT_CHARS ? directColumns[c] : wideColumn(c);
+                if (column == DEAD) break;
+                int next = table[state * symbolCount + column];
+                if (next == UNKNOWN) next = computeTransition(state, column);
+                if (next == DEAD) break;
+                state = next;
+                if (accepts[state] >= 0) {
+                    lastAccept = accepts[state];
+                    lastEnd = i + 1;
+                }
+                if (i + 1 == to && !endOfInput) return position;
+            }
+
+            if (lastAccept >= 0) {
+                listener.match(lastAccept, position, lastEnd);
+                position = lastEnd;
+            } else {
+                listener.unmatched(position);
+                position++;
+            }
+        }
+        return position;
+    }
+
+    private int wideColumn(char c) {
+        int index = Arrays.binarySearch(wideChars, c);
+        return index < 0 ? DEAD : wideColumns[index];
+    }
+
+    private int computeTransition(int state, int column) {
+        int[] from = tuples.get(state);
+        int[] to = new int[from.length];
+        boolean alive = false;
+        for (int i = 0; i < from.length; i++) {
+            to[i] = automata[i].step(from[i], automata[i].getColumn(symbols[column]));
+            alive |= to[i] != DEAD;
+        }
+        int next = alive ? intern(to) : DEAD;
+        table[state * symbols.length + column] = next;
+        return next;
+    }
+
+    private int intern(int[] tuple) {
+        Tuple key = new Tuple(tuple);
+        Integer id = stateIds.get(key);
+        if (id != null) return id;
+
+        int state = tuples.size();
+        int symbolCount = Math.max(1, symbols.length);
+        if ((state + 1) * symbolCount > table.length) {
+            int oldLength = table.length;
+            table = Arrays.copyOf(table, oldLength * 2);
+            Arrays.fill(table, oldLength, table.length, UNKNOWN);
+            accepts = Arrays.copyOf(accepts, accepts.length * 2);
+        }
+        if (state == 0) Arrays.fill(table, UNKNOWN);
+
+        int winner = -1;
+        for (int i = 0; i < tuple.length; i++) {
+            if (automata[i].isAccepting(tuple[i]) && (winner < 0 || priorities[i] > priorities[winner])) {
+                winner = i;
+            }
+        }
+        accepts[state] = winner;
+        tuples.add(tuple);
+        stateIds.put(key, state);
+        return state;
+    }
+
+    private static class Tuple {
+        private final int[] states;
+        private final int hash;
+
+        Tuple(int[] states) {
+            this.states = states;
+            this.hash = Arrays.hashCode(states);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Tuple other && Arrays.equals(states, other.states);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.afdgraph.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Runs compiled automata over a file through memory-mapped windows instead of a String, so heap use
+// stays constant whatever the file size. Symbols are bytes: a single-char symbol below 256 matches
+// the byte with that value (ASCII/Latin-1). Results are streamed to listeners as they are found.
+// Files are mapped in windows with FileChannel.map: one FFM MemorySegment could cover the whole
+// file, but LongestMatchTokenizer reads a CharSequence with int indexes, so tokenize needs windows
+// under 2GB anyway.
+public class MappedInputScanner implements Closeable {
+    private static final int DEFAULT_WINDOW = 256 << 20;
+    // Extra bytes mapped past each tokenizing window, so a token can run across the boundary
+    private static final int DEFAULT_OVERLAP = 1 << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int window;
+    private final int overlap;
+
+    public interface LineListener {
+        // Offsets are in bytes; end excludes the line break ("\n" or "\r\n")
+        void line(long lineNumber, long start, long end, int finalState, boolean accepted);
+    }
+
+    public interface TokenListener {
+        void match(int automaton, long start, long end);
+
+        default void unmatched(long position) {
+        }
+    }
+
+    public MappedInputScanner(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW, DEFAULT_OVERLAP);
+    }
+
+    MappedInputScanner(Path file, int window, int overlap) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.window = window;
+        this.overlap = overlap;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // The whole file as one input; returns the final state id or CompiledAutomaton.DEAD
+    public int run(CompiledAutomaton dfa) throws IOException {
+        int[] columns = byteColumns(dfa);
+        int state = dfa.getInitialState();
+        for (long base = 0; base < size && state != CompiledAutomaton.DEAD; base += window) {
+            MappedByteBuffer buffer = map(base, Math.min(window, size - base));
+            for (int i = 0, limit = buffer.limit(); i < limit && state != CompiledAutomaton.DEAD; i++) {
+                state = dfa.step(state, columns[buffer.get(i) & 0xFF]);
+            }
+        }
+        return state;
+    }
+
+    public boolean accepts(CompiledAutomaton dfa) throws IOException {
+        return dfa.isAccepting(run(dfa));
+    }
+
+    // Every line as a separate input. A run state carries over window boundaries, so lines of any
+    // length work; once a line's state is dead the rest of it is only searched for the line break
+    public long acceptLines(CompiledAutomaton dfa, LineListener listener) throws IOException {
+        int[] columns = byteColumns(dfa);
+        int initial = dfa.getInitialState();
+        int state = initial;
+        long lineNumber = 1;
+        long lineStart = 0;
+        boolean carriageReturn = false;
+        int stateBeforeReturn = initial;
+        for (long base = 0; base < size; base += window) {
+            MappedByteBuffer buffer = map(base, Math.min(window, size - base));
+            for (int i = 0, limit = buffer.limit(); i < limit; i++) {
+                int b = buffer.get(i) & 0xFF;
+                if (b == '\n') {
+                    // A "\r" just before the break belongs to the break, not to the line
+                    int finalState = carriageReturn ? stateBeforeReturn : state;
+                    long end = base + i - (carriageReturn ? 1 : 0);
+                    listener.line(lineNumber++, lineStart, end, finalState, dfa.isAccepting(finalState));
+                    lineStart = base + i + 1;
+                    state = initial;
+                    carriageReturn = false;
+                    continue;
+                }
+                carriageReturn = b == '\r';
+                if (carriageReturn) stateBeforeReturn = state;
+                if (state != CompiledAutomaton.DEAD) state = dfa.step(state, columns[b]);
+            }
+        }
+        if (lineStart < size) {
+            int finalState = carriageReturn ? stateBeforeReturn : state;
+            long end = size - (carriageReturn ? 1 : 0);
+            listener.line(lineNumber++, lineStart, end, finalState, dfa.isAccepting(finalState));
+        }
+        return lineNumber - 1;
+    }
+
+    // Maximal-munch tokens over the whole file. Windows overlap so that a token that starts before a
+    // window ends can still be matched in full; a token still growing at the end of the overlap is
+    // rescanned from its start, with the overlap doubled if it didn't fit in a whole window either
+    public void tokenize(LongestMatchTokenizer tokenizer, TokenListener listener) throws IOException {
+        long position = 0;
+        long reach = overlap;
+        while (position < size) {
+            long base = position;
+            long stop = Math.min(size, base + window);
+            long end = Math.min(size, stop + reach);
+            if (end - base > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Token at byte " + base + " is longer than the largest mappable window");
+            }
+            ByteCharSequence text = new ByteCharSequence(map(base, end - base));
+            int next = tokenizer.scan(text, 0, (int) (stop - base), text.length(), end == size,
+                    new LongestMatchTokenizer.Listener() {
+                        @Override
+                        public void match(int automaton, int start, int matchEnd) {
+                            listener.match(automaton, base + start, base + matchEnd);
+                        }
+
+                        @Override
+                        public void unmatched(int at) {
+                            listener.unmatched(base + at);
+                        }
+                    });
+            if (next == 0) {
+                reach *= 2;
+            }
+            position = base + next;
+        }
+    }
+
+    private MappedByteBuffer map(long offset, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    // Column of every byte value, or DEAD where the alphabet has no such single-char symbol
+    private static int[] byteColumns(CompiledAutomaton dfa) {
+        int[] columns = new int[256];
+        for (int b = 0; b < 256; b++) {
+            columns[b] = dfa.getColumn((char) b);
+        }
+        return columns;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // A mapped window read as Latin-1 chars, without decoding it into a String
+    private static class ByteCharSequence implements CharSequence {
+        private final MappedByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        ByteCharSequence(MappedByteBuffer buffer) {
+            this(buffer, 0, buffer.limit());
+        }
+
+        private ByteCharSequence(MappedByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new ByteCharSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                text.append(charAt(i));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+
+import java.util.*;
+
+// Runs several DFAs in lockstep over one pass of the input. All states live in one stacked table
+// whose columns are the chars of every alphabet together, so each input char is resolved to a
+// column once and then advances every automaton still alive. Each char of the input is one symbol.
+public class MultiMatcher {
+    private static final int DIRECT_CHARS = 256;
+
+    private final CompiledAutomaton[] automata;
+    private final String[] names;
+    private final int symbolCount;
+    // Global state ids: automaton i owns [offsets[i], offsets[i + 1]); DEAD for missing transitions
+    private final int[] table;
+    private final int[] offsets;
+    private final int[] initialStates;
+    private final boolean[] accepting;
+    private final int[] directColumns;
+    private final char[] wideChars;
+    private final int[] wideColumns;
+
+    public MultiMatcher(Collection<Automaton> automata) {
+        this.automata = new CompiledAutomaton[automata.size()];
+        this.names = new String[automata.size()];
+        int index = 0;
+        for (Automaton automaton : automata) {
+            this.automata[index] = CompiledAutomaton.compile(automaton);
+            this.names[index] = automaton.getName();
+            index++;
+        }
+
+        // Columns for every single-char symbol of any automaton
+        TreeSet<Character> chars = new TreeSet<>();
+        for (CompiledAutomaton dfa : this.automata) {
+            for (int column = 0; column < dfa.getSymbolCount(); column++) {
+                String symbol = dfa.getSymbol(column);
+                if (symbol.length() == 1) chars.add(symbol.charAt(0));
+            }
+        }
+        symbolCount = chars.size();
+        directColumns = new int[DIRECT_CHARS];
+        Arrays.fill(directColumns, CompiledAutomaton.DEAD);
+        List<Character> wide = new ArrayList<>();
+        char[] symbols = new char[symbolCount];
+        int column = 0;
+        for (char c : chars) {
+            symbols[column] = c;
+            if (c < DIRECT_CHARS) {
+                directColumns[c] = column;
+            } else {
+                wide.add(c);
+            }
+            column++;
+        }
+        wideChars = new char[wide.size()];
+        wideColumns = new int[wide.size()];
+        for (int w = 0; w < wide.size(); w++) {
+            wideChars[w] = wide.get(w);
+            wideColumns[w] = symbolCount - wide.size() + w;
+        }
+
+        offsets = new int[this.automata.length + 1];
+        for (int i = 0; i < this.automata.length; i++) {
+            offsets[i + 1] = offsets[i] + this.automata[i].getStateCount();
+        }
+        int states = offsets[this.automata.length];
+        table = new int[states * symbolCount];
+        accepting = new boolean[states];
+        initialStates = new int[this.automata.length];
+        for (int i = 0; i < this.automata.length; i++) {
+            CompiledAutomaton dfa = this.automata[i];
+            int initial = dfa.getInitialState();
+            initialStates[i] = initial == CompiledAutomaton.DEAD ? CompiledAutomaton.DEAD : offsets[i] + initial;
+            for (int state = 0; state < dfa.getStateCount(); state++) {
+                int global = offsets[i] + state;
+                accepting[global] = dfa.isAccepting(state);
+                for (int c = 0; c < symbolCount; c++) {
+                    int next = dfa.step(state, dfa.getColumn(symbols[c]));
+                    table[global * symbolCount + c] = next == CompiledAutomaton.DEAD
+                            ? CompiledAutomaton.DEAD : offsets[i] + next;
+                }
+            }
+        }
+    }
+
+    public static class Result {
+        private final String[] names;
+        private final boolean[] accepted;
+        private final int[] deadAt;
+
+        Result(String[] names, boolean[] accepted, int[] deadAt) {
+            this.names = names;
+            this.accepted = accepted;
+            this.deadAt = deadAt;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String getName(int index) {
+            return names[index];
+        }
+
+        public boolean isAccepted(int index) {
+            return accepted[index];
+        }
+
+        // Offset of the char on which the automaton had no transition, or -1 if it never died.
+        // An automaton without an initial state is dead at offset 0
+        public int getDeadPosition(int index) {
+            return deadAt[index];
+        }
+
+        // Getters
+        public List<String> getAcceptingNames() {
+            List<String> accepting = new ArrayList<>();
+            for (int i = 0; i < names.length; i++) {
+                if (accepted[i]) accepting.add(names[i]);
+            }
+            return accepting;
+        }
+    }
+
+    public int getAutomatonCount() {
+        return automata.length;
+    }
+
+    public Result match(CharSequence input) {
+        int count = automata.length;
+        boolean[] accepted = new boolean[count];
+        int[] deadAt = new int[count];
+        Arrays.fill(deadAt, -1);
+
+        // Automata still alive, compacted as they die so the inner loop only touches live states
+        int[] live = new int[count];
+        int[] current = new int[count];
+        int liveCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (initialStates[i] == CompiledAutomaton.DEAD) {
+                deadAt[i] = 0;
+            } else {
+                live[liveCount] = i;
+                current[liveCount++] = initialStates[i];
+            }
+        }
+
+        int[] table = this.table;
+        int symbolCount = this.symbolCount;
+        for (int position = 0, length = input.length(); position < length && liveCount > 0; position++) {
+            char c = input.charAt(position);
+            int column = c < DIRECT_CHARS ? directColumns[c] : wideColumn(c);
+            if (column == CompiledAutomaton.DEAD) {
+                for (int k = 0; k < liveCount; k++) {
+                    deadAt[live[k]] = position;
+                }
+                liveCount = 0;
+                break;
+            }
+            for (int k = 0; k < liveCount; k++) {
+                int next = table[current[k] * symbolCount + column];
+                if (next == CompiledAutomaton.DEAD) {
+                    deadAt[live[k]] = position;
+                    liveCount--;
+                    live[k] = live[liveCount];
+                    current[k] = current[liveCount];
+                    k--;
+                } else {
+                    current[k] = next;
+                }
+            }
+        }
+        for (int k = 0; k < liveCount; k++) {
+            accepted[live[k]] = accepting[current[k]];
+        }
+        return new Result(names, accepted, deadAt);
+    }
+
+    private int wideColumn(char c) {
+        int index = Arrays.binarySearch(wideChars, c);
+        return index < 0 ? CompiledAutomaton.DEAD : wideColumns[index];
+    }
+}
@@ -0,0 +1,240 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+
+import java.util.*;
+
+// Boolean operations on DFAs by product construction. Pairs of states are discovered breadth-first
+// from the pair of initial states, so only reachable pairs are ever materialized. The alphabet is
+// the union of both alphabets; a symbol one side doesn't declare sends that side to its sink.
+public final class ProductAutomata {
+
+    private ProductAutomata() {
+    }
+
+    public enum Operation {
+        INTERSECTION,
+        UNION,
+        DIFFERENCE,
+        SYMMETRIC_DIFFERENCE;
+
+        boolean accepts(boolean first, boolean second) {
+            return switch (this) {
+                case INTERSECTION -> first && second;
+                case UNION -> first || second;
+                case DIFFERENCE -> first && !second;
+                case SYMMETRIC_DIFFERENCE -> first != second;
+            };
+        }
+    }
+
+    public static Automaton intersection(Automaton first, Automaton second) {
+        return product(first, second, Operation.INTERSECTION);
+    }
+
+    public static Automaton union(Automaton first, Automaton second) {
+        return product(first, second, Operation.UNION);
+    }
+
+    public static Automaton difference(Automaton first, Automaton second) {
+        return product(first, second, Operation.DIFFERENCE);
+    }
+
+    // States are named "(p,q)" after the pair, with "-" for a side that has fallen into its sink.
+    // The pair of both sinks is never accepting for these operations, so it is left out
+    public static Automaton product(Automaton first, Automaton second, Operation operation) {
+        PairSpace space = new PairSpace(CompiledAutomaton.compile(first), CompiledAutomaton.compile(second));
+        Automaton product = new Automaton(first.getName() + " " + operation.name().toLowerCase() + " " +
+                second.getName());
+        for (String symbol : space.symbols) {
+            product.addAlphabetSymbol(symbol);
+        }
+
+        List<State> states = new ArrayList<>();
+        int initial = space.intern(space.initialA, space.initialB);
+        states.add(new State(space.name(initial)));
+        for (int pair = 0; pair < space.size; pair++) {
+            State from = states.get(pair);
+            int p = space.firstOf[pair];
+            int q = space.secondOf[pair];
+            product.addState(from);
+            if (operation.accepts(space.a.isAccepting(p), space.b.isAccepting(q))) {
+                from.setFinal(true);
+                product.addFinalState(from);
+            }
+            for (int symbol = 0; symbol < space.symbols.length; symbol++) {
+                int nextP = space.stepA(p, symbol);
+                int nextQ = space.stepB(q, symbol);
+                if (nextP == CompiledAutomaton.DEAD && nextQ == CompiledAutomaton.DEAD) continue;
+                int target = space.intern(nextP, nextQ);
+                if (target == states.size()) {
+                    states.add(new State(space.name(target)));
+                }
+                product.addTransition(from, space.symbols[symbol], states.get(target));
+            }
+        }
+
+        State start = states.get(initial);
+        start.setInitial(true);
+        product.setInitialState(start);
+        return product;
+    }
+
+    // Same states, final and non-final swapped, made complete over the declared alphabet with a sink
+    public static Automaton complement(Automaton automaton) {
+        CompiledAutomaton dfa = CompiledAutomaton.compile(automaton);
+        Automaton complement = new Automaton("not " + automaton.getName());
+        for (int column = 0; column < dfa.getSymbolCount(); column++) {
+            complement.addAlphabetSymbol(dfa.getSymbol(column));
+        }
+
+        Set<String> names = new HashSet<>();
+        State[] states = new State[dfa.getStateCount()];
+        for (int id = 0; id < states.length; id++) {
+            states[id] = new State(dfa.getState(id).getName());
+            names.add(states[id].getName());
+            complement.addState(states[id]);
+        }
+        String sinkName = "sink";
+        while (names.contains(sinkName)) {
+            sinkName = "_" + sinkName;
+        }
+        State sink = new State(sinkName);
+
+        boolean sinkUsed = dfa.getInitialState() == CompiledAutomaton.DEAD;
+        for (int id = 0; id < states.length; id++) {
+            if (!dfa.isAccepting(id)) {
+                states[id].setFinal(true);
+                complement.addFinalState(states[id]);
+            }
+            for (int column = 0; column < dfa.getSymbolCount(); column++) {
+                int next = dfa.step(id, column);
+                sinkUsed |= next == CompiledAutomaton.DEAD;
+                complement.addTransition(states[id], dfa.getSymbol(column),
+                        next == CompiledAutomaton.DEAD ? sink : states[next]);
+            }
+        }
+        if (sinkUsed) {
+            sink.setFinal(true);
+            complement.addState(sink);
+            complement.addFinalState(sink);
+            for (int column = 0; column < dfa.getSymbolCount(); column++) {
+                complement.addTransition(sink, dfa.getSymbol(column), sink);
+            }
+        }
+
+        State initial = dfa.getInitialState() == CompiledAutomaton.DEAD ? sink : states[dfa.getInitialState()];
+        initial.setInitial(true);
+        complement.setInitialState(initial);
+        return complement;
+    }
+
+    public static boolean equivalent(Automaton first, Automaton second) {
+        return findCounterexample(first, second).isEmpty();
+    }
+
+    // A shortest sequence of symbols accepted by exactly one of the two automata, if there is one.
+    // The search stops at the first such pair, without building the product automaton
+    public static Optional<List<String>> findCounterexample(Automaton first, Automaton second) {
+        PairSpace space = new PairSpace(CompiledAutomaton.compile(first), CompiledAutomaton.compile(second));
+        int[] parent = new int[16];
+        int[] via = new int[16];
+        space.intern(space.initialA, space.initialB);
+        parent[0] = -1;
+        for (int pair = 0; pair < space.size; pair++) {
+            int p = space.firstOf[pair];
+            int q = space.secondOf[pair];
+            if (space.a.isAccepting(p) != space.b.isAccepting(q)) {
+                LinkedList<String> word = new LinkedList<>();
+                for (int at = pair; parent[at] >= 0; at = parent[at]) {
+                    word.addFirst(space.symbols[via[at]]);
+                }
+                return Optional.of(new ArrayList<>(word));
+            }
+            for (int symbol = 0; symbol < space.symbols.length; symbol++) {
+                int nextP = space.stepA(p, symbol);
+                int nextQ = space.stepB(q, symbol);
+                // Both sides dead: nothing after this point is accepted by either
+                if (nextP == CompiledAutomaton.DEAD && nextQ == CompiledAutomaton.DEAD) continue;
+                int before = space.size;
+                int target = space.intern(nextP, nextQ);
+                if (target == before) {
+                    if (target == parent.length) {
+                        parent = Arrays.copyOf(parent, target * 2);
+                        via = Arrays.copyOf(via, target * 2);
+                    }
+                    parent[target] = pair;
+                    via[target] = symbol;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Pairs of compiled states, numbered in discovery order; DEAD stands for a side's sink
+    private static class PairSpace {
+        private final CompiledAutomaton a;
+        private final CompiledAutomaton b;
+        private final String[] symbols;
+        private final int[] columnA;
+        private final int[] columnB;
+        private final int initialA;
+        private final int initialB;
+        private final Map<Long, Integer> ids = new HashMap<>();
+        private int[] firstOf = new int[16];
+        private int[] secondOf = new int[16];
+        private int size;
+
+        PairSpace(CompiledAutomaton a, CompiledAutomaton b) {
+            this.a = a;
+            this.b = b;
+            LinkedHashSet<String> alphabet = new LinkedHashSet<>();
+            for (int column = 0; column < a.getSymbolCount(); column++) {
+                alphabet.add(a.getSymbol(column));
+            }
+            for (int column = 0; column < b.getSymbolCount(); column++) {
+                alphabet.add(b.getSymbol(column));
+            }
+            symbols = alphabet.toArray(new String[0]);
+            columnA = new int[symbols.length];
+            columnB = new int[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                columnA[i] = a.getSymbolColumn(symbols[i]);
+                columnB[i] = b.getSymbolColumn(symbols[i]);
+            }
+            initialA = a.getInitialState();
+            initialB = b.getInitialState();
+        }
+
+        int stepA(int state, int symbol) {
+            return a.step(state, columnA[symbol]);
+        }
+
+        int stepB(int state, int symbol) {
+            return b.step(state, columnB[symbol]);
+        }
+
+        // Returns the pair's number, giving it the next one if it is new
+        int intern(int p, int q) {
+            long key = (long) (p + 1) * (b.getStateCount() + 1) + (q + 1);
+            Integer id = ids.get(key);
+            if (id != null) return id;
+            if (size == firstOf.length) {
+                firstOf = Arrays.copyOf(firstOf, size * 2);
+                secondOf = Arrays.copyOf(secondOf, size * 2);
+            }
+            firstOf[size] = p;
+            secondOf[size] = q;
+            ids.put(key, size);
+            return size++;
+        }
+
+        String name(int pair) {
+            int p = firstOf[pair];
+            int q = secondOf[pair];
+            return "(" + (p == CompiledAutomaton.DEAD ? "-" : a.getState(p).getName()) + "," +
+                    (q == CompiledAutomaton.DEAD ? "-" : b.getState(q).getName()) + ")";
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.afdgraph.models.State;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
@@ -17,7 +18,14 @@ public class DotGraphExporter {
         Files.writeString(outputPath, dotContent);
     }
 
+    // Lays out and renders in-process, no Graphviz installation needed
     public static void exportToSvg(Automaton automaton, Path svgOutputPath) throws IOException {
+        try (OutputStream out = Files.newOutputStream(svgOutputPath)) {
+            SvgGraphRenderer.render(automaton, out);
+        }
+    }
+
+    public static void exportToSvgWithGraphviz(Automaton automaton, Path svgOutputPath) throws IOException {
         Path tempDot = Files.createTempFile("automaton_", ".dot");
         exportToDot(automaton, tempDot);
 
@@ -0,0 +1,356 @@
+package com.afdgraph.export;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import com.afdgraph.models.TransitionIndex;
+
+import java.util.*;
+
+// Left-to-right layered layout (Sugiyama style) for automaton graphs:
+// BFS ranks from the initial state, barycenter ordering within ranks,
+// then curved edges with labels at their midpoints.
+public class GraphLayout {
+    public static final double MARGIN = 30;
+    public static final double RANK_GAP = 110;
+    public static final double NODE_GAP = 80;
+    public static final double FONT_SIZE = 14;
+    private static final double CHAR_WIDTH = 8;
+    private static final double MIN_RADIUS = 20;
+    private static final int ORDERING_SWEEPS = 4;
+
+    private final List<Node> nodes;
+    private final List<Edge> edges;
+    private final Node initial;
+    private final double width;
+    private final double height;
+
+    public static class Node {
+        private final String name;
+        private final boolean accepting;
+        private final double radius;
+        private int rank;
+        private double order;
+        private double x;
+        private double y;
+
+        Node(String name, boolean accepting) {
+            this.name = name;
+            this.accepting = accepting;
+            this.radius = Math.max(MIN_RADIUS, name.length() * CHAR_WIDTH / 2 + 10);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isAccepting() {
+            return accepting;
+        }
+
+        public double getRadius() {
+            return radius;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+    }
+
+    // A quadratic Bezier (start, control, end), or a cubic one for self loops
+    public static class Edge {
+        private final Node from;
+        private final Node to;
+        private final String label;
+        private final double[] points;
+        private final double labelX;
+        private final double labelY;
+
+        Edge(Node from, Node to, String label, double[] points, double labelX, double labelY) {
+            this.from = from;
+            this.to = to;
+            this.label = label;
+            this.points = points;
+            this.labelX = labelX;
+            this.labelY = labelY;
+        }
+
+        public Node getFrom() {
+            return from;
+        }
+
+        public Node getTo() {
+            return to;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public boolean isSelfLoop() {
+            return from == to;
+        }
+
+        // x0, y0, cx, cy, x1, y1 for quadratic edges; x0, y0, c1x, c1y, c2x, c2y, x1, y1 for loops
+        public double[] getPoints() {
+            return points;
+        }
+
+        public double getLabelX() {
+            return labelX;
+        }
+
+        public double getLabelY() {
+            return labelY;
+        }
+    }
+
+    private GraphLayout(List<Node> nodes, List<Edge> edges, Node initial, double width, double height) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.initial = initial;
+        this.width = width;
+        this.height = height;
+    }
+
+    public static GraphLayout of(Automaton automaton) {
+        TransitionIndex index = automaton.getTransitionIndex();
+        int count = index.getStateCount();
+
+        List<Node> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            State state = index.getState(i);
+            nodes.add(new Node(state.getName(), automaton.getFinalStates().contains(state)));
+        }
+
+        // Parallel transitions between the same pair share one edge with a combined label
+        Map<Long, StringBuilder> labels = new LinkedHashMap<>();
+        List<List<Integer>> successors = new ArrayList<>(count);
+        List<List<Integer>> neighbors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            successors.add(new ArrayList<>());
+            neighbors.add(new ArrayList<>());
+        }
+        for (int from = 0; from < count; from++) {
+            int[] row = index.getEdges(from);
+            for (int symbol = 0; symbol < row.length; symbol++) {
+                int to = row[symbol];
+                if (to == TransitionIndex.DEAD) continue;
+                long key = (long) from * count + to;
+                StringBuilder label = labels.get(key);
+                if (label == null) {
+                    labels.put(key, new StringBuilder(index.getSymbol(symbol)));
+                    successors.get(from).add(to);
+                    if (from != to) {
+                        neighbors.get(from).add(to);
+                        neighbors.get(to).add(from);
+                    }
+                } else {
+                    label.append(", ").append(index.getSymbol(symbol));
+                }
+            }
+        }
+
+        int initialId = index.getStateId(automaton.getInitialState());
+        List<List<Node>> ranks = assignRanks(nodes, successors, initialId);
+        orderRanks(ranks, nodes, neighbors);
+
+        // Coordinates: ranks are columns, each column centered on the tallest one
+        double tallest = 0;
+        for (List<Node> rank : ranks) {
+            tallest = Math.max(tallest, rank.size() * NODE_GAP);
+        }
+        double left = MARGIN + 40;
+        double maxRadius = MIN_RADIUS;
+        for (Node node : nodes) {
+            maxRadius = Math.max(maxRadius, node.radius);
+        }
+        double rankGap = Math.max(RANK_GAP, maxRadius * 2 + 60);
+        for (int r = 0; r < ranks.size(); r++) {
+            List<Node> rank = ranks.get(r);
+            double top = MARGIN + 30 + (tallest - rank.size() * NODE_GAP) / 2;
+            for (int i = 0; i < rank.size(); i++) {
+                Node node = rank.get(i);
+                node.x = left + maxRadius + r * rankGap;
+                node.y = top + NODE_GAP / 2 + i * NODE_GAP;
+            }
+        }
+
+        List<Edge> edges = new ArrayList<>(labels.size());
+        for (Map.Entry<Long, StringBuilder> entry : labels.entrySet()) {
+            int from = (int) (entry.getKey() / count);
+            int to = (int) (entry.getKey() % count);
+            boolean hasReverse = from != to && labels.containsKey((long) to * count + from);
+            edges.add(routeEdge(nodes.get(from), nodes.get(to), entry.getValue().toString(), hasReverse));
+        }
+
+        double width = left + maxRadius * 2 + Math.max(0, ranks.size() - 1) * rankGap + MARGIN;
+        double height = MARGIN * 2 + 60 + tallest;
+        Node initial = initialId == TransitionIndex.DEAD ? null : nodes.get(initialId);
+        return new GraphLayout(nodes, edges, initial, width, height);
+    }
+
+    // BFS distance from the initial state; unreachable components start new searches after it
+    private static List<List<Node>> assignRanks(List<Node> nodes, List<List<Integer>> successors, int initialId) {
+        int count = nodes.size();
+        int[] rank = new int[count];
+        Arrays.fill(rank, -1);
+        int[] queue = new int[count];
+        List<List<Node>> ranks = new ArrayList<>();
+
+        int offset = 0;
+        for (int seed = -1; seed < count; seed++) {
+            int root = seed == -1 ? initialId : seed;
+            if (root < 0 || rank[root] != -1) continue;
+
+            int head = 0;
+            int tail = 0;
+            int deepest = offset;
+            rank[root] = offset;
+            queue[tail++] = root;
+            while (head < tail) {
+                int current = queue[head++];
+                deepest = Math.max(deepest, rank[current]);
+                for (int next : successors.get(current)) {
+                    if (rank[next] == -1) {
+                        rank[next] = rank[current] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                int id = queue[i];
+                while (ranks.size() <= rank[id]) ranks.add(new ArrayList<>());
+                nodes.get(id).rank = rank[id];
+                ranks.get(rank[id]).add(nodes.get(id));
+            }
+            offset = deepest + 1;
+        }
+        return ranks;
+    }
+
+    // Barycenter heuristic, sweeping left-to-right then right-to-left
+    private static void orderRanks(List<List<Node>> ranks, List<Node> nodes, List<List<Integer>> neighbors) {
+        Map<Node, Integer> ids = new IdentityHashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            ids.put(nodes.get(i), i);
+        }
+        for (List<Node> rank : ranks) {
+            for (int i = 0; i < rank.size(); i++) {
+                rank.get(i).order = i;
+            }
+        }
+
+        for (int sweep = 0; sweep < ORDERING_SWEEPS; sweep++) {
+            boolean forward = sweep % 2 == 0;
+            for (int step = 1; step < ranks.size(); step++) {
+                int r = forward ? step : ranks.size() - 1 - step;
+                int reference = forward ? r - 1 : r + 1;
+                List<Node> rank = ranks.get(r);
+                Map<Node, Double> barycenter = new IdentityHashMap<>();
+                for (Node node : rank) {
+                    double sum = 0;
+                    int n = 0;
+                    for (int neighbor : neighbors.get(ids.get(node))) {
+                        Node other = nodes.get(neighbor);
+                        if (other.rank == reference) {
+                            sum += other.order;
+                            n++;
+                        }
+                    }
+                    barycenter.put(node, n == 0 ? node.order : sum / n);
+                }
+                rank.sort(Comparator.comparingDouble(barycenter::get));
+                for (int i = 0; i < rank.size(); i++) {
+                    rank.get(i).order = i;
+                }
+            }
+        }
+    }
+
+    private static Edge routeEdge(Node from, Node to, String label, boolean hasReverse) {
+        if (from == to) {
+            // Loop above the node
+            double r = from.radius;
+            double x0 = from.x - r * 0.5;
+            double y0 = from.y - r * 0.87;
+            double x1 = from.x + r * 0.5;
+            double y1 = y0;
+            double lift = r * 1.6 + 10;
+            double[] points = {x0, y0, from.x - r * 1.1, from.y - lift, from.x + r * 1.1, from.y - lift, x1, y1};
+            // Label above the top of the loop (the cubic's midpoint)
+            double top = 0.25 * y0 + 0.75 * (from.y - lift);
+            return new Edge(from, to, label, points, from.x, top - 6);
+        }
+
+        double dx = to.x - from.x;
+        double dy = to.y - from.y;
+        double distance = Math.hypot(dx, dy);
+        double nx = -dy / distance;
+        double ny = dx / distance;
+
+        // Straight between neighbouring ranks; bend pairs of opposite edges apart,
+        // and arc longer or backward edges so they clear the nodes in between
+        double bend = 0;
+        int span = to.rank - from.rank;
+        if (span == 1 || span == -1) {
+            bend = hasReverse ? 22 : 0;
+        } else if (span == 0) {
+            // Bulge to the right, into the gap before the next rank
+            bend = (nx < 0 ? -1 : 1) * (35 + distance * 0.15);
+        } else {
+            bend = 30 + Math.abs(span) * 18;
+        }
+
+        double midX = (from.x + to.x) / 2;
+        double midY = (from.y + to.y) / 2;
+        // A quadratic curve passes through the midpoint of its control offset
+        double cx = midX + nx * bend * 2;
+        double cy = midY + ny * bend * 2;
+
+        double[] start = clip(from, cx, cy);
+        double[] end = clip(to, cx, cy);
+        double[] points = {start[0], start[1], cx, cy, end[0], end[1]};
+
+        double labelX = 0.25 * start[0] + 0.5 * cx + 0.25 * end[0];
+        double labelY = 0.25 * start[1] + 0.5 * cy + 0.25 * end[1] - 6;
+        return new Edge(from, to, label, points, labelX, labelY);
+    }
+
+    // Point on the node circle in the direction of (towardX, towardY)
+    private static double[] clip(Node node, double towardX, double towardY) {
+        double dx = towardX - node.x;
+        double dy = towardY - node.y;
+        double length = Math.hypot(dx, dy);
+        if (length == 0) return new double[]{node.x, node.y};
+        double r = node.accepting ? node.radius + 4 : node.radius;
+        return new double[]{node.x + dx / length * r, node.y + dy / length * r};
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public List<Edge> getEdges() {
+        return edges;
+    }
+
+    public Node getInitial() {
+        return initial;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,132 @@
+package com.afdgraph.export;
+
+import com.afdgraph.models.Automaton;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Writes a GraphLayout as SVG, styled like the DOT output of DotGraphExporter
+public class SvgGraphRenderer {
+
+    public static void render(Automaton automaton, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        render(GraphLayout.of(automaton), writer);
+        writer.flush();
+    }
+
+    public static String renderToString(Automaton automaton) {
+        StringWriter writer = new StringWriter();
+        try {
+            render(GraphLayout.of(automaton), writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    public static void render(GraphLayout layout, Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\"");
+        out.write(" width=\"" + number(layout.getWidth()) + "pt\" height=\"" + number(layout.getHeight()) + "pt\"");
+        out.write(" viewBox=\"0 0 " + number(layout.getWidth()) + " " + number(layout.getHeight()) + "\">\n");
+
+        out.write("""
+                <defs>
+                  <linearGradient id="fillState" x1="0" y1="1" x2="0" y2="0">
+                    <stop offset="0" stop-color="blue"/><stop offset="1" stop-color="cyan"/>
+                  </linearGradient>
+                  <linearGradient id="fillFinal" x1="0" y1="1" x2="0" y2="0">
+                    <stop offset="0" stop-color="red"/><stop offset="1" stop-color="yellow"/>
+                  </linearGradient>
+                  <marker id="arrow" viewBox="0 0 10 10" refX="10" refY="5" markerWidth="9" markerHeight="9"
+                          markerUnits="userSpaceOnUse" orient="auto">
+                    <path d="M0,0 L10,5 L0,10 z" fill="white"/>
+                  </marker>
+                </defs>
+                """);
+        out.write("<g font-family=\"Helvetica,Arial,sans-serif\" font-size=\"" + number(GraphLayout.FONT_SIZE) +
+                "\" text-anchor=\"middle\" fill=\"white\">\n");
+
+        // Start arrow into the initial state
+        GraphLayout.Node initial = layout.getInitial();
+        if (initial != null) {
+            double startX = initial.getX() - initial.getRadius() - 40;
+            out.write("<circle cx=\"" + number(startX) + "\" cy=\"" + number(initial.getY()) + "\" r=\"2\" fill=\"white\"/>\n");
+            double endX = initial.getX() - initial.getRadius() - (initial.isAccepting() ? 4 : 0);
+            out.write("<path d=\"M" + number(startX) + "," + number(initial.getY()) +
+                    " L" + number(endX) + "," + number(initial.getY()) +
+                    "\" stroke=\"white\" fill=\"none\" marker-end=\"url(#arrow)\"/>\n");
+        }
+
+        for (GraphLayout.Edge edge : layout.getEdges()) {
+            double[] p = edge.getPoints();
+            out.write("<path d=\"M" + number(p[0]) + "," + number(p[1]));
+            if (edge.isSelfLoop()) {
+                out.write(" C" + number(p[2]) + "," + number(p[3]) + " " + number(p[4]) + "," + number(p[5]) +
+                        " " + number(p[6]) + "," + number(p[7]));
+            } else {
+                out.write(" Q" + number(p[2]) + "," + number(p[3]) + " " + number(p[4]) + "," + number(p[5]));
+            }
+            out.write("\" stroke=\"white\" fill=\"none\" marker-end=\"url(#arrow)\"/>\n");
+            out.write("<text x=\"" + number(edge.getLabelX()) + "\" y=\"" + number(edge.getLabelY()) + "\">" +
+                    escape(edge.getLabel()) + "</text>\n");
+        }
+
+        for (GraphLayout.Node node : layout.getNodes()) {
+            String x = number(node.getX());
+            String y = number(node.getY());
+            String fill = node.isAccepting() ? "url(#fillFinal)" : "url(#fillState)";
+            out.write("<circle cx=\"" + x + "\" cy=\"" + y + "\" r=\"" + number(node.getRadius()) +
+                    "\" fill=\"" + fill + "\" stroke=\"white\"/>\n");
+            if (node.isAccepting()) {
+                out.write("<circle cx=\"" + x + "\" cy=\"" + y + "\" r=\"" + number(node.getRadius() + 4) +
+                        "\" fill=\"none\" stroke=\"white\"/>\n");
+            }
+            out.write("<text x=\"" + x + "\" y=\"" + number(node.getY() + GraphLayout.FONT_SIZE * 0.35) + "\">" +
+                    escape(node.getName()) + "</text>\n");
+        }
+
+        out.write("</g>\n</svg>\n");
+    }
+
+    // Fixed two decimals without going through String.format
+    private static String number(double value) {
+        long scaled = Math.round(value * 100);
+        StringBuilder sb = new StringBuilder(12);
+        if (scaled < 0) {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        long fraction = scaled % 100;
+        sb.append(scaled / 100).append('.');
+        if (fraction < 10) sb.append('0');
+        return sb.append(fraction).toString();
+    }
+
+    private static String escape(String s) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < s.length(); i++) {
+            String replacement = switch (s.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(s.length() + 8).append(s, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) escaped.append(replacement);
+                else escaped.append(s.charAt(i));
+            }
+        }
+        return escaped == null ? s : escaped.toString();
+    }
+}
@@ -1,72 +1,257 @@
 package com.afdgraph.lexer;
 
 import com.afdgraph.models.Automaton;
+import com.afdgraph.models.ParseDiagnostic;
 import com.afdgraph.models.State;
 import com.afdgraph.models.Token;
+import com.afdgraph.models.TokenStream;
 import com.afdgraph.models.TokenType;
 
 import java.util.*;
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+// Recovers from malformed input in panic mode: a missing token is searched for only up to the next
+// synchronization point (the end of the enclosing (), [] or {} group, or the next "name: {" header)
+// and nested groups are jumped over, so recovery never runs into the next automaton and the whole
+// parse stays linear. Sync points are precomputed in one pass; problems become ParseDiagnostics.
 public class AutomatonParser {
-    private final List<Token> tokens;
+    // Index returned when an expected token could not be found
+    private static final int MISSING = -1;
+    // Below this many tokens a run of blocks is parsed in the current task instead of being split further
+    private static final int MIN_TOKENS_PER_TASK = 16 * 1024;
+
+    private final TokenStream tokens;
     private int current;
+    private final int start;
+    private final int end;
+    // States of the automaton being parsed; each automaton gets its own, so equal names never alias
     private final Map<String, State> statePool = new HashMap<>();
     private final Map<String, Automaton> automatonMap = new HashMap<>();
+    private final List<ParseDiagnostic> diagnostics = new ArrayList<>();
+    // Set by an error and cleared by the next expected token, so one bad region is reported once
+    private boolean recovering;
+    // Tokens consumed, skipped or looked at by recovery scans; stays proportional to the input
+    private long visited;
+
+    // Indexed by token - start: for an opener its matching closer (end if never closed); for every
+    // token the closer of the innermost group around it (end at top level); and the next header
+    private int[] matching;
+    private int[] scopeEnd;
+    private int[] nextHeader;
 
     public AutomatonParser(List<Token> tokens) {
+        this(TokenStream.of(tokens));
+    }
+
+    public AutomatonParser(TokenStream tokens) {
+        this(tokens, 0, tokens.size());
+    }
+
+    // Parses only tokens [from, to), e.g. a single automaton block of a larger stream
+    public AutomatonParser(TokenStream tokens, int from, int to) {
         this.tokens = tokens;
-        this.current = 0;
+        this.current = from;
+        this.start = from;
+        this.end = to;
+        indexSyncPoints();
+    }
+
+    // Problems found by the last parse, in input order
+    public List<ParseDiagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Work counter for tests that check recovery never rescans the input
+    long getVisitedTokens() {
+        return visited;
     }
 
     public List<Automaton> parseAll() {
+        return parseAll(automaton -> { });
+    }
+
+    // Same as parseAll(), handing each automaton to the listener as soon as it is parsed
+    public List<Automaton> parseAll(Consumer<Automaton> listener) {
         automatonMap.clear();
-        safeConsume(TokenType.LEFT_BRACE);
-        while (!check(TokenType.RIGHT_BRACE) && !isAtEnd()) {
+        diagnostics.clear();
+        recovering = false;
+        safeConsume(TokenType.LEFT_BRACE, TokenType.IDENTIFIER);
+        boolean closed = false;
+        while (!isAtEnd()) {
+            if (check(TokenType.RIGHT_BRACE)) {
+                // A stray closing brace only ends the file if no definitions follow it
+                if (nextHeader(current + 1) >= end) {
+                    advance();
+                    closed = true;
+                    break;
+                }
+                report("Unexpected RIGHT_BRACE before more definitions", null);
+                advance();
+                continue;
+            }
             Automaton automaton = parseOneAutomaton();
-            // Store only the latest instance of each automaton name
-            automatonMap.put(automaton.getName(), automaton);
-            if (!check(TokenType.RIGHT_BRACE)) safeConsume(TokenType.COMMA);
+            if (automaton != null) {
+                // Store only the latest instance of each automaton name
+                automatonMap.put(automaton.getName(), automaton);
+                listener.accept(automaton);
+            }
+            if (!check(TokenType.RIGHT_BRACE) && !isAtEnd()) safeConsume(TokenType.COMMA);
         }
-        safeConsume(TokenType.RIGHT_BRACE);
+        if (!closed) safeConsume(TokenType.RIGHT_BRACE);
+        return new ArrayList<>(automatonMap.values());
+    }
+
+    public List<Automaton> parseAllParallel() {
+        return parseAllParallel(ForkJoinPool.commonPool());
+    }
+
+    // Same result and diagnostics as parseAll(), with the top-level definitions parsed on the pool.
+    // Blocks are found by brace matching; if the top level itself is malformed (a missing comma or
+    // brace between definitions) the recovery there depends on the order, so it falls back to parseAll()
+    public List<Automaton> parseAllParallel(ForkJoinPool pool) {
+        int[] blocks = topLevelBlocks();
+        if (blocks == null || blocks.length < 4) {
+            return parseAll();
+        }
+
+        Automaton[] automata = new Automaton[blocks.length / 2];
+        List<List<ParseDiagnostic>> blockDiagnostics = new ArrayList<>(Collections.nCopies(automata.length, null));
+        pool.invoke(new BlockTask(blocks, 0, automata.length, automata, blockDiagnostics));
+
+        automatonMap.clear();
+        diagnostics.clear();
+        for (int b = 0; b < automata.length; b++) {
+            diagnostics.addAll(blockDiagnostics.get(b));
+            automatonMap.put(automata[b].getName(), automata[b]);
+        }
+        current = end;
         return new ArrayList<>(automatonMap.values());
     }
 
+    // Parses blocks [from, to) of the pair array, splitting by token count
+    private class BlockTask extends RecursiveAction {
+        private final int[] blocks;
+        private final int from;
+        private final int to;
+        private final Automaton[] automata;
+        private final List<List<ParseDiagnostic>> blockDiagnostics;
+
+        BlockTask(int[] blocks, int from, int to, Automaton[] automata,
+                  List<List<ParseDiagnostic>> blockDiagnostics) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+            this.automata = automata;
+            this.blockDiagnostics = blockDiagnostics;
+        }
+
+        @Override
+        protected void compute() {
+            int tokenCount = blocks[2 * to - 1] - blocks[2 * from];
+            if (to - from > 1 && tokenCount > MIN_TOKENS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BlockTask(blocks, from, mid, automata, blockDiagnostics),
+                        new BlockTask(blocks, mid, to, automata, blockDiagnostics));
+                return;
+            }
+            for (int b = from; b < to; b++) {
+                AutomatonParser parser = new AutomatonParser(tokens, blocks[2 * b], blocks[2 * b + 1]);
+                automata[b] = parser.parseBlock();
+                blockDiagnostics.set(b, parser.getDiagnostics());
+            }
+        }
+    }
+
+    // Token ranges of the definitions as [from, to) pairs, or null unless the stream is exactly
+    // "{ name: {...}, name: {...} }" (a trailing comma allowed) at the top level, with no header
+    // nested in a definition
+    private int[] topLevelBlocks() {
+        if (end - start < 2 || tokens.getType(start) != TokenType.LEFT_BRACE ||
+                tokens.getType(end - 1) != TokenType.RIGHT_BRACE) {
+            return null;
+        }
+        int[] blocks = new int[16];
+        int count = 0;
+        int i = start + 1;
+        while (i < end - 1) {
+            if (nextHeader[i - start] != i) return null;
+            int close = matching[i + 2 - start];
+            if (close >= end - 1 || tokens.getType(close) != TokenType.RIGHT_BRACE) return null;
+            // A header inside is a sync point that parseAll() would leave the block at
+            if (nextHeader[i + 1 - start] < close) return null;
+            if (count + 2 > blocks.length) blocks = Arrays.copyOf(blocks, blocks.length * 2);
+            blocks[count++] = i;
+            blocks[count++] = close + 1;
+            i = close + 1;
+            if (i < end - 1) {
+                if (tokens.getType(i) != TokenType.COMMA) return null;
+                i++;
+            }
+        }
+        return Arrays.copyOf(blocks, count);
+    }
+
+    // One "name: { ... }" definition, without the surrounding braces of the file
+    public Automaton parseBlock() {
+        diagnostics.clear();
+        recovering = false;
+        Automaton automaton = parseOneAutomaton();
+        return automaton != null ? automaton : new Automaton("");
+    }
+
+    // Null if no definition starts before the end of the enclosing group
     private Automaton parseOneAutomaton() {
-        Token nameToken = safeConsume(TokenType.IDENTIFIER);
-        Automaton automaton = new Automaton(nameToken.getLexeme());
-        safeConsume(TokenType.COLON);
+        if (!check(TokenType.IDENTIFIER)) {
+            report("Expected an automaton definition", TokenType.IDENTIFIER);
+            current = Math.min(end, Math.max(current + 1, Math.min(nextHeader(current), scopeEnd(current))));
+            if (!check(TokenType.IDENTIFIER)) return null;
+        }
+        int nameToken = advance();
+        Automaton automaton = new Automaton(lexeme(nameToken));
+        statePool.clear();
+        safeConsume(TokenType.COLON, TokenType.LEFT_BRACE);
         safeConsume(TokenType.LEFT_BRACE);
 
-        while (!check(TokenType.RIGHT_BRACE) && !isAtEnd()) {
+        while (!check(TokenType.RIGHT_BRACE) && !atBoundary()) {
             if (match(TokenType.DESCRIPTION_KEYWORD)) {
-                safeConsume(TokenType.COLON);
-                Token value = safeConsume(TokenType.STRING_LITERAL);
-                automaton.setDescription(stripQuotes(value.getLexeme()));
+                safeConsume(TokenType.COLON, TokenType.STRING_LITERAL);
+                int value = safeConsume(TokenType.STRING_LITERAL);
+                if (value != MISSING) automaton.setDescription(stripQuotes(lexeme(value)));
             } else if (match(TokenType.STATES_KEYWORD)) {
-                safeConsume(TokenType.COLON);
+                safeConsume(TokenType.COLON, TokenType.LEFT_BRACKET);
                 parseStates(automaton);
             } else if (match(TokenType.ALPHABET_KEYWORD)) {
-                safeConsume(TokenType.COLON);
+                safeConsume(TokenType.COLON, TokenType.LEFT_BRACKET);
                 parseAlphabet(automaton);
             } else if (match(TokenType.INITIAL_STATE_KEYWORD)) {
-                safeConsume(TokenType.COLON);
-                Token stateToken = consumeStateIdentifier();
-                State state = getOrCreateState(stateToken.getLexeme());
-                state.setInitial(true);
-                automaton.setInitialState(state);
-                automaton.addState(state);
+                safeConsume(TokenType.COLON, TokenType.IDENTIFIER);
+                String name = consumeStateIdentifier();
+                if (name != null) {
+                    State state = getOrCreateState(name);
+                    state.setInitial(true);
+                    automaton.setInitialState(state);
+                    automaton.addState(state);
+                }
             } else if (match(TokenType.FINAL_STATES_KEYWORD)) {
-                safeConsume(TokenType.COLON);
+                safeConsume(TokenType.COLON, TokenType.LEFT_BRACKET);
                 parseFinalStates(automaton);
             } else if (match(TokenType.TRANSITIONS_KEYWORD)) {
-                safeConsume(TokenType.COLON);
+                safeConsume(TokenType.COLON, TokenType.LEFT_BRACE);
                 parseTransitions(automaton);
             } else {
-                // Skip unknown tokens and try to recover
-                advance();
+                // Skip the unknown token (or group) and try the next field
+                report("Unexpected " + describe(current) + " in automaton " + automaton.getName(), null);
+                skipOne();
             }
 
-            if (!check(TokenType.RIGHT_BRACE)) safeConsume(TokenType.COMMA);
+            if (check(TokenType.RIGHT_BRACE) || atBoundary()) continue;
+            if (isFieldKeyword(peekType())) {
+                report("Missing COMMA before " + describe(current), TokenType.COMMA);
+            } else {
+                safeConsume(TokenType.COMMA);
+            }
         }
 
         safeConsume(TokenType.RIGHT_BRACE);
@@ -75,117 +260,126 @@ public class AutomatonParser {
 
     private void parseStates(Automaton automaton) {
         safeConsume(TokenType.LEFT_BRACKET);
-        while (!check(TokenType.RIGHT_BRACKET) && !isAtEnd()) {
-            Token stateToken = consumeStateIdentifier();
-            State state = getOrCreateState(stateToken.getLexeme());
+        while (!check(TokenType.RIGHT_BRACKET) && !atBoundary()) {
+            State state = getOrCreateState(consumeStateIdentifier());
             automaton.addState(state);
-            if (!check(TokenType.RIGHT_BRACKET)) safeConsume(TokenType.COMMA);
+            if (!check(TokenType.RIGHT_BRACKET) && !atBoundary()) safeConsume(TokenType.COMMA);
         }
         safeConsume(TokenType.RIGHT_BRACKET);
     }
 
     private void parseAlphabet(Automaton automaton) {
         safeConsume(TokenType.LEFT_BRACKET);
-        while (!check(TokenType.RIGHT_BRACKET) && !isAtEnd()) {
-            Token symbol = safeConsume(TokenType.STRING_LITERAL);
-            automaton.addAlphabetSymbol(stripQuotes(symbol.getLexeme()));
-            if (!check(TokenType.RIGHT_BRACKET)) safeConsume(TokenType.COMMA);
+        while (!check(TokenType.RIGHT_BRACKET) && !atBoundary()) {
+            int symbol = safeConsume(TokenType.STRING_LITERAL);
+            if (symbol != MISSING) automaton.addAlphabetSymbol(stripQuotes(lexeme(symbol)));
+            if (!check(TokenType.RIGHT_BRACKET) && !atBoundary()) safeConsume(TokenType.COMMA);
         }
         safeConsume(TokenType.RIGHT_BRACKET);
     }
 
     private void parseFinalStates(Automaton automaton) {
         safeConsume(TokenType.LEFT_BRACKET);
-        while (!check(TokenType.RIGHT_BRACKET) && !isAtEnd()) {
-            Token stateToken = consumeStateIdentifier();
-            State state = getOrCreateState(stateToken.getLexeme());
+        while (!check(TokenType.RIGHT_BRACKET) && !atBoundary()) {
+            State state = getOrCreateState(consumeStateIdentifier());
             state.setFinal(true);
             automaton.addFinalState(state);
             automaton.addState(state);
-            if (!check(TokenType.RIGHT_BRACKET)) safeConsume(TokenType.COMMA);
+            if (!check(TokenType.RIGHT_BRACKET) && !atBoundary()) safeConsume(TokenType.COMMA);
         }
         safeConsume(TokenType.RIGHT_BRACKET);
     }
 
     private void parseTransitions(Automaton automaton) {
-        safeConsume(TokenType.LEFT_BRACE);
-        while (!check(TokenType.RIGHT_BRACE) && !isAtEnd()) {
-            // Consume from state
-            Token fromToken = consumeStateIdentifier();
-            State fromState = getOrCreateState(fromToken.getLexeme());
+        // Without its opening brace the table has no closing brace of its own: the next "}" is the automaton's
+        int open = safeConsume(TokenType.LEFT_BRACE);
+        while (!check(TokenType.RIGHT_BRACE) && !atBoundary()) {
+            State fromState = getOrCreateState(consumeStateIdentifier());
             automaton.addState(fromState);
 
-            // Safely look for equals sign
-            safeConsume(TokenType.EQUALS);
-
-            safeConsume(TokenType.LEFT_PARENTHESIS);
-            while (!check(TokenType.RIGHT_PARENTHESIS) && !isAtEnd()) {
-                try {
-                    Token symbolToken = safeConsume(TokenType.STRING_LITERAL);
-                    safeConsume(TokenType.ARROW);
-                    Token toToken = consumeStateIdentifier();
-
-                    State toState = getOrCreateState(toToken.getLexeme());
+            safeConsume(TokenType.EQUALS, TokenType.LEFT_PARENTHESIS);
+            int row = safeConsume(TokenType.LEFT_PARENTHESIS);
+            while (!check(TokenType.RIGHT_PARENTHESIS) && !atBoundary()) {
+                int symbolToken = safeConsume(TokenType.STRING_LITERAL);
+                safeConsume(TokenType.ARROW);
+                String toName = consumeStateIdentifier();
+                // A transition missing its symbol or target is dropped; the rest of the row still counts
+                if (symbolToken != MISSING && toName != null) {
+                    State toState = getOrCreateState(toName);
                     automaton.addState(toState);
-                    automaton.addTransition(fromState, stripQuotes(symbolToken.getLexeme()), toState);
-                } catch (Exception e) {
-                    // Skip to next comma or closing parenthesis if there's an error in a transition
-                    skipUntil(TokenType.COMMA, TokenType.RIGHT_PARENTHESIS);
+                    automaton.addTransition(fromState, stripQuotes(lexeme(symbolToken)), toState);
                 }
 
-                if (!check(TokenType.RIGHT_PARENTHESIS)) safeConsume(TokenType.COMMA);
+                if (!check(TokenType.RIGHT_PARENTHESIS) && !atBoundary()) safeConsume(TokenType.COMMA);
+            }
+            if (row != MISSING) safeConsume(TokenType.RIGHT_PARENTHESIS);
+
+            // Anything between the row and the next comma is skipped, nested groups as a whole,
+            // unless it is the next row with the comma left out
+            if (!check(TokenType.COMMA) && !check(TokenType.RIGHT_BRACE) && !atBoundary() && !atRowStart()) {
+                report("Unexpected " + describe(current) + " after the transitions of " + fromState.getName(), null);
+                while (!check(TokenType.COMMA) && !atBoundary()) {
+                    skipOne();
+                }
             }
-            safeConsume(TokenType.RIGHT_PARENTHESIS);
-
-            // Skip any extra characters after transition definitions
-            skipExtraChars();
 
-            if (!check(TokenType.RIGHT_BRACE)) safeConsume(TokenType.COMMA);
+            if (check(TokenType.RIGHT_BRACE) || atBoundary()) continue;
+            if (atRowStart()) {
+                report("Missing COMMA before " + describe(current), TokenType.COMMA);
+            } else {
+                safeConsume(TokenType.COMMA);
+            }
         }
-        safeConsume(TokenType.RIGHT_BRACE);
+        if (open != MISSING) safeConsume(TokenType.RIGHT_BRACE);
     }
 
-    private void skipExtraChars() {
-        // Skip any characters that aren't structure-related until we hit a comma or closing brace
-        while (!isAtEnd() && !check(TokenType.COMMA) && !check(TokenType.RIGHT_BRACE)) {
-            advance();
-        }
+    // "state =" starts a row of transitions
+    private boolean atRowStart() {
+        return current + 1 < end && !isOpener(peekType()) && !isCloser(peekType()) &&
+                tokens.getType(current + 1) == TokenType.EQUALS;
     }
 
-    private void skipUntil(TokenType... types) {
-        // Skip tokens until we find one of the specified types
-        while (!isAtEnd()) {
-            for (TokenType type : types) {
-                if (check(type)) {
-                    return;
-                }
-            }
-            advance();
-        }
+    private static boolean isFieldKeyword(TokenType type) {
+        return switch (type) {
+            case DESCRIPTION_KEYWORD, STATES_KEYWORD, ALPHABET_KEYWORD, INITIAL_STATE_KEYWORD,
+                 FINAL_STATES_KEYWORD, TRANSITIONS_KEYWORD -> true;
+            default -> false;
+        };
     }
 
-    private Token consumeStateIdentifier() {
+    // Null, with a diagnostic, at the end of the enclosing group
+    private String consumeStateIdentifier() {
+        // Numbers are dropped before the checks, so the token taken in their place is never a closer
+        skipNumbers();
         // Accept any identifier-like token as a state identifier
-        if (isAtEnd()) {
-            throw new RuntimeException("Unexpected end of input while parsing state identifier");
+        if (atBoundary()) {
+            report("Expected a state identifier but found " + describe(current), TokenType.IDENTIFIER);
+            return null;
+        }
+        // A group is never a state name; it is skipped whole so the brackets stay paired
+        if (isOpener(peekType())) {
+            report("Expected a state identifier but found " + describe(current), TokenType.IDENTIFIER);
+            skipOne();
+            return null;
         }
 
-        Token token = advance();
+        int token = advance();
         // Clean up the lexeme to make it a valid state identifier
-        String cleanLexeme = token.getLexeme().replaceAll("[^a-zA-Z0-9_]", "");
+        String cleanLexeme = Identifiers.clean(lexeme(token));
         if (cleanLexeme.isEmpty()) {
             cleanLexeme = "S_unknown";
         }
-        return new Token(TokenType.STATE_IDENTIFIER, cleanLexeme, token.getLine(), token.getColumn());
+        return cleanLexeme;
     }
 
     private State getOrCreateState(String name) {
-        return statePool.computeIfAbsent(name, State::new);
+        return statePool.computeIfAbsent(name == null ? "S_unknown" : name, State::new);
     }
 
     private boolean match(TokenType type) {
         if (check(type)) {
             advance();
+            recovering = false;
             return true;
         }
         return false;
@@ -193,53 +387,179 @@ public class AutomatonParser {
 
     private boolean check(TokenType type) {
         if (isAtEnd()) return false;
-        return peek().getType().equals(type);
+        return tokens.getType(current) == type;
     }
 
-    private Token advance() {
-        while (!isAtEnd()) {
-            Token token = tokens.get(current++);
-            if (token.getType() != TokenType.NUMBER_LITERAL) {
-                return token;
-            }
-            System.out.println("Ignoring NUMBER_LITERAL: " + token.getLexeme());
-        }
-        return previous();
+    private int advance() {
+        visited++;
+        skipNumbers();
+        return isAtEnd() ? previous() : current++;
     }
 
+    private void skipNumbers() {
+        while (check(TokenType.NUMBER_LITERAL)) {
+            int token = current++;
+            diagnostics.add(new ParseDiagnostic("Ignoring NUMBER_LITERAL: " + tokens.getLexeme(token), null,
+                    TokenType.NUMBER_LITERAL, tokens.getLine(token), tokens.getColumn(token)));
+        }
+    }
 
     private boolean isAtEnd() {
-        return current >= tokens.size();
+        return current >= end;
+    }
+
+    private TokenType peekType() {
+        return tokens.getType(current);
     }
 
-    private Token peek() {
-        return tokens.get(current);
+    private int previous() {
+        if (current == 0) throw new IndexOutOfBoundsException("No previous token");
+        return current - 1;
     }
 
-    private Token previous() {
-        return tokens.get(current - 1);
+    private String lexeme(int token) {
+        return token == MISSING ? "" : tokens.getLexeme(token);
     }
 
-    private Token safeConsume(TokenType expectedType) {
+    private int safeConsume(TokenType expectedType) {
         if (check(expectedType)) {
+            recovering = false;
             return advance();
         }
 
-        // Log the error but don't throw an exception
-        System.err.println("Expected " + expectedType + " but got " +
-                (isAtEnd() ? "END OF FILE" : peek().getType()) +
-                " at position " + current);
+        report("Expected " + expectedType + " but found " + describe(current), expectedType);
+
+        // Try to recover: the next token of the expected type before the next sync point. The closer of
+        // the enclosing group may itself be the one expected; a header never is
+        int close = scopeEnd(current);
+        int header = nextHeader(current);
+        int limit = Math.min(close, header);
+        int i = current;
+        while (i < limit) {
+            visited++;
+            TokenType type = tokens.getType(i);
+            if (type == expectedType) {
+                current = i;
+                return advance();
+            }
+            i = isOpener(type) ? Math.min(matching[i - start] + 1, limit) : i + 1;
+        }
+        current = Math.min(limit, end);
+        if (close < header && close < end && tokens.getType(close) == expectedType) {
+            return advance();
+        }
+        // Nothing to consume: callers read an empty lexeme for the missing token
+        return MISSING;
+    }
 
-        // Try to recover: find the next instance of the expected token type
-        while (!isAtEnd() && !check(expectedType)) {
-            advance();
+    // For a token that is often left out: if the token after it is there instead, only report it
+    private int safeConsume(TokenType expectedType, TokenType followingType) {
+        if (!check(expectedType) && check(followingType)) {
+            report("Missing " + expectedType + " before " + describe(current), expectedType);
+            return MISSING;
         }
+        return safeConsume(expectedType);
+    }
+
+    // One token, or a whole group when it opens one. A group left unclosed ends at the closer of an
+    // outer group, which is not skipped with it
+    private void skipOne() {
+        visited++;
+        if (isOpener(peekType())) {
+            int close = matching[current - start];
+            current = close < end && openerOf(tokens.getType(close)) == peekType() ? close + 1 : close;
+        } else {
+            current++;
+        }
+    }
+
+    // At the end of the enclosing group, at the next automaton header, or at the end of input
+    private boolean atBoundary() {
+        return isAtEnd() || scopeEnd(current) == current || nextHeader(current) == current;
+    }
+
+    private int scopeEnd(int token) {
+        return token >= end ? end : scopeEnd[token - start];
+    }
+
+    private int nextHeader(int token) {
+        return token >= end ? end : nextHeader[token - start];
+    }
+
+    private void report(String message, TokenType expected) {
+        if (recovering) return;
+        recovering = true;
+        int at = isAtEnd() ? end - 1 : current;
+        diagnostics.add(at < start
+                ? new ParseDiagnostic(message, expected, null, 0, 0)
+                : new ParseDiagnostic(message, expected, isAtEnd() ? null : tokens.getType(current),
+                        tokens.getLine(at), tokens.getColumn(at)));
+    }
+
+    private String describe(int token) {
+        return token >= end ? "END OF FILE" : tokens.getType(token) + " '" + tokens.getLexeme(token) + "'";
+    }
 
-        if (isAtEnd()) {
-            // Create a synthetic token if we couldn't find the expected type
-            return new Token(expectedType, "", -1, -1);
+    // One pass with a stack of open groups. A closer pops down to the nearest opener of its kind,
+    // closing any unclosed groups inside it too; a closer with no such opener is a stray token
+    private void indexSyncPoints() {
+        int size = Math.max(0, end - start);
+        matching = new int[size];
+        scopeEnd = new int[size];
+        nextHeader = new int[size];
+        int[] stack = new int[16];
+        int depth = 0;
+        for (int i = start; i < end; i++) {
+            TokenType type = tokens.getType(i);
+            int k = i - start;
+            // Enclosing opener for now; resolved to its closer once all groups are matched
+            scopeEnd[k] = depth == 0 ? MISSING : stack[depth - 1];
+            if (isOpener(type)) {
+                matching[k] = end;
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = i;
+            } else if (isCloser(type)) {
+                TokenType opener = openerOf(type);
+                int d = depth - 1;
+                while (d >= 0 && tokens.getType(stack[d]) != opener) d--;
+                if (d >= 0) {
+                    for (int j = d; j < depth; j++) {
+                        matching[stack[j] - start] = i;
+                    }
+                    // A closer belongs to the group it closes
+                    scopeEnd[k] = stack[d];
+                    depth = d;
+                }
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            scopeEnd[k] = scopeEnd[k] == MISSING ? end : matching[scopeEnd[k] - start];
+        }
+
+        int next = end;
+        for (int i = end - 1; i >= start; i--) {
+            if (i + 2 < end && tokens.getType(i) == TokenType.IDENTIFIER &&
+                    tokens.getType(i + 1) == TokenType.COLON && tokens.getType(i + 2) == TokenType.LEFT_BRACE) {
+                next = i;
+            }
+            nextHeader[i - start] = next;
         }
-        return advance();
+    }
+
+    private static boolean isOpener(TokenType type) {
+        return type == TokenType.LEFT_BRACE || type == TokenType.LEFT_BRACKET || type == TokenType.LEFT_PARENTHESIS;
+    }
+
+    private static boolean isCloser(TokenType type) {
+        return type == TokenType.RIGHT_BRACE || type == TokenType.RIGHT_BRACKET || type == TokenType.RIGHT_PARENTHESIS;
+    }
+
+    private static TokenType openerOf(TokenType closer) {
+        return switch (closer) {
+            case RIGHT_BRACE -> TokenType.LEFT_BRACE;
+            case RIGHT_BRACKET -> TokenType.LEFT_BRACKET;
+            default -> TokenType.LEFT_PARENTHESIS;
+        };
     }
 
     private String stripQuotes(String s) {
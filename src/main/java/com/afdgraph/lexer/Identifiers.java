@@ -0,0 +1,57 @@
+package com.afdgraph.lexer;
+
+// Character classes for identifiers, without regexes or per-char allocation
+final class Identifiers {
+
+    private Identifiers() {
+    }
+
+    static boolean isStructuralSymbol(char c) {
+        return switch (c) {
+            case '(', ')', '{', '}', '[', ']', ',', ':', '=', '-', '>' -> true;
+            default -> false;
+        };
+    }
+
+    // Identifiers run until whitespace or a structural symbol
+    static boolean isIdentifierPart(char c) {
+        return !Character.isWhitespace(c) && !isStructuralSymbol(c);
+    }
+
+    // Chars that survive cleaning: [a-zA-Z0-9_]
+    static boolean isCleanChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // Advances the "S\d+" shape over one cleaned char: 0 = start, 1 = after 'S', 2 = S and digits, -1 = no match
+    static int nextStateShape(int shape, char c) {
+        return switch (shape) {
+            case 0 -> c == 'S' ? 1 : -1;
+            case 1, 2 -> c >= '0' && c <= '9' ? 2 : -1;
+            default -> -1;
+        };
+    }
+
+    static boolean isStateShape(int shape) {
+        return shape == 2;
+    }
+
+    // Returns the text unchanged when it is already clean, otherwise a copy without the invalid chars
+    static String clean(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!isCleanChar(text.charAt(i))) {
+                return clean(text, 0, text.length());
+            }
+        }
+        return text;
+    }
+
+    static String clean(CharSequence text, int start, int end) {
+        StringBuilder cleaned = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isCleanChar(c)) cleaned.append(c);
+        }
+        return cleaned.toString();
+    }
+}
@@ -0,0 +1,470 @@
+package com.afdgraph.lexer;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.AutomatonRegistry;
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.ParseDiagnostic;
+import com.afdgraph.models.TokenStream;
+import com.afdgraph.models.TokenType;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+// Keeps tokens, lexical errors and parsed automata in step with a text that is edited in place.
+// An edit relexes from the last token before it until the lexer lines up with an old token again,
+// splices the new tokens in, and re-parses only the top-level automaton blocks that changed.
+// Syntax diagnostics are kept per block, so blocks that only move keep theirs with shifted lines.
+public class IncrementalAnalyzer {
+    private final StringBuilder text;
+    private final TokenStream tokens;
+    private final List<LexicalException> errors;
+    private List<Block> blocks = new ArrayList<>();
+    // An unclosed "/*" runs to the end of the text, so edits after it must relex from it
+    private int openCommentStart;
+    private int openCommentLine;
+
+    // Work done by the last edit, for diagnostics and tests
+    private int parsePosition;
+    private int lastRelexedTokens;
+    private int lastReparsedBlocks;
+    private List<Automaton> lastMergedAutomata = List.of();
+
+    // One "name: { ... }" definition: tokens [from, to) and what they parsed to
+    private static class Block {
+        private int from;
+        private int to;
+        private final Automaton automaton;
+        private List<ParseDiagnostic> diagnostics;
+
+        Block(int from, int to, Automaton automaton, List<ParseDiagnostic> diagnostics) {
+            this.from = from;
+            this.to = to;
+            this.automaton = automaton;
+            this.diagnostics = diagnostics;
+        }
+    }
+
+    // A replacement of text[offset, offset + removed.length()) by inserted, as applied to the text
+    public static class Edit {
+        private final int offset;
+        private final String removed;
+        private final String inserted;
+
+        Edit(int offset, String removed, String inserted) {
+            this.offset = offset;
+            this.removed = removed;
+            this.inserted = inserted;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public String getRemoved() {
+            return removed;
+        }
+
+        public String getInserted() {
+            return inserted;
+        }
+    }
+
+    public IncrementalAnalyzer(String text) {
+        this.text = new StringBuilder(text);
+        Lexer lexer = new Lexer(this.text, new TokenStream(this.text, text.length() / 4), 0, 1, 1);
+        lexer.analyzeUntil(null);
+        this.tokens = lexer.getTokenStream();
+        this.errors = new ArrayList<>(lexer.getErrors());
+        this.openCommentStart = lexer.getOpenCommentStart();
+        this.openCommentLine = lexer.getOpenCommentLine();
+    }
+
+    // Parses every block, handing each automaton to the listener as it is done
+    public List<Automaton> parseAll(Consumer<Automaton> listener) {
+        List<Block> parsed = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        scanBlocks(0, 0, ranges, -1, 0);
+        for (int[] range : ranges) {
+            Block block = parseBlock(range[0], range[1]);
+            parsed.add(block);
+            parsePosition = range[1];
+            listener.accept(block.automaton);
+        }
+        blocks = parsed;
+        lastReparsedBlocks = parsed.size();
+        return getAutomata();
+    }
+
+    // Adds the definitions of another file (without its outer braces) after the last block, then
+    // drops earlier blocks with the same names. Only the added text is lexed and parsed; the edits
+    // are returned in order so a view of the same text can replay them.
+    public List<Edit> mergeDefinitions(String definitions) {
+        List<Edit> edits = new ArrayList<>();
+        if (blocks.isEmpty()) {
+            edits.add(insertFirstDefinitions(definitions));
+            lastMergedAutomata = getAutomata();
+            return edits;
+        }
+
+        int existing = blocks.size();
+        edits.add(apply(blockEnd(existing - 1), 0, ",\n" + definitions));
+
+        Set<String> added = new HashSet<>();
+        List<Automaton> merged = new ArrayList<>();
+        for (int b = existing; b < blocks.size(); b++) {
+            added.add(blocks.get(b).automaton.getName());
+            merged.add(blocks.get(b).automaton);
+        }
+        lastMergedAutomata = merged;
+        // Back to front, so the offsets of the blocks still to visit do not move
+        for (int b = existing - 1; b >= 0; b--) {
+            if (added.contains(blocks.get(b).automaton.getName())) {
+                int start = blockStart(b);
+                edits.add(apply(start, blockStart(b + 1) - start, ""));
+            }
+        }
+        return edits;
+    }
+
+    // With no block yet, text the user already has (comments, a half-typed definition, stray text)
+    // is kept: the definitions go inside empty outer braces, or after it in braces of their own
+    private Edit insertFirstDefinitions(String definitions) {
+        if (text.toString().isBlank()) {
+            return apply(0, text.length(), "{\n" + definitions + "\n}");
+        }
+        int depth = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenType type = tokens.getType(i);
+            if (type == TokenType.LEFT_BRACE) depth++;
+            else if (type == TokenType.RIGHT_BRACE) depth = Math.max(0, depth - 1);
+        }
+        int last = tokens.size() - 1;
+        if (depth == 1) {
+            return apply(text.length(), 0, "\n" + definitions + "\n}");
+        }
+        if (last >= 1 && tokens.getType(last) == TokenType.RIGHT_BRACE && tokens.getType(last - 1) == TokenType.LEFT_BRACE) {
+            return apply(tokens.getStart(last), 0, "\n" + definitions + "\n");
+        }
+        return apply(text.length(), 0, "\n{\n" + definitions + "\n}");
+    }
+
+    // Cuts definitions (a file's text without its outer braces) into one piece per top-level block,
+    // at the commas outside any braces, so they can be merged one at a time. Comments between
+    // blocks go with the block after them. Strings and comments are skipped by the lexer's rules,
+    // so their commas stay put, but nothing is tokenized: each piece is lexed once, when merged.
+    public static List<String> splitDefinitions(String definitions) {
+        List<String> pieces = new ArrayList<>();
+        int depth = 0;
+        int pieceStart = 0;
+        int n = definitions.length();
+        for (int i = 0; i < n; i++) {
+            char c = definitions.charAt(i);
+            if (c == '"') {
+                // Ends at the closing quote, or unterminated at the line break
+                while (i + 1 < n && definitions.charAt(i + 1) != '"' && definitions.charAt(i + 1) != '\n') i++;
+                if (i + 1 < n && definitions.charAt(i + 1) == '"') i++;
+            } else if (c == '/' && i + 1 < n && definitions.charAt(i + 1) == '/') {
+                while (i + 1 < n && definitions.charAt(i + 1) != '\n') i++;
+            } else if (c == '/' && i + 1 < n && definitions.charAt(i + 1) == '*') {
+                int close = definitions.indexOf("*/", i + 2);
+                i = close < 0 ? n : close + 1;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == ',' && depth == 0) {
+                addPiece(pieces, definitions.substring(pieceStart, i));
+                pieceStart = i + 1;
+            }
+        }
+        addPiece(pieces, definitions.substring(pieceStart));
+        return pieces;
+    }
+
+    private static void addPiece(List<String> pieces, String piece) {
+        String trimmed = piece.strip();
+        if (!trimmed.isEmpty()) pieces.add(trimmed);
+    }
+
+    private Edit apply(int offset, int length, String inserted) {
+        Edit edit = new Edit(offset, text.substring(offset, offset + length), inserted);
+        replace(offset, length, inserted);
+        return edit;
+    }
+
+    private int blockStart(int block) {
+        return tokens.getStart(blocks.get(block).from);
+    }
+
+    private int blockEnd(int block) {
+        int last = blocks.get(block).to - 1;
+        return tokens.getStart(last) + tokens.getLength(last);
+    }
+
+    public void insert(int offset, String inserted) {
+        replace(offset, 0, inserted);
+    }
+
+    public void remove(int offset, int length) {
+        replace(offset, length, "");
+    }
+
+    public void replace(int offset, int length, String replacement) {
+        if (offset < 0 || length < 0 || offset + length > text.length()) {
+            throw new IndexOutOfBoundsException("Edit [" + offset + ", " + (offset + length) +
+                    ") outside text of length " + text.length());
+        }
+
+        // Restart at the last token starting before the edit: the lexer was in its default state there
+        int next = tokens.indexAt(offset);
+        int restartToken = next == 0 ? 0 : next - 1;
+        int restart = next == 0 ? 0 : tokens.getStart(restartToken);
+        int restartLine = next == 0 ? 1 : tokens.getLine(restartToken);
+        if (openCommentStart >= 0 && openCommentStart < offset && openCommentStart < restart) {
+            restartToken = tokens.indexAt(openCommentStart);
+            restart = openCommentStart;
+            restartLine = openCommentLine;
+        }
+
+        int delta = replacement.length() - length;
+        text.replace(offset, offset + length, replacement);
+        int editEnd = offset + replacement.length();
+        int restartColumn = columnAt(restart);
+
+        // Stop on the first old token whose start, shifted by the edit, is reached after a newline
+        // past the edit: from there on the input, and so the lexer output, is the same as before.
+        // The lexer's column already locates the last newline, so no token costs a backward scan
+        TokenStream oldTokens = tokens;
+        int[] resync = {oldTokens.size(), 0};
+        Lexer.SyncCheck sync = (position, line, column) -> {
+            if (position < editEnd || position - column < editEnd) return false;
+            int old = oldTokens.indexAt(position - delta);
+            if (old >= oldTokens.size() || oldTokens.getStart(old) != position - delta) return false;
+            resync[0] = old;
+            resync[1] = line - oldTokens.getLine(old);
+            return true;
+        };
+
+        TokenStream relexed = new TokenStream(text, 64);
+        Lexer lexer = new Lexer(text, relexed, restart, restartLine, restartColumn);
+        lexer.analyzeUntil(sync);
+        int resyncToken = resync[0];
+        int lineDelta = resync[1];
+        if (lexer.getOpenCommentStart() >= 0) {
+            openCommentStart = lexer.getOpenCommentStart();
+            openCommentLine = lexer.getOpenCommentLine();
+        } else if (resyncToken < oldTokens.size() && openCommentStart >= oldTokens.getStart(resyncToken)) {
+            // The unchanged tail keeps its open comment
+            openCommentStart += delta;
+            openCommentLine += lineDelta;
+        } else {
+            openCommentStart = -1;
+        }
+
+        spliceErrors(restartLine, restartColumn, resyncToken, delta, lineDelta, lexer.getErrors());
+        tokens.splice(restartToken, resyncToken, relexed, delta, lineDelta);
+        lastRelexedTokens = relexed.size();
+
+        reparse(restartToken, resyncToken, relexed.size(), lineDelta);
+    }
+
+    // Errors carry no offsets, but they are reported in (line, column) order, which follows the text
+    private void spliceErrors(int fromLine, int fromColumn, int resyncToken, int delta, int lineDelta,
+                              List<LexicalException> relexedErrors) {
+        // Old coordinates of the resync point; its column is the same in the edited text
+        boolean toEnd = resyncToken >= tokens.size();
+        int toLine = toEnd ? Integer.MAX_VALUE : tokens.getLine(resyncToken);
+        int toColumn = toEnd ? Integer.MAX_VALUE : columnAt(tokens.getStart(resyncToken) + delta);
+
+        int first = 0;
+        while (first < errors.size() && before(errors.get(first), fromLine, fromColumn)) first++;
+        int last = first;
+        while (last < errors.size() && before(errors.get(last), toLine, toColumn)) last++;
+
+        List<LexicalException> after = new ArrayList<>(errors.size() - last);
+        for (int i = last; i < errors.size(); i++) {
+            LexicalException error = errors.get(i);
+            after.add(lineDelta == 0 ? error :
+                    new LexicalException(error.getErrorMessage(), error.getLine() + lineDelta, error.getColumn()));
+        }
+        errors.subList(first, errors.size()).clear();
+        errors.addAll(relexedErrors);
+        errors.addAll(after);
+    }
+
+    private static boolean before(LexicalException error, int line, int column) {
+        return error.getLine() < line || (error.getLine() == line && error.getColumn() < column);
+    }
+
+    // Rescans block boundaries from the last block that ends before the replaced tokens, up to the
+    // first block that lines up with an old one after them; everything past that point only moves
+    private void reparse(int from, int oldTo, int added, int lineDelta) {
+        int shift = added - (oldTo - from);
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).to < from) low = mid + 1;
+            else high = mid;
+        }
+        int keep = low;
+
+        // Right after a terminator the scan state is fixed: a comma leaves depth 1, a brace depth 0
+        int start = keep > 0 ? blocks.get(keep - 1).to + 1 : 0;
+        int depth = keep > 0 && tokens.getType(blocks.get(keep - 1).to) == TokenType.COMMA ? 1 : 0;
+        List<int[]> ranges = new ArrayList<>();
+        int resume = scanBlocks(start, depth, ranges, from + added, shift);
+
+        List<Block> updated = new ArrayList<>(blocks.size() + ranges.size());
+        updated.addAll(blocks.subList(0, keep));
+        int reparsed = 0;
+        int fresh = resume >= 0 ? ranges.size() - 1 : ranges.size();
+        for (int r = 0; r < fresh; r++) {
+            int[] range = ranges.get(r);
+            updated.add(parseBlock(range[0], range[1]));
+            reparsed++;
+        }
+        if (resume >= 0) {
+            for (int b = resume; b < blocks.size(); b++) {
+                Block block = blocks.get(b);
+                block.from += shift;
+                block.to += shift;
+                shiftDiagnostics(block, lineDelta);
+                updated.add(block);
+            }
+        }
+        blocks = updated;
+        lastReparsedBlocks = reparsed;
+    }
+
+    private Block parseBlock(int from, int to) {
+        AutomatonParser parser = new AutomatonParser(tokens, from, to);
+        Automaton automaton = parser.parseBlock();
+        return new Block(from, to, automaton, parser.getDiagnostics());
+    }
+
+    // Blocks after the relexed region keep their columns (they start past a newline after the
+    // edit), so only the lines move, as in spliceErrors
+    private static void shiftDiagnostics(Block block, int lineDelta) {
+        if (lineDelta == 0 || block.diagnostics.isEmpty()) return;
+        List<ParseDiagnostic> shifted = new ArrayList<>(block.diagnostics.size());
+        for (ParseDiagnostic diagnostic : block.diagnostics) {
+            shifted.add(new ParseDiagnostic(diagnostic.getMessage(), diagnostic.getExpected(), diagnostic.getFound(),
+                    diagnostic.getLine() + lineDelta, diagnostic.getColumn()));
+        }
+        block.diagnostics = shifted;
+    }
+
+    // Top-level definitions are the token runs between the commas at depth 1 of the outer braces.
+    // Scans from start with the given depth; with tailFrom >= 0 it stops at the first block at or
+    // after tailFrom that is an old block moved by shift, and returns that old block's index.
+    private int scanBlocks(int start, int depth, List<int[]> ranges, int tailFrom, int shift) {
+        int blockStart = -1;
+        for (int i = start; i < tokens.size(); i++) {
+            TokenType type = tokens.getType(i);
+            if (depth == 1 && blockStart < 0 && type != TokenType.COMMA && type != TokenType.RIGHT_BRACE) {
+                blockStart = i;
+            }
+            boolean closes = false;
+            if (type == TokenType.LEFT_BRACE) {
+                depth++;
+            } else if (type == TokenType.RIGHT_BRACE) {
+                depth = Math.max(0, depth - 1);
+                closes = depth == 0 && blockStart >= 0;
+            } else if (type == TokenType.COMMA && depth == 1 && blockStart >= 0) {
+                closes = true;
+            }
+
+            if (closes) {
+                ranges.add(new int[]{blockStart, i});
+                if (tailFrom >= 0 && blockStart >= tailFrom) {
+                    int old = findBlock(blockStart - shift);
+                    if (old >= 0 && blocks.get(old).to + shift == i) return old;
+                }
+                blockStart = -1;
+            }
+        }
+        if (blockStart >= 0) {
+            ranges.add(new int[]{blockStart, tokens.size()});
+        }
+        return -1;
+    }
+
+    private int findBlock(int from) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = blocks.get(mid).from;
+            if (value < from) low = mid + 1;
+            else if (value > from) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    // The lexer advances its column by one per char and resets it after each newline
+    private int columnAt(int position) {
+        return position - lastNewline(position);
+    }
+
+    private int lastNewline(int position) {
+        for (int i = position - 1; i >= 0; i--) {
+            if (text.charAt(i) == '\n') return i;
+        }
+        return -1;
+    }
+
+    // Later definitions of a name replace earlier ones, as in AutomatonParser.parseAll
+    public AutomatonRegistry getRegistry() {
+        AutomatonRegistry registry = new AutomatonRegistry();
+        for (Block block : blocks) {
+            registry.register(block.automaton);
+        }
+        return registry;
+    }
+
+    public List<Automaton> getAutomata() {
+        return getRegistry().getAutomata();
+    }
+
+    // Getters
+    public CharSequence getText() {
+        return text;
+    }
+
+    public TokenStream getTokens() {
+        return tokens;
+    }
+
+    public List<LexicalException> getErrors() {
+        return errors;
+    }
+
+    // Syntax problems of every block, in text order
+    public List<ParseDiagnostic> getDiagnostics() {
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        for (Block block : blocks) {
+            diagnostics.addAll(block.diagnostics);
+        }
+        return diagnostics;
+    }
+
+    // Token index parseAll has reached, for progress reporting
+    public int getParsePosition() {
+        return parsePosition;
+    }
+
+    public int getLastRelexedTokens() {
+        return lastRelexedTokens;
+    }
+
+    public int getLastReparsedBlocks() {
+        return lastReparsedBlocks;
+    }
+
+    // Automata of the blocks the last mergeDefinitions added
+    public List<Automaton> getLastMergedAutomata() {
+        return lastMergedAutomata;
+    }
+}
@@ -0,0 +1,40 @@
+package com.afdgraph.lexer;
+
+import com.afdgraph.models.TokenType;
+
+// Keyword table shared by the lexers. Every keyword starts with a different
+// letter, so the first char alone selects the only possible candidate.
+final class Keywords {
+    private static final String[] SPELLINGS = new String[128];
+    private static final TokenType[] TYPES = new TokenType[128];
+
+    static {
+        register("descripcion", TokenType.DESCRIPTION_KEYWORD);
+        register("estados", TokenType.STATES_KEYWORD);
+        register("alfabeto", TokenType.ALPHABET_KEYWORD);
+        register("inicial", TokenType.INITIAL_STATE_KEYWORD);
+        register("finales", TokenType.FINAL_STATES_KEYWORD);
+        register("transiciones", TokenType.TRANSITIONS_KEYWORD);
+    }
+
+    private Keywords() {
+    }
+
+    private static void register(String keyword, TokenType type) {
+        char first = keyword.charAt(0);
+        if (SPELLINGS[first] != null) {
+            throw new IllegalStateException("Keywords must start with distinct letters: " + keyword);
+        }
+        SPELLINGS[first] = keyword;
+        TYPES[first] = type;
+    }
+
+    // Returns the keyword that starts with the given char, or null if none does
+    static String candidate(char first) {
+        return first < SPELLINGS.length ? SPELLINGS[first] : null;
+    }
+
+    static TokenType type(char first) {
+        return TYPES[first];
+    }
+}
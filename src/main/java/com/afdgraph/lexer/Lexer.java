@@ -2,28 +2,56 @@ package com.afdgraph.lexer;
 
 import com.afdgraph.models.LexicalException;
 import com.afdgraph.models.Token;
+import com.afdgraph.models.TokenStream;
 import com.afdgraph.models.TokenType;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Lexer {
-    private final String input;
+    private final CharSequence input;
     private int currentPosition;
     private int line;
     private int column;
     private final List<Token> tokens;
     private final List<LexicalException> errors;
+    private TokenStream stream;
+    // Where a "/*" that never gets closed starts, or -1
+    private int openCommentStart = -1;
+    private int openCommentLine;
 
     public Lexer(String input) {
+        this(input, null, 0, 1, 1);
+    }
+
+    // Relexing a region of a larger text: starts at a token boundary with that point's line and column
+    Lexer(CharSequence input, TokenStream stream, int start, int line, int column) {
         this.input = input;
-        this.currentPosition = 0;
-        this.line = 1;
-        this.column = 1;
+        this.stream = stream;
+        this.currentPosition = start;
+        this.line = line;
+        this.column = column;
         this.tokens = new ArrayList<>();
         this.errors = new ArrayList<>();
     }
 
+    // Lets a relex stop early once the rest of the input is known to lex as before
+    interface SyncCheck {
+        boolean canStop(int position, int line, int column);
+    }
+
+    // Columnar mode: tokens are recorded as offsets into the input instead of Token objects
+    public TokenStream analyzeToStream() {
+        stream = new TokenStream(input, input.length() / 4);
+        analyze();
+        return stream;
+    }
+
     public void analyze() {
+        analyzeUntil(null);
+    }
+
+    // Returns the position where lexing stopped: the end of input, or a point accepted by sync
+    int analyzeUntil(SyncCheck sync) {
         while (currentPosition < input.length()) {
             // Skip whitespaces and comments
             if (skipWhitespaceAndComments()) continue;
@@ -31,6 +59,8 @@ public class Lexer {
             // Check if we've reached the end after skipping
             if (currentPosition >= input.length()) break;
 
+            if (sync != null && sync.canStop(currentPosition, line, column)) return currentPosition;
+
             char currentChar = input.charAt(currentPosition);
 
             // Match specific token types
@@ -43,6 +73,7 @@ public class Lexer {
             // If no match, add as error
             addErrorToken(currentChar);
         }
+        return currentPosition;
     }
 
     private boolean skipWhitespaceAndComments() {
@@ -74,6 +105,8 @@ public class Lexer {
         if (currentPosition < input.length() - 1 &&
                 input.charAt(currentPosition) == '/' &&
                 input.charAt(currentPosition + 1) == '*') {
+            int commentStart = currentPosition;
+            int commentLine = line;
             currentPosition += 2;
             column += 2;
             while (currentPosition < input.length() - 1 &&
@@ -90,6 +123,9 @@ public class Lexer {
             if (currentPosition < input.length() - 1) {
                 currentPosition += 2;  // Skip closing */
                 column += 2;
+            } else {
+                openCommentStart = commentStart;
+                openCommentLine = commentLine;
             }
             return true;
         }
@@ -113,17 +149,16 @@ public class Lexer {
         };
 
         if (structuralToken != null) {
-            addToken(structuralToken, String.valueOf(currentChar));
+            addToken(structuralToken, currentPosition, currentPosition + 1, structuralToken.getDescription());
             currentPosition++;
             column++;
             return true;
         }
 
         // Check for multi-character tokens like ->
-        if (currentPosition < input.length() - 1) {
-            String twoCharToken = input.substring(currentPosition, currentPosition + 2);
-            if (twoCharToken.equals("->")) {
-                addToken(TokenType.ARROW, twoCharToken);
+        if (currentChar == '-' && currentPosition < input.length() - 1) {
+            if (input.charAt(currentPosition + 1) == '>') {
+                addToken(TokenType.ARROW, currentPosition, currentPosition + 2, TokenType.ARROW.getDescription());
                 currentPosition += 2;
                 column += 2;
                 return true;
@@ -134,65 +169,65 @@ public class Lexer {
     }
 
     private boolean matchKeywords(char currentChar) {
-        // Predefined keywords with their exact token types
-        String[][] keywordMappings = {
-                {"descripcion", TokenType.DESCRIPTION_KEYWORD.name()},
-                {"estados", TokenType.STATES_KEYWORD.name()},
-                {"alfabeto", TokenType.ALPHABET_KEYWORD.name()},
-                {"inicial", TokenType.INITIAL_STATE_KEYWORD.name()},
-                {"finales", TokenType.FINAL_STATES_KEYWORD.name()},
-                {"transiciones", TokenType.TRANSITIONS_KEYWORD.name()}
-        };
+        String keyword = Keywords.candidate(currentChar);
+        if (keyword == null || !startsWith(keyword, currentPosition)) {
+            return false;
+        }
 
-        // Check for keyword match
-        for (String[] keywordMapping : keywordMappings) {
-            String keyword = keywordMapping[0];
-            if (input.startsWith(keyword, currentPosition)) {
-                // Ensure it's a complete word (not part of an identifier)
-                int nextPos = currentPosition + keyword.length();
-                if (nextPos >= input.length() ||
-                        !Character.isLetterOrDigit(input.charAt(nextPos))) {
-                    // Use valueOf to convert string to TokenType
-                    TokenType keywordType = TokenType.valueOf(keywordMapping[1]);
-                    addToken(keywordType, keyword);
-                    currentPosition += keyword.length();
-                    column += keyword.length();
-                    return true;
-                }
-            }
+        // Ensure it's a complete word (not part of an identifier)
+        int nextPos = currentPosition + keyword.length();
+        if (nextPos < input.length() && Character.isLetterOrDigit(input.charAt(nextPos))) {
+            return false;
         }
 
-        return false;
+        addToken(Keywords.type(currentChar), currentPosition, currentPosition + keyword.length(), keyword);
+        currentPosition += keyword.length();
+        column += keyword.length();
+        return true;
+    }
+
+    private boolean startsWith(String text, int position) {
+        if (position + text.length() > input.length()) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (input.charAt(position + i) != text.charAt(i)) return false;
+        }
+        return true;
     }
 
     private boolean matchIdentifiers(char currentChar) {
         if (Character.isLetter(currentChar) || currentChar == '_') {
             int start = currentPosition;
-            int length = 0;
             int startLine = line;
             int startColumn = column;
 
-            while (currentPosition < input.length() &&
-                    (Character.isLetterOrDigit(input.charAt(currentPosition)) ||
-                            input.charAt(currentPosition) == '_' ||
-                            !Character.isWhitespace(input.charAt(currentPosition)) &&
-                                    !isStructuralSymbol(input.charAt(currentPosition)))) {
+            // One pass: find the end, note invalid chars and track the S\d+ shape of the cleaned text
+            boolean clean = true;
+            int stateShape = 0;
+            while (currentPosition < input.length()) {
+                char c = input.charAt(currentPosition);
+                if (Identifiers.isCleanChar(c)) {
+                    stateShape = Identifiers.nextStateShape(stateShape, c);
+                } else if (Identifiers.isIdentifierPart(c)) {
+                    clean = false;
+                } else {
+                    break;
+                }
                 currentPosition++;
-                length++;
                 column++;
             }
 
-            String raw = input.substring(start, start + length);
-            String cleaned = raw.replaceAll("[^a-zA-Z0-9_]", "");
+            // Clean identifiers are read from the input as-is, only rewritten ones are copied here
+            String lexeme = clean ? null : Identifiers.clean(input, start, currentPosition);
 
-            if (cleaned.matches("S\\d+")) {
-                addToken(TokenType.STATE_IDENTIFIER, cleaned);
+            if (Identifiers.isStateShape(stateShape)) {
+                addToken(TokenType.STATE_IDENTIFIER, start, currentPosition, lexeme);
             } else {
-                addToken(TokenType.IDENTIFIER, cleaned);
+                addToken(TokenType.IDENTIFIER, start, currentPosition, lexeme);
             }
 
-            if (!raw.equals(cleaned)) {
-                addErrorToken("Invalid characters removed from identifier: " + raw, startLine, startColumn);
+            if (!clean) {
+                addErrorToken("Invalid characters removed from identifier: " +
+                        input.subSequence(start, currentPosition), startLine, startColumn);
             }
 
             return true;
@@ -200,10 +235,6 @@ public class Lexer {
         return false;
     }
 
-    private boolean isStructuralSymbol(char c) {
-        return "(){}[],:=->".contains(String.valueOf(c));
-    }
-
     private boolean matchStringLiterals(char currentChar) {
         if (currentChar == '"') {
             int startLine = line;
@@ -230,8 +261,7 @@ public class Lexer {
             currentPosition++;
             column++;
 
-            String stringLiteral = input.substring(start, currentPosition);
-            addToken(TokenType.STRING_LITERAL, stringLiteral);
+            addToken(TokenType.STRING_LITERAL, start, currentPosition, null);
             return true;
         }
         return false;
@@ -262,15 +292,22 @@ public class Lexer {
                 column++;
             }
 
-            String numberLiteral = input.substring(start, currentPosition);
-            addToken(TokenType.NUMBER_LITERAL, numberLiteral);
+            addToken(TokenType.NUMBER_LITERAL, start, currentPosition, null);
             return true;
         }
         return false;
     }
 
-    private void addToken(TokenType type, String lexeme) {
-        tokens.add(new Token(type, lexeme, line, column - lexeme.length()));
+    // A null lexeme means the token text is exactly input[start, end)
+    private void addToken(TokenType type, int start, int end, String lexeme) {
+        int length = lexeme != null ? lexeme.length() : end - start;
+        int tokenColumn = column - length;
+        if (stream != null) {
+            // Only lexemes that differ from the input need their own string
+            stream.add(type, start, end - start, line, tokenColumn, length == end - start ? null : lexeme);
+        } else {
+            tokens.add(new Token(type, lexeme != null ? lexeme : input.subSequence(start, end).toString(), line, tokenColumn));
+        }
     }
 
     private void addErrorToken(char invalidChar) {
@@ -286,17 +323,29 @@ public class Lexer {
 
     // Getters
     public List<Token> getTokens() {
-        return tokens;
+        return stream != null ? stream.asTokenList() : tokens;
+    }
+
+    public TokenStream getTokenStream() {
+        return stream != null ? stream : TokenStream.of(tokens);
     }
 
     public List<LexicalException> getErrors() {
         return errors;
     }
 
+    int getOpenCommentStart() {
+        return openCommentStart;
+    }
+
+    int getOpenCommentLine() {
+        return openCommentLine;
+    }
+
     // Utility method to print tokens (for debugging)
     public void printTokens() {
         System.out.println("Tokens:");
-        for (Token token : tokens) {
+        for (Token token : getTokens()) {
             System.out.println(token);
         }
 
@@ -0,0 +1,389 @@
+package com.afdgraph.lexer;
+
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.Token;
+import com.afdgraph.models.TokenType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+// Same token rules as Lexer, but reads through a bounded ring buffer and emits tokens as it goes
+public class StreamingLexer implements Iterable<Token>, Closeable {
+    private static final int DEFAULT_CAPACITY = 8192;
+    // Longest lookahead is a keyword plus the char after it
+    private static final int MIN_CAPACITY = 16;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final int mask;
+    private int head;
+    private int count;
+    private boolean eof;
+
+    private int line;
+    private int column;
+    private final StringBuilder lexeme;
+    private Token pending;
+    private Consumer<LexicalException> errorSink;
+    private final List<LexicalException> errors;
+
+    public StreamingLexer(Reader reader) {
+        this(reader, DEFAULT_CAPACITY);
+    }
+
+    public StreamingLexer(Reader reader, int capacity) {
+        this.reader = reader;
+        int size = Integer.highestOneBit(Math.max(capacity, MIN_CAPACITY) - 1) << 1;
+        this.buffer = new char[size];
+        this.mask = size - 1;
+        this.line = 1;
+        this.column = 1;
+        this.lexeme = new StringBuilder();
+        this.errors = new ArrayList<>();
+        this.errorSink = errors::add;
+    }
+
+    public StreamingLexer(ReadableByteChannel channel, Charset charset) {
+        this(Channels.newReader(channel, charset));
+    }
+
+    // Pushes every token to the sink; errors are collected and available through getErrors()
+    public void analyze(Consumer<Token> tokenSink) throws IOException {
+        Token token;
+        while ((token = nextToken()) != null) {
+            tokenSink.accept(token);
+        }
+    }
+
+    public void analyze(Consumer<Token> tokenSink, Consumer<LexicalException> errorSink) throws IOException {
+        this.errorSink = errorSink;
+        analyze(tokenSink);
+    }
+
+    // Returns the next token, or null once the input is exhausted
+    public Token nextToken() throws IOException {
+        pending = null;
+        while (pending == null) {
+            // Skip whitespaces and comments
+            if (skipWhitespaceAndComments()) continue;
+
+            int current = peek(0);
+            if (current < 0) return null;
+            char currentChar = (char) current;
+
+            // Match specific token types
+            if (matchStructuralTokens(currentChar)) continue;
+            if (matchKeywords(currentChar)) continue;
+            if (matchStringLiterals(currentChar)) continue;
+            if (matchIdentifiers(currentChar)) continue;
+            if (matchNumberLiterals(currentChar)) continue;
+
+            // If no match, add as error
+            addErrorToken(currentChar);
+        }
+        return pending;
+    }
+
+    // Single pass: the iterator consumes the underlying reader
+    @Override
+    public Iterator<Token> iterator() {
+        return new Iterator<>() {
+            private Token next;
+            private boolean fetched;
+
+            @Override
+            public boolean hasNext() {
+                if (!fetched) {
+                    try {
+                        next = nextToken();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    fetched = true;
+                }
+                return next != null;
+            }
+
+            @Override
+            public Token next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                fetched = false;
+                return next;
+            }
+        };
+    }
+
+    private boolean skipWhitespaceAndComments() throws IOException {
+        // Skip whitespaces
+        int c;
+        while ((c = peek(0)) >= 0 && Character.isWhitespace(c)) {
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+            consume();
+        }
+
+        // Skip single-line comments
+        if (c == '/' && peek(1) == '/') {
+            while ((c = peek(0)) >= 0 && c != '\n') {
+                consume();
+                column++;
+            }
+            return true;
+        }
+
+        // Skip multi-line comments
+        if (c == '/' && peek(1) == '*') {
+            consume();
+            consume();
+            column += 2;
+            while (peek(1) >= 0 && !(peek(0) == '*' && peek(1) == '/')) {
+                if (consume() == '\n') {
+                    line++;
+                    column = 1;
+                } else {
+                    column++;
+                }
+            }
+            if (peek(1) >= 0) {
+                consume();  // Skip closing */
+                consume();
+                column += 2;
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean matchStructuralTokens(char currentChar) throws IOException {
+        // Check for single-character structural tokens
+        TokenType structuralToken = switch (currentChar) {
+            case '(' -> TokenType.LEFT_PARENTHESIS;
+            case ')' -> TokenType.RIGHT_PARENTHESIS;
+            case '{' -> TokenType.LEFT_BRACE;
+            case '}' -> TokenType.RIGHT_BRACE;
+            case '[' -> TokenType.LEFT_BRACKET;
+            case ']' -> TokenType.RIGHT_BRACKET;
+            case ',' -> TokenType.COMMA;
+            case ':' -> TokenType.COLON;
+            case '=' -> TokenType.EQUALS;
+            default -> null;
+        };
+
+        if (structuralToken != null) {
+            addToken(structuralToken, String.valueOf(currentChar));
+            consume();
+            column++;
+            return true;
+        }
+
+        // Check for multi-character tokens like ->
+        if (currentChar == '-' && peek(1) == '>') {
+            addToken(TokenType.ARROW, "->");
+            consume();
+            consume();
+            column += 2;
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean matchKeywords(char currentChar) throws IOException {
+        String keyword = Keywords.candidate(currentChar);
+        if (keyword == null || !lookingAt(keyword)) {
+            return false;
+        }
+
+        // Ensure it's a complete word (not part of an identifier)
+        int next = peek(keyword.length());
+        if (next >= 0 && Character.isLetterOrDigit(next)) {
+            return false;
+        }
+
+        addToken(Keywords.type(currentChar), keyword);
+        for (int i = 0; i < keyword.length(); i++) {
+            consume();
+        }
+        column += keyword.length();
+        return true;
+    }
+
+    private boolean lookingAt(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            if (peek(i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean matchIdentifiers(char currentChar) throws IOException {
+        if (Character.isLetter(currentChar) || currentChar == '_') {
+            int startLine = line;
+            int startColumn = column;
+            lexeme.setLength(0);
+
+            // The raw text is only kept once an invalid char shows up; until then it equals the cleaned one
+            StringBuilder raw = null;
+            int stateShape = 0;
+            int c;
+            while ((c = peek(0)) >= 0 && Identifiers.isIdentifierPart((char) c)) {
+                char next = consume();
+                column++;
+                if (Identifiers.isCleanChar(next)) {
+                    stateShape = Identifiers.nextStateShape(stateShape, next);
+                    lexeme.append(next);
+                    if (raw != null) raw.append(next);
+                } else {
+                    if (raw == null) raw = new StringBuilder(lexeme);
+                    raw.append(next);
+                }
+            }
+
+            if (Identifiers.isStateShape(stateShape)) {
+                addToken(TokenType.STATE_IDENTIFIER, lexeme.toString());
+            } else {
+                addToken(TokenType.IDENTIFIER, lexeme.toString());
+            }
+
+            if (raw != null) {
+                addErrorToken("Invalid characters removed from identifier: " + raw, startLine, startColumn);
+            }
+
+            return true;
+        }
+        return false;
+    }
+
+    private boolean matchStringLiterals(char currentChar) throws IOException {
+        if (currentChar == '"') {
+            int startLine = line;
+            int startColumn = column;
+            lexeme.setLength(0);
+
+            lexeme.append(consume());
+            column++;
+
+            int c;
+            while ((c = peek(0)) >= 0 && c != '"') {
+                if (c == '\n') {
+                    addErrorToken("Unterminated string literal", startLine, startColumn);
+                    return true;
+                }
+                lexeme.append(consume());
+                column++;
+            }
+
+            if (c < 0) {
+                addErrorToken("Unterminated string literal", startLine, startColumn);
+                return true;
+            }
+
+            lexeme.append(consume());
+            column++;
+
+            addToken(TokenType.STRING_LITERAL, lexeme.toString());
+            return true;
+        }
+        return false;
+    }
+
+    private boolean matchNumberLiterals(char currentChar) throws IOException {
+        // Match numeric literals (integers and decimals)
+        if (Character.isDigit(currentChar)) {
+            boolean hasDecimal = false;
+            lexeme.setLength(0);
+
+            // Continue while digits or decimal point
+            int c;
+            while ((c = peek(0)) >= 0 && (Character.isDigit(c) || c == '.')) {
+                if (c == '.') {
+                    if (hasDecimal) {
+                        // Multiple decimal points not allowed
+                        break;
+                    }
+                    hasDecimal = true;
+                }
+                lexeme.append(consume());
+                column++;
+            }
+
+            addToken(TokenType.NUMBER_LITERAL, lexeme.toString());
+            return true;
+        }
+        return false;
+    }
+
+    private void addToken(TokenType type, String text) {
+        pending = new Token(type, text, line, column - text.length());
+    }
+
+    private void addErrorToken(char invalidChar) throws IOException {
+        errorSink.accept(new LexicalException("Unexpected character: " + invalidChar, line, column));
+        consume();
+        column++;
+    }
+
+    private void addErrorToken(String errorMessage, int line, int column) {
+        errorSink.accept(new LexicalException(errorMessage, line, column));
+    }
+
+    // Returns the char at the given lookahead offset, or -1 past the end of input
+    private int peek(int offset) throws IOException {
+        if (offset >= count && !fill(offset + 1)) return -1;
+        return buffer[(head + offset) & mask];
+    }
+
+    private char consume() {
+        char c = buffer[head];
+        head = (head + 1) & mask;
+        count--;
+        return c;
+    }
+
+    private boolean fill(int needed) throws IOException {
+        while (count < needed) {
+            if (eof) return false;
+            int tail = (head + count) & mask;
+            int contiguous = Math.min(buffer.length - count, buffer.length - tail);
+            int read = reader.read(buffer, tail, contiguous);
+            if (read < 0) {
+                eof = true;
+                return false;
+            }
+            count += read;
+        }
+        return true;
+    }
+
+    // Getters
+    public List<LexicalException> getErrors() {
+        return errors;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -6,24 +6,38 @@ public class Automaton {
     private String name;
     private String description;
     private Set<State> states;
+    private Set<State> statesView;
     private Set<String> alphabet;
+    private Set<String> alphabetView;
     private State initialState;
     private Set<State> finalStates;
     private final Map<State, Map<String, State>> transitions;
+    // Same keys as transitions, each row wrapped read-only once when it is created
+    private final Map<State, Map<String, State>> readOnlyRows;
+    private final Map<State, Map<String, State>> transitionsView;
+    private volatile TransitionIndex transitionIndex;
 
     public Automaton() {
         this.states = new HashSet<>();
+        this.statesView = Collections.unmodifiableSet(states);
         this.alphabet = new HashSet<>();
+        this.alphabetView = Collections.unmodifiableSet(alphabet);
         this.finalStates = new HashSet<>();
         this.transitions = new HashMap<>();
+        this.readOnlyRows = new HashMap<>();
+        this.transitionsView = Collections.unmodifiableMap(readOnlyRows);
     }
 
     public Automaton(String name) {
         this.name = name;
         this.states = new LinkedHashSet<>();
+        this.statesView = Collections.unmodifiableSet(states);
         this.alphabet = new LinkedHashSet<>();
+        this.alphabetView = Collections.unmodifiableSet(alphabet);
         this.finalStates = new LinkedHashSet<>();
         this.transitions = new HashMap<>();
+        this.readOnlyRows = new HashMap<>();
+        this.transitionsView = Collections.unmodifiableMap(readOnlyRows);
     }
 
     // Getters and Setters
@@ -43,28 +57,34 @@ public class Automaton {
         this.description = description;
     }
 
+    // Read-only views, like getTransitions: the transition index is only dropped by the mutators
     public Set<State> getStates() {
-        return states;
+        return statesView;
     }
 
+    // Copied, so later changes to the given set can't leave the index stale
     public void setStates(Set<State> states) {
-        this.states = states;
+        this.states = new LinkedHashSet<>(states);
+        this.statesView = Collections.unmodifiableSet(this.states);
+        transitionIndex = null;
     }
 
     public void addState(State state) {
-        states.add(state);
+        if (states.add(state)) transitionIndex = null;
     }
 
     public Set<String> getAlphabet() {
-        return alphabet;
+        return alphabetView;
     }
 
     public void setAlphabet(Set<String> alphabet) {
-        this.alphabet = alphabet;
+        this.alphabet = new LinkedHashSet<>(alphabet);
+        this.alphabetView = Collections.unmodifiableSet(this.alphabet);
+        transitionIndex = null;
     }
 
     public void addAlphabetSymbol(String symbol) {
-        alphabet.add(symbol);
+        if (alphabet.add(symbol)) transitionIndex = null;
     }
 
     public State getInitialState() {
@@ -73,6 +93,7 @@ public class Automaton {
 
     public void setInitialState(State initialState) {
         this.initialState = initialState;
+        transitionIndex = null;
     }
 
     public Set<State> getFinalStates() {
@@ -88,8 +109,14 @@ public class Automaton {
     }
 
     public void addTransition(State fromState, String symbol, State toState) {
-        transitions.computeIfAbsent(fromState, k -> new HashMap<>())
-                .put(symbol, toState);
+        Map<String, State> row = transitions.get(fromState);
+        if (row == null) {
+            row = new HashMap<>();
+            transitions.put(fromState, row);
+            readOnlyRows.put(fromState, Collections.unmodifiableMap(row));
+        }
+        row.put(symbol, toState);
+        transitionIndex = null;
     }
 
     public void setTransitions(List<Transition> transitionsList) {
@@ -99,11 +126,24 @@ public class Automaton {
     }
 
     public State getTransition(State fromState, String symbol) {
-        return transitions.getOrDefault(fromState, new HashMap<>()).get(symbol);
+        TransitionIndex index = getTransitionIndex();
+        int to = index.next(index.getStateId(fromState), index.getSymbolId(symbol));
+        return to == TransitionIndex.DEAD ? null : index.getState(to);
     }
 
+    // Read-only down to the rows; all changes go through addTransition/setTransitions
     public Map<State, Map<String, State>> getTransitions() {
-        return transitions;
+        return transitionsView;
+    }
+
+    // Built lazily and dropped on any structural change
+    public TransitionIndex getTransitionIndex() {
+        TransitionIndex index = transitionIndex;
+        if (index == null) {
+            index = new TransitionIndex(this, transitions);
+            transitionIndex = index;
+        }
+        return index;
     }
 
     @Override
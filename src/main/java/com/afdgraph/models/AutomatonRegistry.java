@@ -0,0 +1,53 @@
+package com.afdgraph.models;
+
+import java.util.*;
+
+// Automata by name in definition order; registering a name again replaces the earlier automaton
+// and moves it to the end, the same "later definition wins" rule the parser applies to a file
+public class AutomatonRegistry {
+    private final Map<String, Automaton> automata = new LinkedHashMap<>();
+
+    public void register(Automaton automaton) {
+        automata.remove(automaton.getName());
+        automata.put(automaton.getName(), automaton);
+    }
+
+    public void registerAll(Collection<Automaton> added) {
+        for (Automaton automaton : added) {
+            register(automaton);
+        }
+    }
+
+    public Automaton get(String name) {
+        return automata.get(name);
+    }
+
+    public boolean contains(String name) {
+        return automata.containsKey(name);
+    }
+
+    public Automaton remove(String name) {
+        return automata.remove(name);
+    }
+
+    public void clear() {
+        automata.clear();
+    }
+
+    public int size() {
+        return automata.size();
+    }
+
+    public boolean isEmpty() {
+        return automata.isEmpty();
+    }
+
+    // Getters
+    public List<Automaton> getAutomata() {
+        return new ArrayList<>(automata.values());
+    }
+
+    public List<String> getNames() {
+        return new ArrayList<>(automata.keySet());
+    }
+}
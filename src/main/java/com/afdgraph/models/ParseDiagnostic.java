@@ -0,0 +1,50 @@
+package com.afdgraph.models;
+
+public class ParseDiagnostic {
+    private final String message;
+    private final TokenType expected;
+    private final TokenType found;
+    private final int line;
+    private final int column;
+
+    // expected and found are null when they do not apply (found is null at end of input)
+    public ParseDiagnostic(String message, TokenType expected, TokenType found, int line, int column) {
+        this.message = message;
+        this.expected = expected;
+        this.found = found;
+        this.line = line;
+        this.column = column;
+    }
+
+    // Getters
+    public String getMessage() {
+        return message;
+    }
+
+    public TokenType getExpected() {
+        return expected;
+    }
+
+    public TokenType getFound() {
+        return found;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public String toString() {
+        return "ParseDiagnostic{" +
+                "message='" + message + '\'' +
+                ", expected=" + expected +
+                ", found=" + found +
+                ", line=" + line +
+                ", column=" + column +
+                '}';
+    }
+}
@@ -0,0 +1,214 @@
+package com.afdgraph.models;
+
+import java.nio.CharBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// Columnar token storage: one primitive array per field, lexemes read straight from the source text
+public final class TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final CharSequence source;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] columns;
+    // Only allocated once a lexeme differs from its source text (e.g. cleaned identifiers)
+    private String[] lexemes;
+    private int size;
+
+    public TokenStream(CharSequence source) {
+        this(source, DEFAULT_CAPACITY);
+    }
+
+    public TokenStream(CharSequence source, int capacity) {
+        this.source = source;
+        int initial = Math.max(capacity, 16);
+        this.types = new byte[initial];
+        this.starts = new int[initial];
+        this.lengths = new int[initial];
+        this.lines = new int[initial];
+        this.columns = new int[initial];
+    }
+
+    // Wraps already materialized tokens; every lexeme is kept as-is since there is no source text
+    public static TokenStream of(List<Token> tokens) {
+        TokenStream stream = new TokenStream(null, tokens.size());
+        for (Token token : tokens) {
+            stream.add(token.getType(), -1, token.getLexeme().length(),
+                    token.getLine(), token.getColumn(), token.getLexeme());
+        }
+        return stream;
+    }
+
+    public void add(TokenType type, int start, int length, int line, int column) {
+        add(type, start, length, line, column, null);
+    }
+
+    public void add(TokenType type, int start, int length, int line, int column, String lexeme) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        lines[size] = line;
+        columns[size] = column;
+        if (lexeme != null) {
+            if (lexemes == null) {
+                lexemes = new String[types.length];
+            }
+            lexemes[size] = lexeme;
+        }
+        size++;
+    }
+
+    private void grow() {
+        int capacity = types.length + (types.length >> 1);
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        if (lexemes != null) {
+            lexemes = Arrays.copyOf(lexemes, capacity);
+        }
+    }
+
+    // Replaces tokens [from, to) with all of replacement's, then moves every later token
+    // by startDelta chars and lineDelta lines. Both streams must read from the same source.
+    public void splice(int from, int to, TokenStream replacement, int startDelta, int lineDelta) {
+        int added = replacement.size;
+        int tail = size - to;
+        int newSize = from + added + tail;
+        while (newSize > types.length) {
+            grow();
+        }
+        if (replacement.lexemes != null && lexemes == null) {
+            lexemes = new String[types.length];
+        }
+
+        int target = from + added;
+        System.arraycopy(types, to, types, target, tail);
+        System.arraycopy(starts, to, starts, target, tail);
+        System.arraycopy(lengths, to, lengths, target, tail);
+        System.arraycopy(lines, to, lines, target, tail);
+        System.arraycopy(columns, to, columns, target, tail);
+        if (lexemes != null) {
+            System.arraycopy(lexemes, to, lexemes, target, tail);
+        }
+
+        System.arraycopy(replacement.types, 0, types, from, added);
+        System.arraycopy(replacement.starts, 0, starts, from, added);
+        System.arraycopy(replacement.lengths, 0, lengths, from, added);
+        System.arraycopy(replacement.lines, 0, lines, from, added);
+        System.arraycopy(replacement.columns, 0, columns, from, added);
+        if (lexemes != null) {
+            if (replacement.lexemes != null) {
+                System.arraycopy(replacement.lexemes, 0, lexemes, from, added);
+            } else {
+                Arrays.fill(lexemes, from, target, null);
+            }
+        }
+
+        for (int i = target; i < newSize; i++) {
+            starts[i] += startDelta;
+            lines[i] += lineDelta;
+        }
+        if (lexemes != null && newSize < size) {
+            Arrays.fill(lexemes, newSize, size, null);
+        }
+        size = newSize;
+    }
+
+    // Index of the first token starting at or after the given source offset
+    public int indexAt(int offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < offset) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    public int getLine(int index) {
+        return lines[index];
+    }
+
+    public int getColumn(int index) {
+        return columns[index];
+    }
+
+    // View over the source text; no copy unless the lexeme was stored explicitly
+    public CharSequence getLexemeView(int index) {
+        String lexeme = lexemes == null ? null : lexemes[index];
+        if (lexeme != null) return lexeme;
+        return CharBuffer.wrap(source, starts[index], starts[index] + lengths[index]);
+    }
+
+    public String getLexeme(int index) {
+        String lexeme = lexemes == null ? null : lexemes[index];
+        if (lexeme != null) return lexeme;
+        return source.subSequence(starts[index], starts[index] + lengths[index]).toString();
+    }
+
+    public boolean lexemeEquals(int index, String text) {
+        String lexeme = lexemes == null ? null : lexemes[index];
+        if (lexeme != null) return lexeme.equals(text);
+        if (lengths[index] != text.length()) return false;
+        int start = starts[index];
+        for (int i = 0; i < text.length(); i++) {
+            if (source.charAt(start + i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    public Token getToken(int index) {
+        return new Token(getType(index), getLexeme(index), lines[index], columns[index]);
+    }
+
+    // Materializes Token objects lazily on access
+    public List<Token> asTokenList() {
+        return new AbstractList<>() {
+            @Override
+            public Token get(int index) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+                return getToken(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package com.afdgraph.models;
+
+import java.util.*;
+
+public final class TransitionIndex {
+    public static final int DEAD = -1;
+
+    // Shared sink row for every state without outgoing edges
+    private static final int[] DEAD_ROW = new int[0];
+
+    private final State[] states;
+    private final String[] symbols;
+    private final Map<State, Integer> stateIds;
+    private final Map<String, Integer> symbolIds;
+    private final int[][] edges;
+
+    TransitionIndex(Automaton automaton, Map<State, Map<String, State>> transitions) {
+        // States in declaration order, then any state only reachable through transitions
+        stateIds = new HashMap<>();
+        List<State> stateList = new ArrayList<>();
+        for (State state : automaton.getStates()) {
+            intern(state, stateList);
+        }
+        if (automaton.getInitialState() != null) {
+            intern(automaton.getInitialState(), stateList);
+        }
+
+        // Symbols in alphabet order, then any symbol only used in transitions
+        symbolIds = new HashMap<>();
+        List<String> symbolList = new ArrayList<>();
+        for (String symbol : automaton.getAlphabet()) {
+            if (!symbolIds.containsKey(symbol)) {
+                symbolIds.put(symbol, symbolList.size());
+                symbolList.add(symbol);
+            }
+        }
+        for (Map.Entry<State, Map<String, State>> from : transitions.entrySet()) {
+            intern(from.getKey(), stateList);
+            for (Map.Entry<String, State> edge : from.getValue().entrySet()) {
+                if (!symbolIds.containsKey(edge.getKey())) {
+                    symbolIds.put(edge.getKey(), symbolList.size());
+                    symbolList.add(edge.getKey());
+                }
+                intern(edge.getValue(), stateList);
+            }
+        }
+
+        states = stateList.toArray(new State[0]);
+        symbols = symbolList.toArray(new String[0]);
+
+        edges = new int[states.length][];
+        Arrays.fill(edges, DEAD_ROW);
+        for (Map.Entry<State, Map<String, State>> from : transitions.entrySet()) {
+            if (from.getValue().isEmpty()) continue;
+
+            // Rows only extend up to the highest symbol the state actually uses
+            int width = 0;
+            for (String symbol : from.getValue().keySet()) {
+                width = Math.max(width, symbolIds.get(symbol) + 1);
+            }
+            int[] row = new int[width];
+            Arrays.fill(row, DEAD);
+            for (Map.Entry<String, State> edge : from.getValue().entrySet()) {
+                row[symbolIds.get(edge.getKey())] = stateIds.get(edge.getValue());
+            }
+            edges[stateIds.get(from.getKey())] = row;
+        }
+    }
+
+    private void intern(State state, List<State> stateList) {
+        if (!stateIds.containsKey(state)) {
+            stateIds.put(state, stateList.size());
+            stateList.add(state);
+        }
+    }
+
+    public int getStateCount() {
+        return states.length;
+    }
+
+    public int getSymbolCount() {
+        return symbols.length;
+    }
+
+    public State getState(int id) {
+        return states[id];
+    }
+
+    public String getSymbol(int id) {
+        return symbols[id];
+    }
+
+    public int getStateId(State state) {
+        Integer id = state == null ? null : stateIds.get(state);
+        return id == null ? DEAD : id;
+    }
+
+    public int getSymbolId(String symbol) {
+        Integer id = symbol == null ? null : symbolIds.get(symbol);
+        return id == null ? DEAD : id;
+    }
+
+    public int next(int stateId, int symbolId) {
+        if (stateId == DEAD || symbolId == DEAD) return DEAD;
+        int[] row = edges[stateId];
+        return symbolId < row.length ? row[symbolId] : DEAD;
+    }
+
+    // Returns the state's edge row indexed by symbol id; must not be modified
+    public int[] getEdges(int stateId) {
+        return stateId == DEAD ? DEAD_ROW : edges[stateId];
+    }
+}
@@ -0,0 +1,339 @@
+package com.afdgraph.report;
+
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.Token;
+import com.afdgraph.models.TokenStream;
+import com.afdgraph.models.TokenType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Streams the lexical report as UTF-8: rows are encoded straight into the writer's own fixed
+// buffer as tokens arrive, which goes to the stream in full blocks, so memory stays constant no
+// matter how many tokens are written and no per-byte call reaches the stream's synchronized writes
+public class HtmlReportWriter implements Consumer<Token>, Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] HEAD = bytes("""
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                    <meta charset="UTF-8">
+                    <title>Lexical Analysis Report</title>
+                    <style>
+                        body { 
+                            font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif;
+                            background: linear-gradient(120deg, #0f2027, #203a43, #2c5364);
+                            color: #f0f0f0; 
+                            padding: 20px;
+                            min-height: 100vh;
+                            margin: 0;
+                        }
+                        .container {
+                            max-width: 1200px;
+                            margin: 0 auto;
+                            padding: 20px;
+                        }
+                        h1 { 
+                            color: #dff9fb; 
+                            text-align: center;
+                            font-size: 2.5rem;
+                            margin-bottom: 1.5rem;
+                            text-shadow: 0 0 15px rgba(223, 249, 251, 0.4);
+                        }
+                        .table-container {
+                            position: relative;
+                            transition: transform 0.3s ease;
+                            margin-bottom: 30px;
+                            backdrop-filter: blur(8px);
+                            background: rgba(255, 255, 255, 0.1);
+                            border-radius: 15px;
+                            padding: 20px;
+                            box-shadow: 0 10px 30px rgba(0, 0, 0, 0.3);
+                        }
+                        .table-container:hover {
+                            transform: translateY(-5px);
+                        }
+                        table { 
+                            width: 100%; 
+                            border-collapse: collapse; 
+                            background: rgba(20, 20, 20, 0.4);
+                            border-radius: 8px;
+                            overflow: hidden;
+                        }
+                        th, td { 
+                            border: 1px solid rgba(255, 255, 255, 0.1); 
+                            padding: 12px; 
+                            text-align: left; 
+                        }
+                        th { 
+                            background: linear-gradient(90deg, #3498db, #2980b9); 
+                            color: #fff;
+                            font-weight: 600;
+                        }
+                        tr:nth-child(even) { 
+                            background-color: rgba(44, 44, 44, 0.4); 
+                        }
+                        tr:hover { 
+                            background-color: rgba(80, 80, 80, 0.3); 
+                        }
+                        h2 {
+                            color: #dff9fb;
+                            margin-top: 30px;
+                            text-align: center;
+                            font-size: 1.8rem;
+                        }
+                        .no-errors {
+                            text-align: center;
+                            padding: 20px;
+                            background: rgba(46, 204, 113, 0.2);
+                            border-radius: 8px;
+                            color: #2ecc71;
+                            font-weight: 500;
+                        }
+                    </style>
+                    <script>
+                        document.addEventListener('DOMContentLoaded', function() {
+                            const tableContainers = document.querySelectorAll('.table-container');
+                            
+                            document.addEventListener('mousemove', function(e) {
+                                const mouseX = e.clientX / window.innerWidth;
+                                const mouseY = e.clientY / window.innerHeight;
+                                
+                                tableContainers.forEach(container => {
+                                    const offsetX = (mouseX - 0.5) * 10;
+                                    const offsetY = (mouseY - 0.5) * 10;
+                                    container.style.transform = `translateX(${offsetX}px) translateY(${offsetY}px)`;
+                                });
+                            });
+                        });
+                    </script>
+                </head>
+                <body>
+                    <div class="container">
+                        <h1>Lexical Analysis Report</h1>
+                        
+                        <h2>Tokens Recognized</h2>
+                        <div class="table-container">
+                            <table>
+                                <tr><th>Type</th><th>Lexeme</th><th>Line</th><th>Column</th></tr>
+            """);
+
+    private static final byte[] TOKENS_END = bytes("</table></div>");
+    private static final byte[] ERRORS_TITLE = bytes("<h2>Lexical Errors</h2>");
+    private static final byte[] NO_ERRORS = bytes("<div class=\"no-errors\">No lexical errors found! 👍</div>");
+    private static final byte[] ERRORS_HEAD = bytes("""
+                <div class="table-container">
+                    <table>
+                        <tr><th>Error</th><th>Line</th><th>Column</th></tr>
+            """);
+    private static final byte[] ERRORS_END = bytes("</table></div>");
+    private static final byte[] FOOT = bytes("""
+                    </div>
+                </body>
+                </html>
+            """);
+
+    private static final byte[] ROW_START = bytes("<tr><td>");
+    private static final byte[] CELL = bytes("</td><td>");
+    private static final byte[] ROW_END = bytes("</td></tr>");
+    private static final byte[][] TYPE_NAMES = new byte[TokenType.values().length][];
+
+    static {
+        for (TokenType type : TokenType.values()) {
+            TYPE_NAMES[type.ordinal()] = bytes(type.name());
+        }
+    }
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+    private boolean tokensClosed;
+    private boolean errorsWritten;
+    private boolean closed;
+
+    public HtmlReportWriter(OutputStream out) throws IOException {
+        this.out = out;
+        write(HEAD);
+    }
+
+    public static HtmlReportWriter open(Path path) throws IOException {
+        return new HtmlReportWriter(Files.newOutputStream(path));
+    }
+
+    public void writeToken(Token token) throws IOException {
+        writeToken(token.getType(), token.getLexeme(), token.getLine(), token.getColumn());
+    }
+
+    public void writeToken(TokenType type, CharSequence lexeme, int line, int column) throws IOException {
+        if (tokensClosed) {
+            throw new IllegalStateException("Tokens can't be written after the errors section");
+        }
+        write(ROW_START);
+        write(TYPE_NAMES[type.ordinal()]);
+        write(CELL);
+        writeEscaped(lexeme);
+        write(CELL);
+        writeInt(line);
+        write(CELL);
+        writeInt(column);
+        write(ROW_END);
+    }
+
+    public void writeTokens(TokenStream tokens) throws IOException {
+        for (int i = 0; i < tokens.size(); i++) {
+            writeToken(tokens.getType(i), tokens.getLexemeView(i), tokens.getLine(i), tokens.getColumn(i));
+        }
+    }
+
+    // Lets the writer be handed to StreamingLexer.analyze as the token sink
+    @Override
+    public void accept(Token token) {
+        try {
+            writeToken(token);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeErrors(List<LexicalException> errors) throws IOException {
+        if (errorsWritten) {
+            throw new IllegalStateException("Errors section already written");
+        }
+        closeTokens();
+        errorsWritten = true;
+        write(ERRORS_TITLE);
+
+        if (errors.isEmpty()) {
+            write(NO_ERRORS);
+            return;
+        }
+
+        write(ERRORS_HEAD);
+        for (LexicalException error : errors) {
+            write(ROW_START);
+            writeEscaped(error.getErrorMessage());
+            write(CELL);
+            writeInt(error.getLine());
+            write(CELL);
+            writeInt(error.getColumn());
+            write(ROW_END);
+        }
+        write(ERRORS_END);
+    }
+
+    private void closeTokens() throws IOException {
+        if (!tokensClosed) {
+            tokensClosed = true;
+            write(TOKENS_END);
+        }
+    }
+
+    // Closes any open section, writes the footer and closes the stream
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (!errorsWritten) {
+                writeErrors(List.of());
+            }
+            write(FOOT);
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeEscaped(CharSequence text) throws IOException {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            // Room for the longest entity, so the switch below never checks again
+            if (count > buffer.length - 6) flushBuffer();
+            switch (c) {
+                case '&' -> putAscii("&amp;");
+                case '<' -> putAscii("&lt;");
+                case '>' -> putAscii("&gt;");
+                case '"' -> putAscii("&quot;");
+                case '\'' -> putAscii("&#39;");
+                default -> {
+                    if (c < 0x80) {
+                        buffer[count++] = (byte) c;
+                    } else if (c < 0x800) {
+                        buffer[count++] = (byte) (0xC0 | (c >> 6));
+                        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                        buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                        buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                    } else if (Character.isSurrogate(c)) {
+                        buffer[count++] = '?';
+                    } else {
+                        buffer[count++] = (byte) (0xE0 | (c >> 12));
+                        buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                }
+            }
+        }
+    }
+
+    // Callers make sure the text fits in the buffer
+    private void putAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer[count++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        if (count > buffer.length - 11) flushBuffer();
+        if (value < 0) {
+            buffer[count++] = '-';
+            if (value == Integer.MIN_VALUE) {
+                putAscii("2147483648");
+                return;
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value; rest >= 10; rest /= 10) digits++;
+        int pos = count + digits;
+        count = pos;
+        do {
+            buffer[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,452 @@
+package com.afdgraph.report;
+
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.Token;
+import com.afdgraph.models.TokenStream;
+import com.afdgraph.models.TokenType;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Report for very large token counts: tokens and errors go to fixed-size JS chunk files next to a
+// small HTML shell that loads them through script tags (works from file://, no server). Only the
+// token rows in view are rendered, with filtering by TokenType and lexeme search; errors are shown
+// a page at a time, loading their chunks as the pages are reached
+public class PagedReportWriter implements Consumer<Token>, Closeable {
+    public static final int DEFAULT_CHUNK_SIZE = 50_000;
+    public static final String INDEX_FILE = "index.html";
+    private static final String DATA_DIRECTORY = "data";
+
+    private final Path directory;
+    private final int chunkSize;
+    private final long[] typeCounts = new long[TokenType.values().length];
+    private Writer chunk;
+    private int chunkCount;
+    private int rowsInChunk;
+    private long total;
+    private boolean closed;
+
+    public PagedReportWriter(Path directory) throws IOException {
+        this(directory, DEFAULT_CHUNK_SIZE);
+    }
+
+    public PagedReportWriter(Path directory, int chunkSize) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        Files.createDirectories(directory.resolve(DATA_DIRECTORY));
+        Files.writeString(directory.resolve(INDEX_FILE), SHELL, StandardCharsets.UTF_8);
+    }
+
+    public void writeToken(Token token) throws IOException {
+        writeToken(token.getType(), token.getLexeme(), token.getLine(), token.getColumn());
+    }
+
+    public void writeToken(TokenType type, CharSequence lexeme, int line, int column) throws IOException {
+        if (chunk == null) {
+            chunk = Files.newBufferedWriter(chunkPath("tokens", chunkCount), StandardCharsets.UTF_8);
+            chunk.write("AFD_REPORT.chunk(" + chunkCount + ",[");
+        } else {
+            chunk.write(',');
+        }
+
+        chunk.write('[');
+        chunk.write(Integer.toString(type.ordinal()));
+        chunk.write(',');
+        writeJsString(chunk, lexeme);
+        chunk.write(',');
+        chunk.write(Integer.toString(line));
+        chunk.write(',');
+        chunk.write(Integer.toString(column));
+        chunk.write(']');
+
+        typeCounts[type.ordinal()]++;
+        total++;
+        if (++rowsInChunk == chunkSize) {
+            finishChunk();
+        }
+    }
+
+    public void writeTokens(TokenStream tokens) throws IOException {
+        for (int i = 0; i < tokens.size(); i++) {
+            writeToken(tokens.getType(i), tokens.getLexemeView(i), tokens.getLine(i), tokens.getColumn(i));
+        }
+    }
+
+    @Override
+    public void accept(Token token) {
+        try {
+            writeToken(token);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void finishChunk() throws IOException {
+        try {
+            chunk.write("]);\n");
+        } finally {
+            chunk.close();
+            chunk = null;
+        }
+        rowsInChunk = 0;
+        chunkCount++;
+    }
+
+    // Finishes the last chunk, writes the error chunks and the manifest the shell starts from.
+    // The open chunk is closed even if writing fails
+    public void close(List<LexicalException> errors) throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (chunk != null) {
+                finishChunk();
+            }
+        } finally {
+            if (chunk != null) {
+                chunk.close();
+                chunk = null;
+            }
+        }
+
+        int errorChunks = writeErrors(errors);
+        try (BufferedWriter meta = Files.newBufferedWriter(directory.resolve(DATA_DIRECTORY).resolve("meta.js"),
+                StandardCharsets.UTF_8)) {
+            meta.write("AFD_REPORT.meta({total:" + total + ",chunkSize:" + chunkSize + ",chunks:" + chunkCount + ",types:[");
+            TokenType[] types = TokenType.values();
+            for (int i = 0; i < types.length; i++) {
+                if (i > 0) meta.write(',');
+                writeJsString(meta, types[i].name());
+            }
+            meta.write("],typeCounts:[");
+            for (int i = 0; i < typeCounts.length; i++) {
+                if (i > 0) meta.write(',');
+                meta.write(Long.toString(typeCounts[i]));
+            }
+            meta.write("],errorTotal:" + errors.size() + ",errorChunks:" + errorChunks + "});\n");
+        }
+    }
+
+    // Errors are chunked like tokens, so a file with millions of them doesn't become one huge script
+    private int writeErrors(List<LexicalException> errors) throws IOException {
+        int count = 0;
+        for (int from = 0; from < errors.size(); from += chunkSize, count++) {
+            try (BufferedWriter out = Files.newBufferedWriter(chunkPath("errors", count), StandardCharsets.UTF_8)) {
+                out.write("AFD_REPORT.errors(" + count + ",[");
+                for (int i = from, to = Math.min(errors.size(), from + chunkSize); i < to; i++) {
+                    LexicalException error = errors.get(i);
+                    if (i > from) out.write(',');
+                    out.write('[');
+                    writeJsString(out, error.getErrorMessage());
+                    out.write("," + error.getLine() + "," + error.getColumn() + "]");
+                }
+                out.write("]);\n");
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(List.of());
+    }
+
+    public Path getIndexFile() {
+        return directory.resolve(INDEX_FILE);
+    }
+
+    private Path chunkPath(String kind, int index) {
+        return directory.resolve(DATA_DIRECTORY).resolve(String.format("%s-%05d.js", kind, index));
+    }
+
+    private static void writeJsString(Writer out, CharSequence text) throws IOException {
+        out.write('"');
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    private static final String SHELL = """
+            <!DOCTYPE html>
+            <html lang="en">
+            <head>
+                <meta charset="UTF-8">
+                <title>Lexical Analysis Report</title>
+                <style>
+                    body {
+                        font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif;
+                        background: linear-gradient(120deg, #0f2027, #203a43, #2c5364);
+                        color: #f0f0f0;
+                        padding: 20px;
+                        min-height: 100vh;
+                        margin: 0;
+                    }
+                    .container { max-width: 1200px; margin: 0 auto; padding: 20px; }
+                    h1 { color: #dff9fb; text-align: center; font-size: 2.5rem; margin-bottom: 1.5rem; }
+                    h2 { color: #dff9fb; margin-top: 30px; text-align: center; font-size: 1.8rem; }
+                    .panel {
+                        background: rgba(255, 255, 255, 0.1);
+                        border-radius: 15px;
+                        padding: 20px;
+                        margin-bottom: 30px;
+                    }
+                    .toolbar { display: flex; gap: 10px; margin-bottom: 12px; align-items: center; }
+                    .toolbar input, .toolbar select, .toolbar button {
+                        background: rgba(20, 20, 20, 0.6); color: #f0f0f0;
+                        border: 1px solid rgba(255, 255, 255, 0.2); border-radius: 6px; padding: 6px 10px;
+                    }
+                    .toolbar input { flex: 1; }
+                    .status { font-size: 0.9rem; opacity: 0.8; white-space: nowrap; }
+                    .row { display: grid; grid-template-columns: 2fr 3fr 1fr 1fr; height: 28px; line-height: 28px; }
+                    .row > div { padding: 0 12px; overflow: hidden; text-overflow: ellipsis; white-space: nowrap;
+                                 border-bottom: 1px solid rgba(255, 255, 255, 0.08); }
+                    .head { background: linear-gradient(90deg, #3498db, #2980b9); font-weight: 600; border-radius: 8px 8px 0 0; }
+                    .viewport { height: 560px; overflow-y: auto; position: relative; background: rgba(20, 20, 20, 0.4); }
+                    .spacer { position: relative; }
+                    .rows { position: absolute; left: 0; right: 0; }
+                    .rows .row:nth-child(even) { background-color: rgba(44, 44, 44, 0.4); }
+                    table { width: 100%; border-collapse: collapse; background: rgba(20, 20, 20, 0.4); }
+                    th, td { border: 1px solid rgba(255, 255, 255, 0.1); padding: 10px; text-align: left; }
+                    th { background: linear-gradient(90deg, #3498db, #2980b9); }
+                    .no-errors { text-align: center; padding: 20px; background: rgba(46, 204, 113, 0.2);
+                                 border-radius: 8px; color: #2ecc71; font-weight: 500; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <h1>Lexical Analysis Report</h1>
+
+                    <h2>Tokens Recognized</h2>
+                    <div class="panel">
+                        <div class="toolbar">
+                            <select id="type"><option value="-1">All types</option></select>
+                            <input id="search" type="search" placeholder="Search lexeme...">
+                            <span class="status" id="status">Loading...</span>
+                        </div>
+                        <div class="row head"><div>Type</div><div>Lexeme</div><div>Line</div><div>Column</div></div>
+                        <div class="viewport" id="viewport">
+                            <div class="spacer" id="spacer"><div class="rows" id="rows"></div></div>
+                        </div>
+                    </div>
+
+                    <h2>Lexical Errors</h2>
+                    <div class="panel" id="errorPanel" hidden>
+                        <div class="toolbar">
+                            <button id="errorPrev">Previous</button>
+                            <button id="errorNext">Next</button>
+                            <span class="status" id="errorStatus"></span>
+                        </div>
+                        <div id="errors"></div>
+                    </div>
+                    <div class="no-errors" id="noErrors" hidden>No lexical errors found! &#x1F44D;</div>
+                </div>
+                <script>
+                    const ROW_HEIGHT = 28;
+                    // Browsers cap element heights, so very long lists scroll through a scaled spacer
+                    const MAX_SPACER = 8000000;
+                    const viewport = document.getElementById('viewport');
+                    const spacer = document.getElementById('spacer');
+                    const rowsBox = document.getElementById('rows');
+                    const statusBox = document.getElementById('status');
+                    const typeSelect = document.getElementById('type');
+                    const searchBox = document.getElementById('search');
+                    const errorsBox = document.getElementById('errors');
+                    const errorStatus = document.getElementById('errorStatus');
+                    const errorPrev = document.getElementById('errorPrev');
+                    const errorNext = document.getElementById('errorNext');
+                    const ERROR_PAGE = 100;
+
+                    const AFD_REPORT = window.AFD_REPORT = {};
+                    let meta = null;
+                    const chunks = [];
+                    let loaded = 0;
+                    let matches = null;      // Int32Array of global row indexes, null when unfiltered
+                    let matchCount = 0;
+                    let scanned = 0;         // rows already checked against the current filter
+                    const errorChunks = [];
+                    const errorRequested = [];
+                    let errorPage = 0;
+
+                    function load(src) {
+                        const script = document.createElement('script');
+                        script.src = src;
+                        document.head.appendChild(script);
+                    }
+
+                    AFD_REPORT.meta = function (m) {
+                        meta = m;
+                        m.types.forEach((name, i) => {
+                            if (m.typeCounts[i] === 0) return;
+                            const option = document.createElement('option');
+                            option.value = i;
+                            option.textContent = name + ' (' + m.typeCounts[i] + ')';
+                            typeSelect.appendChild(option);
+                        });
+                        if (m.errorTotal === 0) {
+                            document.getElementById('noErrors').hidden = false;
+                        } else {
+                            document.getElementById('errorPanel').hidden = false;
+                            showErrorPage(0);
+                        }
+                        if (m.chunks > 0) load('data/tokens-' + String(0).padStart(5, '0') + '.js');
+                        update();
+                    };
+
+                    AFD_REPORT.chunk = function (index, rows) {
+                        chunks[index] = rows;
+                        loaded += rows.length;
+                        if (index + 1 < meta.chunks) load('data/tokens-' + String(index + 1).padStart(5, '0') + '.js');
+                        scanFilter();
+                        update();
+                    };
+
+                    AFD_REPORT.errors = function (index, rows) {
+                        errorChunks[index] = rows;
+                        showErrorPage(errorPage);
+                    };
+
+                    function row(i) {
+                        const chunk = chunks[Math.floor(i / meta.chunkSize)];
+                        return chunk ? chunk[i % meta.chunkSize] : null;
+                    }
+
+                    function filterActive() {
+                        return typeSelect.value !== '-1' || searchBox.value !== '';
+                    }
+
+                    function resetFilter() {
+                        matches = filterActive() ? new Int32Array(Math.max(1024, loaded)) : null;
+                        matchCount = 0;
+                        scanned = 0;
+                        scanFilter();
+                        viewport.scrollTop = 0;
+                        update();
+                    }
+
+                    function scanFilter() {
+                        if (!matches) return;
+                        const type = Number(typeSelect.value);
+                        const needle = searchBox.value.toLowerCase();
+                        for (; scanned < loaded; scanned++) {
+                            const r = row(scanned);
+                            if (type >= 0 && r[0] !== type) continue;
+                            if (needle && r[1].toLowerCase().indexOf(needle) < 0) continue;
+                            if (matchCount === matches.length) {
+                                const grown = new Int32Array(matches.length * 2);
+                                grown.set(matches);
+                                matches = grown;
+                            }
+                            matches[matchCount++] = scanned;
+                        }
+                    }
+
+                    function visibleCount() {
+                        return matches ? matchCount : loaded;
+                    }
+
+                    function update() {
+                        const count = visibleCount();
+                        const fullHeight = count * ROW_HEIGHT;
+                        const height = Math.min(fullHeight, MAX_SPACER);
+                        spacer.style.height = height + 'px';
+
+                        const scale = fullHeight > height ? (fullHeight - viewport.clientHeight) / Math.max(1, height - viewport.clientHeight) : 1;
+                        const first = Math.max(0, Math.floor(viewport.scrollTop * scale / ROW_HEIGHT));
+                        const visible = Math.ceil(viewport.clientHeight / ROW_HEIGHT) + 2;
+                        const last = Math.min(count, first + visible);
+
+                        let html = '';
+                        for (let i = first; i < last; i++) {
+                            const r = row(matches ? matches[i] : i);
+                            html += '<div class="row"><div>' + meta.types[r[0]] + '</div><div>' + escapeHtml(r[1]) +
+                                '</div><div>' + r[2] + '</div><div>' + r[3] + '</div></div>';
+                        }
+                        rowsBox.style.top = (viewport.scrollTop - (viewport.scrollTop * scale) % ROW_HEIGHT) + 'px';
+                        rowsBox.innerHTML = html;
+
+                        const progress = loaded < meta.total ? ' (loading ' + Math.round(100 * loaded / meta.total) + '%)' : '';
+                        statusBox.textContent = (matches ? matchCount + ' of ' : '') + meta.total + ' tokens' + progress;
+                    }
+
+                    // Loads the error chunks the page needs first; their callback renders it again
+                    function showErrorPage(page) {
+                        const pages = Math.ceil(meta.errorTotal / ERROR_PAGE);
+                        errorPage = Math.max(0, Math.min(pages - 1, page));
+                        const first = errorPage * ERROR_PAGE;
+                        const last = Math.min(meta.errorTotal, first + ERROR_PAGE);
+                        errorPrev.disabled = errorPage === 0;
+                        errorNext.disabled = errorPage === pages - 1;
+                        errorStatus.textContent = 'Errors ' + (first + 1) + '-' + last + ' of ' + meta.errorTotal;
+
+                        let missing = false;
+                        for (let c = Math.floor(first / meta.chunkSize); c <= Math.floor((last - 1) / meta.chunkSize); c++) {
+                            if (errorChunks[c]) continue;
+                            missing = true;
+                            if (!errorRequested[c]) {
+                                errorRequested[c] = true;
+                                load('data/errors-' + String(c).padStart(5, '0') + '.js');
+                            }
+                        }
+                        if (missing) {
+                            errorStatus.textContent += ' (loading)';
+                            return;
+                        }
+
+                        let html = '<table><tr><th>Error</th><th>Line</th><th>Column</th></tr>';
+                        for (let i = first; i < last; i++) {
+                            const e = errorChunks[Math.floor(i / meta.chunkSize)][i % meta.chunkSize];
+                            html += '<tr><td>' + escapeHtml(e[0]) + '</td><td>' + e[1] + '</td><td>' + e[2] + '</td></tr>';
+                        }
+                        errorsBox.innerHTML = html + '</table>';
+                    }
+
+                    function escapeHtml(s) {
+                        return s.replace(/&/g, '&amp;').replace(/</g, '&lt;').replace(/>/g, '&gt;');
+                    }
+
+                    let pending = false;
+                    viewport.addEventListener('scroll', () => {
+                        if (pending) return;
+                        pending = true;
+                        requestAnimationFrame(() => { pending = false; update(); });
+                    });
+                    typeSelect.addEventListener('change', resetFilter);
+                    errorPrev.addEventListener('click', () => showErrorPage(errorPage - 1));
+                    errorNext.addEventListener('click', () => showErrorPage(errorPage + 1));
+                    let searchTimer = 0;
+                    searchBox.addEventListener('input', () => {
+                        clearTimeout(searchTimer);
+                        searchTimer = setTimeout(resetFilter, 200);
+                    });
+
+                    load('data/meta.js');
+                </script>
+            </body>
+            </html>
+            """;
+}
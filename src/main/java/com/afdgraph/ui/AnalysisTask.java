@@ -0,0 +1,186 @@
+package com.afdgraph.ui;
+
+import com.afdgraph.lexer.IncrementalAnalyzer;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.AutomatonRegistry;
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.ParseDiagnostic;
+import com.afdgraph.models.Token;
+
+import javax.swing.*;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+// Reads a file and merges its definitions into the editor's analyzer off the EDT, one top-level
+// block at a time. The analyzer lexes and parses only the new text; after each block its text
+// edits and automaton are published so the EDT can replay them on the document, and cancellation
+// is checked. Progress goes through SwingWorker's "progress" property
+public class AnalysisTask extends SwingWorker<AnalysisTask.Result, AnalysisTask.Update> {
+    private static final int TEXT_CHUNK = 64 * 1024;
+
+    private final File file;
+    private final IncrementalAnalyzer analyzer;
+    private final Listener listener;
+
+    public interface Listener {
+        // Replace document[offset, offset + length) with text
+        void textEdited(int offset, int length, String text);
+
+        void automatonParsed(Automaton automaton);
+
+        void finished(Result result);
+
+        void cancelled();
+
+        void failed(Exception e);
+    }
+
+    public static class Update {
+        private final int offset;
+        private final int length;
+        private final String text;
+        private final Automaton automaton;
+
+        private Update(int offset, int length, String text, Automaton automaton) {
+            this.offset = offset;
+            this.length = length;
+            this.text = text;
+            this.automaton = automaton;
+        }
+    }
+
+    public static class Result {
+        private final List<Token> tokens;
+        private final List<LexicalException> errors;
+        private final List<ParseDiagnostic> diagnostics;
+        private final AutomatonRegistry registry;
+        private final IncrementalAnalyzer analyzer;
+
+        Result(List<Token> tokens, List<LexicalException> errors, List<ParseDiagnostic> diagnostics,
+               AutomatonRegistry registry, IncrementalAnalyzer analyzer) {
+            this.tokens = tokens;
+            this.errors = errors;
+            this.diagnostics = diagnostics;
+            this.registry = registry;
+            this.analyzer = analyzer;
+        }
+
+        // Getters
+        public List<Token> getTokens() {
+            return tokens;
+        }
+
+        public List<LexicalException> getErrors() {
+            return errors;
+        }
+
+        public List<ParseDiagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+        public AutomatonRegistry getRegistry() {
+            return registry;
+        }
+
+        public IncrementalAnalyzer getAnalyzer() {
+            return analyzer;
+        }
+    }
+
+    // The analyzer must mirror the document and not be touched by the EDT while the task runs
+    public AnalysisTask(File file, IncrementalAnalyzer analyzer, Listener listener) {
+        this.file = file;
+        this.analyzer = analyzer;
+        this.listener = listener;
+    }
+
+    @Override
+    protected Result doInBackground() throws Exception {
+        String newContent = Files.readString(file.toPath()).trim();
+        if (newContent.startsWith("{") && newContent.endsWith("}")) {
+            newContent = newContent.substring(1, newContent.length() - 1).trim();
+        }
+        checkCancelled();
+        List<String> blocks = IncrementalAnalyzer.splitDefinitions(newContent);
+        setProgress(10);
+
+        // splitDefinitions only finds the block boundaries; each new definition is lexed and parsed
+        // once, when it is merged, and existing ones are not touched again
+        for (int b = 0; b < blocks.size(); b++) {
+            publishEdits(analyzer.mergeDefinitions(blocks.get(b)));
+            for (Automaton automaton : analyzer.getLastMergedAutomata()) {
+                publish(new Update(0, 0, null, automaton));
+            }
+            checkCancelled();
+            setProgress(10 + 90 * (b + 1) / blocks.size());
+        }
+
+        AutomatonRegistry registry = analyzer.getRegistry();
+        List<Token> tokens = analyzer.getTokens().asTokenList();
+        List<LexicalException> errors = analyzer.getErrors();
+        System.out.println("Recognized " + tokens.size() + " tokens");
+        if (!errors.isEmpty()) {
+            System.out.println("------ Lexical Errors Detected ------");
+            errors.forEach(err -> System.out.println("Error: " + err.getErrorMessage() +
+                    " at line " + err.getLine() + ", column " + err.getColumn()));
+        } else {
+            System.out.println("No lexical errors detected.");
+        }
+        List<ParseDiagnostic> diagnostics = analyzer.getDiagnostics();
+        if (!diagnostics.isEmpty()) {
+            System.out.println("------ Syntax Errors Detected ------");
+            diagnostics.forEach(d -> System.out.println("Error: " + d.getMessage() +
+                    " at line " + d.getLine() + ", column " + d.getColumn()));
+        }
+
+        setProgress(100);
+
+        return new Result(tokens, errors, diagnostics, registry, analyzer);
+    }
+
+    // Replay the edits in slices so the EDT never takes one huge insert
+    private void publishEdits(List<IncrementalAnalyzer.Edit> edits) {
+        for (IncrementalAnalyzer.Edit edit : edits) {
+            String inserted = edit.getInserted();
+            int removed = edit.getRemoved().length();
+            int chunk = Math.min(inserted.length(), TEXT_CHUNK);
+            publish(new Update(edit.getOffset(), removed, inserted.substring(0, chunk), null));
+            for (int start = chunk; start < inserted.length(); start += TEXT_CHUNK) {
+                int stop = Math.min(inserted.length(), start + TEXT_CHUNK);
+                publish(new Update(edit.getOffset() + start, 0, inserted.substring(start, stop), null));
+            }
+        }
+    }
+
+    private void checkCancelled() {
+        if (isCancelled()) throw new CancellationException();
+    }
+
+    @Override
+    protected void process(List<Update> updates) {
+        if (isCancelled()) return;
+        for (Update update : updates) {
+            if (update.automaton != null) {
+                listener.automatonParsed(update.automaton);
+            } else if (!isDone()) {
+                // Text can arrive after done(); finished() has already synced the whole text then
+                listener.textEdited(update.offset, update.length, update.text);
+            }
+        }
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            listener.cancelled();
+            return;
+        }
+        try {
+            listener.finished(get());
+        } catch (Exception e) {
+            listener.failed(e.getCause() instanceof Exception cause ? cause : e);
+        }
+    }
+}
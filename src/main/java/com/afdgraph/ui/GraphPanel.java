@@ -1,21 +1,38 @@
 package com.afdgraph.ui;
 
+import com.afdgraph.export.GraphLayout;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
 import org.apache.batik.swing.JSVGCanvas;
 import org.apache.batik.swing.gvt.GVTTreeRendererAdapter;
 import org.apache.batik.swing.gvt.GVTTreeRendererEvent;
+import org.apache.batik.util.XMLResourceDescriptor;
+import org.w3c.dom.svg.SVGDocument;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
 import java.net.MalformedURLException;
+import java.util.Map;
 
 public class GraphPanel extends JPanel {
+    // Past this many states plus transitions a live SVG DOM is too slow to pan and zoom
+    public static final int LARGE_GRAPH_ELEMENTS = 3000;
+    private static final String SVG_CARD = "svg";
+    private static final String LARGE_CARD = "large";
+
     private final JSVGCanvas svgCanvas;
+    private final LargeGraphView largeView;
+    private final CardLayout cards;
     private Point lastDragPoint;
 
     public GraphPanel() {
-        setLayout(new BorderLayout());
+        cards = new CardLayout();
+        setLayout(cards);
 
         svgCanvas = new JSVGCanvas();
         svgCanvas.setDocumentState(JSVGCanvas.ALWAYS_DYNAMIC);
@@ -25,7 +42,18 @@ public class GraphPanel extends JPanel {
         svgCanvas.setBackground(UIManager.getColor("Panel.background"));
         svgCanvas.setOpaque(true);
 
-        add(svgCanvas, BorderLayout.CENTER);
+        largeView = new LargeGraphView();
+
+        add(svgCanvas, SVG_CARD);
+        add(largeView, LARGE_CARD);
+    }
+
+    public static boolean isLarge(Automaton automaton) {
+        int elements = automaton.getTransitionIndex().getStateCount();
+        for (Map<String, State> row : automaton.getTransitions().values()) {
+            elements += row.size();
+        }
+        return elements > LARGE_GRAPH_ELEMENTS;
     }
 
     public void loadSvg(File file) {
@@ -35,9 +63,32 @@ public class GraphPanel extends JPanel {
         }
 
         try {
+            showSvgCard();
             svgCanvas.setURI(file.toURI().toURL().toString());
         } catch (MalformedURLException e) {
             JOptionPane.showMessageDialog(this, "Invalid SVG path: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
+
+    public void loadSvg(SVGDocument document) {
+        showSvgCard();
+        svgCanvas.setSVGDocument(document);
+    }
+
+    // Tiled view without a DOM; the canvas drops its document so the two are never both in memory
+    public void showLayout(GraphLayout layout) {
+        svgCanvas.setSVGDocument(null);
+        largeView.setGraph(layout);
+        cards.show(this, LARGE_CARD);
+    }
+
+    private void showSvgCard() {
+        largeView.setGraph(null);
+        cards.show(this, SVG_CARD);
+    }
+
+    public static SVGDocument parseSvg(String svg, String name) throws IOException {
+        SAXSVGDocumentFactory factory = new SAXSVGDocumentFactory(XMLResourceDescriptor.getXMLParserClassName());
+        return factory.createSVGDocument("memory:/" + name + ".svg", new StringReader(svg));
+    }
 }
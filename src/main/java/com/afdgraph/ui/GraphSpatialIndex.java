@@ -0,0 +1,190 @@
+package com.afdgraph.ui;
+
+import com.afdgraph.export.GraphLayout;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+// Uniform grid over a GraphLayout, so drawing a region only visits the nodes and edges that can
+// touch it. Cells hold ids in flat arrays (one offsets array per kind). Edges are registered in
+// every cell their bounds overlap; the few that span a large part of the graph (long back edges)
+// are kept in a separate list and checked on every query instead.
+class GraphSpatialIndex {
+    private static final double CELL = 512;
+    private static final int MAX_EDGE_CELLS = 64;
+    // Head of the arrow marker, and a label's box around its anchor
+    private static final double ARROW = 10;
+    private static final double LABEL_CHAR_WIDTH = GraphLayout.FONT_SIZE * 0.6;
+
+    private final List<GraphLayout.Node> nodes;
+    private final List<GraphLayout.Edge> edges;
+    private final Map<GraphLayout.Node, Integer> nodeIds;
+    private final int columns;
+    private final int rows;
+    private final int[] nodeStart;
+    private final int[] nodeCells;
+    private final int[] edgeStart;
+    private final int[] edgeCells;
+    private final int[] longEdges;
+    // Largest distance from a node center to the edge of its outer ring
+    private final double nodeReach;
+    // minX, minY, maxX, maxY per edge, label and arrow included
+    private final double[] edgeBounds;
+
+    GraphSpatialIndex(GraphLayout layout) {
+        this.nodes = layout.getNodes();
+        this.edges = layout.getEdges();
+        this.columns = Math.max(1, (int) Math.ceil(layout.getWidth() / CELL));
+        this.rows = Math.max(1, (int) Math.ceil(layout.getHeight() / CELL));
+        int cells = columns * rows;
+
+        nodeIds = new IdentityHashMap<>(nodes.size());
+        int[] nodeCell = new int[nodes.size()];
+        nodeStart = new int[cells + 1];
+        double reach = 0;
+        for (int id = 0; id < nodes.size(); id++) {
+            GraphLayout.Node node = nodes.get(id);
+            nodeIds.put(node, id);
+            reach = Math.max(reach, node.getRadius() + 4);
+            nodeCell[id] = cell(column(node.getX()), row(node.getY()));
+            nodeStart[nodeCell[id] + 1]++;
+        }
+        nodeReach = reach;
+        for (int c = 0; c < cells; c++) {
+            nodeStart[c + 1] += nodeStart[c];
+        }
+        nodeCells = new int[nodes.size()];
+        int[] fill = nodeStart.clone();
+        for (int id = 0; id < nodes.size(); id++) {
+            nodeCells[fill[nodeCell[id]]++] = id;
+        }
+
+        edgeBounds = new double[edges.size() * 4];
+        edgeStart = new int[cells + 1];
+        int longCount = 0;
+        for (int id = 0; id < edges.size(); id++) {
+            bounds(edges.get(id), id);
+            int span = cellSpan(id);
+            if (span > MAX_EDGE_CELLS) {
+                longCount++;
+            } else {
+                forEachCell(id, c -> edgeStart[c + 1]++);
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            edgeStart[c + 1] += edgeStart[c];
+        }
+        edgeCells = new int[edgeStart[cells]];
+        longEdges = new int[longCount];
+        int[] edgeFill = edgeStart.clone();
+        int longFill = 0;
+        for (int id = 0; id < edges.size(); id++) {
+            if (cellSpan(id) > MAX_EDGE_CELLS) {
+                longEdges[longFill++] = id;
+            } else {
+                int edge = id;
+                forEachCell(id, c -> edgeCells[edgeFill[c]++] = edge);
+            }
+        }
+    }
+
+    int getNodeId(GraphLayout.Node node) {
+        return nodeIds.get(node);
+    }
+
+    // Nodes whose outer ring overlaps the rectangle
+    void nodes(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+        int c0 = column(minX - nodeReach), c1 = column(maxX + nodeReach);
+        int r0 = row(minY - nodeReach), r1 = row(maxY + nodeReach);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = cell(c, r);
+                for (int i = nodeStart[cell]; i < nodeStart[cell + 1]; i++) {
+                    GraphLayout.Node node = nodes.get(nodeCells[i]);
+                    double outer = node.getRadius() + 4;
+                    if (node.getX() + outer >= minX && node.getX() - outer <= maxX &&
+                            node.getY() + outer >= minY && node.getY() - outer <= maxY) {
+                        action.accept(nodeCells[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Edges whose bounds overlap the rectangle, each reported once
+    void edges(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+        BitSet seen = new BitSet(edges.size());
+        int c0 = column(minX), c1 = column(maxX);
+        int r0 = row(minY), r1 = row(maxY);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = cell(c, r);
+                for (int i = edgeStart[cell]; i < edgeStart[cell + 1]; i++) {
+                    int id = edgeCells[i];
+                    if (!seen.get(id) && overlaps(id, minX, minY, maxX, maxY)) {
+                        seen.set(id);
+                        action.accept(id);
+                    }
+                }
+            }
+        }
+        for (int id : longEdges) {
+            if (overlaps(id, minX, minY, maxX, maxY)) action.accept(id);
+        }
+    }
+
+    private boolean overlaps(int edge, double minX, double minY, double maxX, double maxY) {
+        int b = edge * 4;
+        return edgeBounds[b + 2] >= minX && edgeBounds[b] <= maxX &&
+                edgeBounds[b + 3] >= minY && edgeBounds[b + 1] <= maxY;
+    }
+
+    // The control points bound the curve; the label box and arrow head are added around it
+    private void bounds(GraphLayout.Edge edge, int id) {
+        double[] p = edge.getPoints();
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < p.length; i += 2) {
+            minX = Math.min(minX, p[i]);
+            maxX = Math.max(maxX, p[i]);
+            minY = Math.min(minY, p[i + 1]);
+            maxY = Math.max(maxY, p[i + 1]);
+        }
+        double halfLabel = edge.getLabel().length() * LABEL_CHAR_WIDTH / 2;
+        int b = id * 4;
+        edgeBounds[b] = Math.min(minX - ARROW, edge.getLabelX() - halfLabel);
+        edgeBounds[b + 1] = Math.min(minY - ARROW, edge.getLabelY() - GraphLayout.FONT_SIZE);
+        edgeBounds[b + 2] = Math.max(maxX + ARROW, edge.getLabelX() + halfLabel);
+        edgeBounds[b + 3] = Math.max(maxY + ARROW, edge.getLabelY() + GraphLayout.FONT_SIZE / 2);
+    }
+
+    private int cellSpan(int edge) {
+        int b = edge * 4;
+        return (column(edgeBounds[b + 2]) - column(edgeBounds[b]) + 1) *
+                (row(edgeBounds[b + 3]) - row(edgeBounds[b + 1]) + 1);
+    }
+
+    private void forEachCell(int edge, IntConsumer action) {
+        int b = edge * 4;
+        for (int r = row(edgeBounds[b + 1]); r <= row(edgeBounds[b + 3]); r++) {
+            for (int c = column(edgeBounds[b]); c <= column(edgeBounds[b + 2]); c++) {
+                action.accept(cell(c, r));
+            }
+        }
+    }
+
+    private int column(double x) {
+        return Math.clamp((long) Math.floor(x / CELL), 0, columns - 1);
+    }
+
+    private int row(double y) {
+        return Math.clamp((long) Math.floor(y / CELL), 0, rows - 1);
+    }
+
+    private int cell(int column, int row) {
+        return row * columns + column;
+    }
+}
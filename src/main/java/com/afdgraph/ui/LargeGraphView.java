@@ -0,0 +1,404 @@
+package com.afdgraph.ui;
+
+import com.afdgraph.export.GraphLayout;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Viewer for graphs too large for a live SVG DOM. The layout is drawn with Java2D into 256px tiles
+// per zoom level (powers of two), rendered on a background thread and kept in an LRU, so panning and
+// zooming only blit images. A tile draws just what the spatial index finds in its region, at the
+// detail its zoom level allows: full shapes, arrows and labels up close; plain curves without
+// labels further out; and below that dots for states with edges merged into bundles between
+// screen-sized cells. While a tile is missing, the coarser tile over it stands in, scaled up.
+public class LargeGraphView extends JComponent {
+    static final int TILE = 256;
+    static final int MIN_LEVEL = -10;
+    static final int MAX_LEVEL = 2;
+    // Zoom below which labels and arrows are dropped, then shapes collapse into dots and bundles
+    static final double LABEL_SCALE = 0.5;
+    static final double SHAPE_SCALE = 0.125;
+    private static final double BUNDLE_PIXELS = 24;
+    private static final int MAX_BUNDLE_WIDTH = 6;
+    private static final int MAX_TILES = 160;
+    private static final Color FINAL_INNER = Color.RED;
+    private static final Color FINAL_OUTER = Color.YELLOW;
+    private static final Color STATE_INNER = Color.BLUE;
+    private static final Color STATE_OUTER = Color.CYAN;
+    private static final Font FONT = new Font("Helvetica", Font.PLAIN, (int) GraphLayout.FONT_SIZE);
+
+    private final ExecutorService renderer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "graph-tiles");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Guarded by tiles: rendered images and the keys queued for rendering
+    private final Map<Long, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > MAX_TILES;
+        }
+    };
+    private final Set<Long> pending = new HashSet<>();
+
+    private volatile Graph graph;
+    // Level and tile range last painted; queued tiles outside it are skipped
+    private volatile int[] visibleTiles = new int[5];
+    private double scale = 1;
+    private double offsetX;
+    private double offsetY;
+    private boolean fitPending;
+    private Point dragStart;
+
+    // Everything the renderer thread needs for one layout; replaced as a whole
+    static class Graph {
+        private final GraphLayout layout;
+        private final GraphSpatialIndex index;
+        // Bundles per zoom level, built on first use by the renderer thread
+        private final Map<Integer, double[]> bundles = new HashMap<>();
+
+        Graph(GraphLayout layout) {
+            this.layout = layout;
+            this.index = new GraphSpatialIndex(layout);
+        }
+    }
+
+    public LargeGraphView() {
+        setOpaque(true);
+        setBackground(UIManager.getColor("Panel.background"));
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null) return;
+                offsetX += e.getX() - dragStart.x;
+                offsetY += e.getY() - dragStart.y;
+                dragStart = e.getPoint();
+                repaint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) fit();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAt(e.getX(), e.getY(), Math.pow(1.2, -e.getPreciseWheelRotation()));
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    public void setGraph(GraphLayout layout) {
+        graph = layout == null ? null : new Graph(layout);
+        synchronized (tiles) {
+            tiles.clear();
+            pending.clear();
+        }
+        fitPending = true;
+        repaint();
+    }
+
+    // Whole graph in view; double click does the same
+    public void fit() {
+        Graph current = graph;
+        if (current == null || getWidth() == 0 || getHeight() == 0) return;
+        double width = current.layout.getWidth();
+        double height = current.layout.getHeight();
+        scale = clampScale(Math.min(getWidth() / width, getHeight() / height));
+        offsetX = (getWidth() - width * scale) / 2;
+        offsetY = (getHeight() - height * scale) / 2;
+        fitPending = false;
+        repaint();
+    }
+
+    public void zoomAt(double x, double y, double factor) {
+        double next = clampScale(scale * factor);
+        offsetX = x - (x - offsetX) * next / scale;
+        offsetY = y - (y - offsetY) * next / scale;
+        scale = next;
+        repaint();
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        Graph current = graph;
+        if (current == null) return;
+        if (fitPending) fit();
+
+        int level = levelFor(scale);
+        double levelScale = Math.scalb(1.0, level);
+        // Screen pixels per level pixel, between about 0.7 and 1.4
+        double ratio = scale / levelScale;
+        int lastColumn = (int) Math.ceil(current.layout.getWidth() * levelScale / TILE) - 1;
+        int lastRow = (int) Math.ceil(current.layout.getHeight() * levelScale / TILE) - 1;
+        int tx0 = Math.max(0, (int) Math.floor(-offsetX / ratio / TILE));
+        int ty0 = Math.max(0, (int) Math.floor(-offsetY / ratio / TILE));
+        int tx1 = Math.min(lastColumn, (int) Math.floor((getWidth() - offsetX) / ratio / TILE));
+        int ty1 = Math.min(lastRow, (int) Math.floor((getHeight() - offsetY) / ratio / TILE));
+        visibleTiles = new int[]{level, tx0, ty0, tx1, ty1};
+
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                int x0 = (int) Math.round(tx * TILE * ratio + offsetX);
+                int y0 = (int) Math.round(ty * TILE * ratio + offsetY);
+                int x1 = (int) Math.round((tx + 1) * TILE * ratio + offsetX);
+                int y1 = (int) Math.round((ty + 1) * TILE * ratio + offsetY);
+
+                BufferedImage image = tile(current, level, tx, ty);
+                if (image != null) {
+                    g2.drawImage(image, x0, y0, x1 - x0, y1 - y0, null);
+                    continue;
+                }
+                // The coarser tile covers this one with one of its quarters
+                BufferedImage coarser = level > MIN_LEVEL ? cached(key(level - 1, tx >> 1, ty >> 1)) : null;
+                if (coarser != null) {
+                    int sx = (tx & 1) * TILE / 2;
+                    int sy = (ty & 1) * TILE / 2;
+                    g2.drawImage(coarser, x0, y0, x1, y1, sx, sy, sx + TILE / 2, sy + TILE / 2, null);
+                }
+            }
+        }
+    }
+
+    // Returns the tile if rendered, otherwise queues it once
+    private BufferedImage tile(Graph current, int level, int tx, int ty) {
+        long key = key(level, tx, ty);
+        synchronized (tiles) {
+            BufferedImage image = tiles.get(key);
+            if (image != null || !pending.add(key)) return image;
+        }
+        renderer.execute(() -> {
+            int[] visible = visibleTiles;
+            boolean wanted = graph == current && visible[0] == level &&
+                    tx >= visible[1] && ty >= visible[2] && tx <= visible[3] && ty <= visible[4];
+            BufferedImage image = wanted ? renderTile(current, level, tx, ty) : null;
+            synchronized (tiles) {
+                if (!pending.remove(key) || graph != current) return;
+                if (image != null) tiles.put(key, image);
+            }
+            if (image != null) repaint();
+        });
+        return null;
+    }
+
+    private BufferedImage cached(long key) {
+        synchronized (tiles) {
+            return tiles.get(key);
+        }
+    }
+
+    static BufferedImage renderTile(Graph graph, int level, int tx, int ty) {
+        double levelScale = Math.scalb(1.0, level);
+        double size = TILE / levelScale;
+        double minX = tx * size;
+        double minY = ty * size;
+        double maxX = minX + size;
+        double maxY = minY + size;
+        // One screen pixel in world units, for strokes that should stay thin at any zoom
+        float pixel = (float) (1 / levelScale);
+
+        BufferedImage image = new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.translate(-tx * TILE, -ty * TILE);
+            g.scale(levelScale, levelScale);
+            g.setClip(new Rectangle.Double(minX, minY, size, size));
+
+            GraphLayout layout = graph.layout;
+            List<GraphLayout.Node> nodes = layout.getNodes();
+            List<GraphLayout.Edge> edges = layout.getEdges();
+
+            if (levelScale < SHAPE_SCALE) {
+                // Dots and straight segments at most a few pixels wide: not worth antialiasing
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+                drawBundles(g, bundles(graph, level), pixel, minX, minY, maxX, maxY);
+                double dot = 2 * pixel;
+                graph.index.nodes(minX, minY, maxX, maxY, id -> {
+                    GraphLayout.Node node = nodes.get(id);
+                    g.setColor(node.isAccepting() ? FINAL_OUTER : STATE_OUTER);
+                    double side = Math.max(dot, node.getRadius() * 2);
+                    g.fill(new Rectangle.Double(node.getX() - side / 2, node.getY() - side / 2, side, side));
+                });
+                return image;
+            }
+
+            boolean detail = levelScale >= LABEL_SCALE;
+            g.setStroke(new BasicStroke(detail ? 1 : pixel));
+            g.setFont(FONT);
+            FontMetrics metrics = g.getFontMetrics();
+
+            GraphLayout.Node initial = layout.getInitial();
+            if (initial != null) {
+                double startX = initial.getX() - initial.getRadius() - 40;
+                double endX = initial.getX() - initial.getRadius() - (initial.isAccepting() ? 4 : 0);
+                g.setColor(Color.WHITE);
+                g.draw(new Line2D.Double(startX, initial.getY(), endX, initial.getY()));
+                if (detail) arrowHead(g, startX, initial.getY(), endX, initial.getY());
+            }
+
+            graph.index.edges(minX, minY, maxX, maxY, id -> {
+                GraphLayout.Edge edge = edges.get(id);
+                double[] p = edge.getPoints();
+                Path2D.Double path = new Path2D.Double();
+                path.moveTo(p[0], p[1]);
+                if (edge.isSelfLoop()) {
+                    path.curveTo(p[2], p[3], p[4], p[5], p[6], p[7]);
+                } else {
+                    path.quadTo(p[2], p[3], p[4], p[5]);
+                }
+                g.setColor(Color.WHITE);
+                g.draw(path);
+                if (detail) {
+                    int n = p.length;
+                    arrowHead(g, p[n - 4], p[n - 3], p[n - 2], p[n - 1]);
+                    g.drawString(edge.getLabel(),
+                            (float) (edge.getLabelX() - metrics.stringWidth(edge.getLabel()) / 2.0),
+                            (float) edge.getLabelY());
+                }
+            });
+
+            graph.index.nodes(minX, minY, maxX, maxY, id -> {
+                GraphLayout.Node node = nodes.get(id);
+                double x = node.getX();
+                double y = node.getY();
+                double r = node.getRadius();
+                Color inner = node.isAccepting() ? FINAL_INNER : STATE_INNER;
+                Color outer = node.isAccepting() ? FINAL_OUTER : STATE_OUTER;
+                // Bottom to top, like the SVG gradients
+                g.setPaint(detail ? new GradientPaint((float) x, (float) (y + r), inner, (float) x, (float) (y - r), outer)
+                        : outer.darker());
+                g.fill(new Ellipse2D.Double(x - r, y - r, r * 2, r * 2));
+                g.setColor(Color.WHITE);
+                g.draw(new Ellipse2D.Double(x - r, y - r, r * 2, r * 2));
+                if (node.isAccepting()) {
+                    g.draw(new Ellipse2D.Double(x - r - 4, y - r - 4, r * 2 + 8, r * 2 + 8));
+                }
+                if (detail) {
+                    g.drawString(node.getName(), (float) (x - metrics.stringWidth(node.getName()) / 2.0),
+                            (float) (y + GraphLayout.FONT_SIZE * 0.35));
+                }
+            });
+            return image;
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // Segments are grouped by whole-pixel width, so each width is stroked once as one path
+    private static void drawBundles(Graphics2D g, double[] bundles, float pixel,
+                                    double minX, double minY, double maxX, double maxY) {
+        Path2D.Double[] byWidth = new Path2D.Double[MAX_BUNDLE_WIDTH + 1];
+        for (int b = 0; b < bundles.length; b += 5) {
+            double x0 = bundles[b], y0 = bundles[b + 1], x1 = bundles[b + 2], y1 = bundles[b + 3];
+            if (Math.max(x0, x1) < minX || Math.min(x0, x1) > maxX ||
+                    Math.max(y0, y1) < minY || Math.min(y0, y1) > maxY) continue;
+            // Width grows with the log of the number of edges merged
+            int width = (int) Math.min(MAX_BUNDLE_WIDTH, 1 + Math.log(bundles[b + 4]) / Math.log(2) / 2);
+            if (byWidth[width] == null) byWidth[width] = new Path2D.Double();
+            byWidth[width].moveTo(x0, y0);
+            byWidth[width].lineTo(x1, y1);
+        }
+        g.setColor(new Color(255, 255, 255, 140));
+        for (int width = 1; width <= MAX_BUNDLE_WIDTH; width++) {
+            if (byWidth[width] == null) continue;
+            g.setStroke(new BasicStroke(width * pixel, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.draw(byWidth[width]);
+        }
+    }
+
+    // Edges between the same pair of cells merged into one segment between the mean positions of
+    // their endpoints: x0, y0, x1, y1, count per bundle. Edges within one cell are left out
+    static double[] bundles(Graph graph, int level) {
+        synchronized (graph.bundles) {
+            double[] cached = graph.bundles.get(level);
+            if (cached != null) return cached;
+
+            double cell = BUNDLE_PIXELS / Math.scalb(1.0, level);
+            long columns = (long) Math.ceil(graph.layout.getWidth() / cell) + 1;
+            long cells = columns * ((long) Math.ceil(graph.layout.getHeight() / cell) + 1);
+            Map<Long, double[]> sums = new LinkedHashMap<>();
+            for (GraphLayout.Edge edge : graph.layout.getEdges()) {
+                GraphLayout.Node from = edge.getFrom();
+                GraphLayout.Node to = edge.getTo();
+                long fromCell = (long) (from.getY() / cell) * columns + (long) (from.getX() / cell);
+                long toCell = (long) (to.getY() / cell) * columns + (long) (to.getX() / cell);
+                if (fromCell == toCell) continue;
+                double[] sum = sums.computeIfAbsent(fromCell * cells + toCell, k -> new double[5]);
+                sum[0] += from.getX();
+                sum[1] += from.getY();
+                sum[2] += to.getX();
+                sum[3] += to.getY();
+                sum[4]++;
+            }
+
+            double[] bundles = new double[sums.size() * 5];
+            int b = 0;
+            for (double[] sum : sums.values()) {
+                for (int i = 0; i < 4; i++) {
+                    bundles[b + i] = sum[i] / sum[4];
+                }
+                bundles[b + 4] = sum[4];
+                b += 5;
+            }
+            graph.bundles.put(level, bundles);
+            return bundles;
+        }
+    }
+
+    private static void arrowHead(Graphics2D g, double fromX, double fromY, double toX, double toY) {
+        double angle = Math.atan2(toY - fromY, toX - fromX);
+        Path2D.Double head = new Path2D.Double();
+        head.moveTo(toX, toY);
+        head.lineTo(toX - 9 * Math.cos(angle - 0.45), toY - 9 * Math.sin(angle - 0.45));
+        head.lineTo(toX - 9 * Math.cos(angle + 0.45), toY - 9 * Math.sin(angle + 0.45));
+        head.closePath();
+        g.fill(head);
+    }
+
+    static int levelFor(double scale) {
+        return Math.clamp(Math.round(Math.log(scale) / Math.log(2)), MIN_LEVEL, MAX_LEVEL);
+    }
+
+    private static double clampScale(double scale) {
+        return Math.clamp(scale, Math.scalb(1.0, MIN_LEVEL), Math.scalb(1.0, MAX_LEVEL));
+    }
+
+    private static long key(int level, int tx, int ty) {
+        return ((long) (level - MIN_LEVEL) << 56) | ((long) tx << 28) | ty;
+    }
+}
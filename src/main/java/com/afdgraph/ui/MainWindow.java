@@ -1,30 +1,58 @@
 package com.afdgraph.ui;
 
-import com.afdgraph.lexer.AutomatonParser;
-import com.afdgraph.lexer.Lexer;
+import com.afdgraph.engine.MultiMatcher;
+import com.afdgraph.export.GraphLayout;
+import com.afdgraph.export.SvgGraphRenderer;
+import com.afdgraph.lexer.IncrementalAnalyzer;
 import com.afdgraph.models.Automaton;
+import com.afdgraph.models.AutomatonRegistry;
 import com.afdgraph.models.Token;
 import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.ParseDiagnostic;
 import com.afdgraph.report.ReportGenerator;
+import org.w3c.dom.svg.SVGDocument;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 public class MainWindow extends JFrame {
+    private static final int PAGED_REPORT_THRESHOLD = 20_000;
+    private static final long RENDER_CACHE_BYTES = 64L << 20;
+    // Syntax errors listed in the status tooltip; the report has all of them
+    private static final int TOOLTIP_DIAGNOSTICS = 20;
     private JTextArea inputTextArea;
     private GraphPanel graphPanel;
     private JLabel titleLabel;
     private File lastDirectory = null;
     private JComboBox<String> selectAFDCombo;
     private DefaultComboBoxModel<String> comboBoxModel;
-    private final List<Automaton> loadedAutomata = new ArrayList<>();
+    private AutomatonRegistry registry = new AutomatonRegistry();
     private List<Token> tokens = new ArrayList<>();
     private List<LexicalException> errors = new ArrayList<>();
+    private List<ParseDiagnostic> diagnostics = new ArrayList<>();
+    private JButton analyzeButton;
+    private JButton graphButton;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private SwingWorker<?, ?> currentTask;
+    private JLabel statusLabel;
+    // Follows edits in the text area; null while a file is being loaded into it
+    private IncrementalAnalyzer analyzer = new IncrementalAnalyzer("");
+    private final SvgRenderCache renderCache = new SvgRenderCache(Path.of("data/cache/svg"), 32, RENDER_CACHE_BYTES);
 
 
     public MainWindow() {
@@ -51,9 +79,96 @@ public class MainWindow extends JFrame {
                 BorderFactory.createEmptyBorder(10, 10, 10, 10)
         ));
 
+        inputTextArea.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                if (analyzer == null) return;
+                try {
+                    analyzer.insert(e.getOffset(), e.getDocument().getText(e.getOffset(), e.getLength()));
+                } catch (BadLocationException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                showAnalysis();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                if (analyzer == null) return;
+                analyzer.remove(e.getOffset(), e.getLength());
+                showAnalysis();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes only
+            }
+        });
+
         graphPanel = new GraphPanel();
     }
 
+    // Live validation: the analyzer has already relexed and re-parsed what the edit touched
+    private void showAnalysis() {
+        tokens = analyzer.getTokens().asTokenList();
+        errors = analyzer.getErrors();
+        diagnostics = analyzer.getDiagnostics();
+        registry = analyzer.getRegistry();
+        List<Automaton> automata = registry.getAutomata();
+
+        boolean sameNames = comboBoxModel.getSize() == automata.size();
+        for (int i = 0; sameNames && i < automata.size(); i++) {
+            sameNames = automata.get(i).getName().equals(comboBoxModel.getElementAt(i));
+        }
+        if (!sameNames && !(automata.isEmpty() && comboBoxModel.getSize() == 1 &&
+                "No file loaded".equals(comboBoxModel.getElementAt(0)))) {
+            Object selected = comboBoxModel.getSelectedItem();
+            comboBoxModel.removeAllElements();
+            for (Automaton automaton : automata) {
+                comboBoxModel.addElement(automaton.getName());
+            }
+            if (comboBoxModel.getSize() == 0) {
+                comboBoxModel.addElement("No file loaded");
+            } else if (selected != null && comboBoxModel.getIndexOf(selected) >= 0) {
+                comboBoxModel.setSelectedItem(selected);
+            }
+        }
+        showStatus();
+    }
+
+    private void showStatus() {
+        statusLabel.setText(tokens.size() + " tokens, " + errors.size() + " lexical errors, " +
+                diagnostics.size() + " syntax errors");
+        if (diagnostics.isEmpty()) {
+            statusLabel.setToolTipText(null);
+            return;
+        }
+        StringBuilder tip = new StringBuilder("<html>");
+        for (int i = 0; i < Math.min(diagnostics.size(), TOOLTIP_DIAGNOSTICS); i++) {
+            ParseDiagnostic diagnostic = diagnostics.get(i);
+            tip.append("Line ").append(diagnostic.getLine()).append(", column ").append(diagnostic.getColumn())
+                    .append(": ").append(escapeHtml(diagnostic.getMessage())).append("<br>");
+        }
+        if (diagnostics.size() > TOOLTIP_DIAGNOSTICS) {
+            tip.append("... ").append(diagnostics.size() - TOOLTIP_DIAGNOSTICS).append(" more in the report");
+        }
+        statusLabel.setToolTipText(tip.append("</html>").toString());
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    // The report's error table lists lexical errors, then syntax errors marked as such
+    private List<LexicalException> reportErrors() {
+        List<LexicalException> all = new ArrayList<>(errors.size() + diagnostics.size());
+        all.addAll(errors);
+        for (ParseDiagnostic diagnostic : diagnostics) {
+            all.add(new LexicalException("Syntax error: " + diagnostic.getMessage(), diagnostic.getLine(),
+                    diagnostic.getColumn()));
+        }
+        return all;
+    }
+
     private void setupLayout() {
         setLayout(new BorderLayout());
 
@@ -73,7 +188,7 @@ public class MainWindow extends JFrame {
     private JPanel createButtonPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
 
-        JButton analyzeButton = createButton("Analyze File");
+        analyzeButton = createButton("Analyze File");
         analyzeButton.addActionListener(e -> openFileAndLoadContent());
 
         JButton generateButton = createButton("Generate Report");
@@ -85,14 +200,33 @@ public class MainWindow extends JFrame {
         selectAFDCombo = new JComboBox<>(comboBoxModel);
         selectAFDCombo.setFont(new Font("Arial", Font.PLAIN, 12));
         selectAFDCombo.setEnabled(true);
+        selectAFDCombo.addActionListener(e -> showCachedGraph());
 
-        JButton graphButton = createButton("Graph");
+        graphButton = createButton("Graph");
         graphButton.addActionListener(e -> generateGraph());
 
+        JButton testButton = createButton("Test String");
+        testButton.addActionListener(e -> testString());
+
         panel.add(analyzeButton);
         panel.add(generateButton);
         panel.add(selectAFDCombo);
         panel.add(graphButton);
+        panel.add(testButton);
+
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        cancelButton = createButton("Cancel");
+        cancelButton.addActionListener(e -> cancelTask());
+        cancelButton.setVisible(false);
+
+        statusLabel = new JLabel();
+        statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+
+        panel.add(progressBar);
+        panel.add(cancelButton);
+        panel.add(statusLabel);
 
         return panel;
     }
@@ -106,110 +240,129 @@ public class MainWindow extends JFrame {
         File selectedFile = fileDialog.chooseFile(this);
         if (selectedFile != null) {
             lastDirectory = selectedFile.getParentFile();
-            try {
-                String newContent = Files.readString(selectedFile.toPath()).trim();
-
-                if (newContent.startsWith("{") && newContent.endsWith("}")) {
-                    newContent = newContent.substring(1, newContent.length() - 1).trim();
+            String previousContent = inputTextArea.getText();
+            IncrementalAnalyzer loading = analyzer;
+            // The task owns the analyzer until it is done; the document only replays its edits
+            analyzer = null;
+            inputTextArea.setEditable(false);
+
+            runTask(new AnalysisTask(selectedFile, loading, new AnalysisTask.Listener() {
+                @Override
+                public void textEdited(int offset, int length, String text) {
+                    try {
+                        inputTextArea.getDocument().remove(offset, length);
+                        inputTextArea.getDocument().insertString(offset, text, null);
+                    } catch (BadLocationException e) {
+                        throw new IllegalStateException(e);
+                    }
                 }
 
-                String processedContent = getString(newContent);
-
-                inputTextArea.setText(processedContent);
-
-                Lexer lexer = new Lexer(processedContent);
-                lexer.analyze();
-
-                tokens = lexer.getTokens();
-                errors = lexer.getErrors();
-
-                System.out.println("------ Recognized Tokens ------");
-                tokens.forEach(token -> System.out.println("Token: " + token.getType() + " ('" + token.getLexeme() + "')"));
-
-                if (!errors.isEmpty()) {
-                    System.out.println("------ Lexical Errors Detected ------");
-                    errors.forEach(err -> System.out.println("Error: " + err.getErrorMessage() +
-                            " at line " + err.getLine() + ", column " + err.getColumn()));
-                } else {
-                    System.out.println("No lexical errors detected.");
+                @Override
+                public void automatonParsed(Automaton automaton) {
+                    if (comboBoxModel.getIndexOf(automaton.getName()) < 0) {
+                        comboBoxModel.addElement(automaton.getName());
+                    }
+                    comboBoxModel.removeElement("No file loaded");
                 }
 
-                AutomatonParser parser = new AutomatonParser(tokens);
-                List<Automaton> parsedAutomata = parser.parseAll();
-
-                loadedAutomata.clear();
-                comboBoxModel.removeAllElements();
+                @Override
+                public void finished(AnalysisTask.Result result) {
+                    // Edits published just before done() may have been dropped; only the text tells
+                    String content = result.getAnalyzer().getText().toString();
+                    if (!content.equals(inputTextArea.getText())) {
+                        inputTextArea.setText(content);
+                    }
+                    analyzer = result.getAnalyzer();
+                    inputTextArea.setEditable(true);
+                    tokens = result.getTokens();
+                    errors = result.getErrors();
+                    diagnostics = result.getDiagnostics();
+                    registry = result.getRegistry();
+                    showStatus();
+
+                    comboBoxModel.removeAllElements();
+                    for (String name : registry.getNames()) {
+                        comboBoxModel.addElement(name);
+                    }
 
-                for (Automaton automaton : parsedAutomata) {
-                    loadedAutomata.add(automaton);
-                    comboBoxModel.addElement(automaton.getName());
+                    if (comboBoxModel.getSize() == 0) {
+                        comboBoxModel.addElement("No file loaded");
+                    }
                 }
 
-                if (comboBoxModel.getSize() == 0) {
-                    comboBoxModel.addElement("No file loaded");
+                @Override
+                public void cancelled() {
+                    // The task may still be editing its analyzer, so rebuild from what was there before
+                    inputTextArea.setText(previousContent);
+                    restoreAnalyzer(previousContent);
                 }
 
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this, "Error reading file: " + ex.getMessage(),
-                        "File Error", JOptionPane.ERROR_MESSAGE);
-            }
+                @Override
+                public void failed(Exception e) {
+                    cancelled();
+                    JOptionPane.showMessageDialog(MainWindow.this, "Error reading file: " + e.getMessage(),
+                            "File Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }));
         }
     }
 
-    private String getString(String newContent) {
-        String currentContent = inputTextArea.getText().trim();
-        String processedContent;
-
-        if (currentContent.isEmpty()) {
-            processedContent = "{\n" + newContent + "\n}";
-        }
-        else {
-            if (currentContent.startsWith("{") && currentContent.endsWith("}")) {
-                currentContent = currentContent.substring(1, currentContent.length() - 1).trim();
-            }
-
-            Lexer newLexer = new Lexer(newContent);
-            newLexer.analyze();
-            AutomatonParser newParser = new AutomatonParser(newLexer.getTokens());
-            List<Automaton> newAutomata = newParser.parseAll();
-
-            List<String> newAutomataNames = new ArrayList<>();
-            for (Automaton automaton : newAutomata) {
-                newAutomataNames.add(automaton.getName());
+    // Lexing and parsing a whole text again runs in the background; the editor stays read-only
+    // (and unanalyzed) until the new analyzer takes over
+    private void restoreAnalyzer(String content) {
+        runTask(new SwingWorker<IncrementalAnalyzer, Void>() {
+            @Override
+            protected IncrementalAnalyzer doInBackground() {
+                IncrementalAnalyzer restored = new IncrementalAnalyzer(content);
+                restored.parseAll(automaton -> { });
+                return restored;
             }
 
-            String[] automataDefinitions = currentContent.split("(?<=}),");
-
-            StringBuilder filteredContent = new StringBuilder();
-
-            for (String definition : automataDefinitions) {
-                boolean shouldKeep = true;
-
-                for (String name : newAutomataNames) {
-                    String pattern = name + ": {";
-                    int nameIndex = definition.indexOf(pattern);
-
-                    if (nameIndex >= 0 && nameIndex < 10) {
-                        shouldKeep = false;
-                        break;
-                    }
-                }
-
-                if (shouldKeep) {
-                    if (!filteredContent.isEmpty()) {
-                        filteredContent.append(",\n");
-                    }
-                    filteredContent.append(definition);
+            @Override
+            protected void done() {
+                try {
+                    analyzer = get();
+                } catch (InterruptedException | ExecutionException | CancellationException ex) {
+                    // Without an analyzer of its own the text can't be kept in sync; start empty
+                    inputTextArea.setText("");
+                    analyzer = new IncrementalAnalyzer("");
                 }
+                inputTextArea.setEditable(true);
+                showAnalysis();
             }
+        });
+    }
 
-            if (!filteredContent.isEmpty()) {
-                processedContent = "{\n" + filteredContent.toString() + ",\n" + newContent + "\n}";
-            } else {
-                processedContent = "{\n" + newContent + "\n}";
+    // One background task at a time; the progress bar and Cancel button follow it
+    private void runTask(SwingWorker<?, ?> task) {
+        if (currentTask != null && !currentTask.isDone()) {
+            currentTask.cancel(true);
+        }
+        currentTask = task;
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        analyzeButton.setEnabled(false);
+        graphButton.setEnabled(false);
+
+        task.addPropertyChangeListener(event -> {
+            if (task != currentTask) return;
+            if ("progress".equals(event.getPropertyName())) {
+                progressBar.setValue((Integer) event.getNewValue());
+            } else if ("state".equals(event.getPropertyName()) && task.isDone()) {
+                progressBar.setVisible(false);
+                cancelButton.setVisible(false);
+                analyzeButton.setEnabled(true);
+                graphButton.setEnabled(true);
             }
+        });
+        task.execute();
+    }
+
+    private void cancelTask() {
+        if (currentTask != null) {
+            currentTask.cancel(true);
         }
-        return processedContent;
     }
 
     private void generateGraph() {
@@ -219,30 +372,101 @@ public class MainWindow extends JFrame {
             return;
         }
 
-        Automaton selectedAutomaton = loadedAutomata.stream()
-                .filter(a -> a.getName().equals(selectedName))
-                .findFirst()
-                .orElse(null);
+        Automaton selectedAutomaton = registry.get(selectedName);
 
         if (selectedAutomaton == null) {
             JOptionPane.showMessageDialog(this, "AFD not found.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        try {
-            File output = new File("data/output/" + selectedAutomaton.getName() + ".svg");
-            if (!output.getParentFile().mkdirs() && !output.getParentFile().exists()) {
-                JOptionPane.showMessageDialog(this, "Could not create the necessary directories",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                return;
+        File output = new File("data/output/" + selectedAutomaton.getName() + ".svg");
+        if (!output.getParentFile().mkdirs() && !output.getParentFile().exists()) {
+            JOptionPane.showMessageDialog(this, "Could not create the necessary directories",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        if (GraphPanel.isLarge(selectedAutomaton)) {
+            showLargeGraph(selectedAutomaton, output);
+            return;
+        }
+
+        // An unchanged automaton that was shown before needs no layout, file write or parse
+        String key = SvgRenderCache.key(selectedAutomaton);
+        SVGDocument cached = renderCache.getIfPresent(key);
+        if (cached != null && output.exists()) {
+            graphPanel.loadSvg(cached);
+            return;
+        }
+
+        // Layout, file write and DOM parsing happen in the background; only the canvas swap runs on the EDT
+        runTask(new SwingWorker<SVGDocument, Void>() {
+            @Override
+            protected SVGDocument doInBackground() throws Exception {
+                // Rendered at most once per structure; the output file is a copy of the disk entry
+                SVGDocument document = renderCache.get(key, selectedAutomaton);
+                setProgress(60);
+                Path file = renderCache.getFile(key);
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    // Evicted from disk while its document stayed in memory
+                    Files.writeString(output.toPath(), SvgGraphRenderer.renderToString(selectedAutomaton));
+                }
+                return document;
             }
 
-            com.afdgraph.export.DotGraphExporter.exportToSvg(selectedAutomaton, output.toPath());
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    graphPanel.loadSvg(get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(MainWindow.this, "Error generating SVG: " + ex.getCause().getMessage(),
+                            "SVG Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+    }
 
-            graphPanel.loadSvg(output);
+    // Large graphs skip the SVG DOM: the file is still written, but the panel draws the layout in tiles
+    private void showLargeGraph(Automaton automaton, File output) {
+        runTask(new SwingWorker<GraphLayout, Void>() {
+            @Override
+            protected GraphLayout doInBackground() throws Exception {
+                GraphLayout layout = GraphLayout.of(automaton);
+                setProgress(50);
+                try (Writer writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+                    SvgGraphRenderer.render(layout, writer);
+                }
+                return layout;
+            }
 
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(this, "Error generating SVG: " + ex.getMessage(), "SVG Error", JOptionPane.ERROR_MESSAGE);
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    graphPanel.showLayout(get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(MainWindow.this, "Error generating graph: " + ex.getCause().getMessage(),
+                            "Graph Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+    }
+
+    // Re-selecting an automaton shows its graph at once if it is still in the document cache
+    private void showCachedGraph() {
+        Object selectedName = selectAFDCombo.getSelectedItem();
+        Automaton selected = selectedName == null ? null : registry.get((String) selectedName);
+        if (selected == null) return;
+        SVGDocument cached = renderCache.getIfPresent(SvgRenderCache.key(selected));
+        if (cached != null) {
+            graphPanel.loadSvg(cached);
         }
     }
 
@@ -260,7 +484,13 @@ public class MainWindow extends JFrame {
                         "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            ReportGenerator.generateHtmlReport(tokens, errors, outputPath);
+            // A single page stops being usable long before this; switch to the chunked viewer
+            if (tokens.size() > PAGED_REPORT_THRESHOLD) {
+                Path index = ReportGenerator.generatePagedReport(tokens, reportErrors(), Path.of("data/reports/lexical_report"));
+                Desktop.getDesktop().browse(index.toUri());
+                return;
+            }
+            ReportGenerator.generateHtmlReport(tokens, reportErrors(), outputPath);
 
             Desktop.getDesktop().browse(new File(outputPath).toURI());
 
@@ -269,6 +499,32 @@ public class MainWindow extends JFrame {
         }
     }
 
+    // Runs one string through every loaded automaton in a single pass
+    private void testString() {
+        if (registry.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No AFD loaded.", "Warning", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        String input = JOptionPane.showInputDialog(this, "String to test:", "Test String",
+                JOptionPane.QUESTION_MESSAGE);
+        if (input == null) return;
+
+        MultiMatcher.Result result = new MultiMatcher(registry.getAutomata()).match(input);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < result.size(); i++) {
+            message.append(result.getName(i)).append(": ");
+            if (result.isAccepted(i)) {
+                message.append("accepted");
+            } else if (result.getDeadPosition(i) >= 0) {
+                message.append("rejected at position ").append(result.getDeadPosition(i));
+            } else {
+                message.append("rejected");
+            }
+            message.append('\n');
+        }
+        JOptionPane.showMessageDialog(this, message.toString(), "Test String", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private JButton createButton(String text) {
         JButton button = new JButton(text);
         button.setFont(new Font("Arial", Font.PLAIN, 12));
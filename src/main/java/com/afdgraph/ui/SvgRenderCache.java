@@ -0,0 +1,165 @@
+package com.afdgraph.ui;
+
+import com.afdgraph.export.SvgGraphRenderer;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.TransitionIndex;
+import org.w3c.dom.svg.SVGDocument;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Rendered graphs keyed by a hash of everything the layout reads from an automaton, so an unchanged
+// automaton is never laid out or parsed twice. Two tiers: parsed Batik documents in a small LRU, and
+// the SVG markup on disk, trimmed to a byte budget by evicting the least recently used files
+public class SvgRenderCache {
+    // Bump when the renderer output changes, so old disk entries stop matching
+    private static final int RENDER_VERSION = 1;
+    private static final String EXTENSION = ".svg";
+
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final Map<String, SVGDocument> documents;
+
+    public SvgRenderCache(Path directory, int maxDocuments, long maxDiskBytes) {
+        if (maxDocuments < 1) {
+            throw new IllegalArgumentException("Document cache size must be at least 1");
+        }
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.documents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SVGDocument> eldest) {
+                return size() > maxDocuments;
+            }
+        };
+    }
+
+    // SHA-256 over the name, states in layout order with their final flag, the symbols, every edge
+    // and the initial state. Equal automata built separately get the same key
+    public static String key(Automaton automaton) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            TransitionIndex index = automaton.getTransitionIndex();
+            out.writeInt(RENDER_VERSION);
+            out.writeUTF(String.valueOf(automaton.getName()));
+            out.writeInt(index.getStateCount());
+            for (int id = 0; id < index.getStateCount(); id++) {
+                out.writeUTF(index.getState(id).getName());
+                out.writeBoolean(automaton.getFinalStates().contains(index.getState(id)));
+            }
+            out.writeInt(index.getSymbolCount());
+            for (int column = 0; column < index.getSymbolCount(); column++) {
+                out.writeUTF(index.getSymbol(column));
+            }
+            for (int id = 0; id < index.getStateCount(); id++) {
+                int[] row = index.getEdges(id);
+                out.writeInt(row.length);
+                for (int next : row) {
+                    out.writeInt(next);
+                }
+            }
+            out.writeInt(automaton.getInitialState() == null ? TransitionIndex.DEAD
+                    : index.getStateId(automaton.getInitialState()));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    // Memory tier only; cheap enough to call on the EDT
+    public synchronized SVGDocument getIfPresent(String key) {
+        return documents.get(key);
+    }
+
+    // Falls through memory, then disk, then renders and stores in both. Meant for a background thread
+    public SVGDocument get(String key, Automaton automaton) throws IOException {
+        SVGDocument document = getIfPresent(key);
+        if (document != null) return document;
+
+        Path file = getFile(key);
+        String svg;
+        if (Files.isRegularFile(file)) {
+            svg = Files.readString(file, StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } else {
+            svg = SvgGraphRenderer.renderToString(automaton);
+            store(file, svg);
+        }
+
+        document = GraphPanel.parseSvg(svg, automaton.getName());
+        synchronized (this) {
+            documents.put(key, document);
+        }
+        return document;
+    }
+
+    public Path getFile(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    public synchronized int getDocumentCount() {
+        return documents.size();
+    }
+
+    private void store(Path file, String svg) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "render", ".tmp");
+        try {
+            Files.writeString(temporary, svg, StandardCharsets.UTF_8);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        evict(file);
+    }
+
+    // Oldest first until the directory fits the budget; the entry just written is always kept
+    private void evict(Path keep) throws IOException {
+        List<Path> files = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing.filter(p -> p.toString().endsWith(EXTENSION))::iterator) {
+                files.add(file);
+                total += Files.size(file);
+            }
+        }
+        if (total <= maxDiskBytes) return;
+
+        Map<Path, FileTime> modified = new LinkedHashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(modified::get));
+        for (Path file : files) {
+            if (total <= maxDiskBytes) break;
+            if (file.equals(keep)) continue;
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) total -= size;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.afdgraph;
+
+import com.afdgraph.lexer.AutomatonParser;
+import com.afdgraph.lexer.Lexer;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+// Automata shared by the tests: the ones defined in the sample files and random ones
+public final class TestAutomata {
+    public static final String SAMPLE = "data/input/Entrada.lfp";
+
+    private TestAutomata() {
+    }
+
+    // Every automaton of a sample file, lexed and parsed as the application does
+    public static List<Automaton> parseFile(String path) throws IOException {
+        Lexer lexer = new Lexer(Files.readString(Paths.get(path)));
+        lexer.analyze();
+        return new AutomatonParser(lexer.getTokens()).parseAll();
+    }
+
+    public static Automaton parseFile(String path, String name) throws IOException {
+        return parseFile(path).stream()
+                .filter(a -> a.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // About a third of the states are final; each transition is left out once in missingOdds
+    public static Automaton random(Random random, int size, List<String> alphabet, int missingOdds) {
+        Automaton automaton = new Automaton("random");
+        State[] states = new State[size];
+        for (int i = 0; i < size; i++) {
+            states[i] = new State("S" + i);
+            automaton.addState(states[i]);
+            if (random.nextInt(3) == 0) automaton.addFinalState(states[i]);
+        }
+        alphabet.forEach(automaton::addAlphabetSymbol);
+        automaton.setInitialState(states[0]);
+        for (State from : states) {
+            for (String symbol : alphabet) {
+                if (random.nextInt(missingOdds) > 0) automaton.addTransition(from, symbol, states[random.nextInt(size)]);
+            }
+        }
+        return automaton;
+    }
+
+    // Complete over a, b and c, with most edges a few states forward so the layout spreads out
+    // like a real large automaton instead of collapsing into one dense cluster
+    public static Automaton randomLarge(int states, long seed) {
+        Random random = new Random(seed);
+        Automaton automaton = new Automaton("grande");
+        State[] s = new State[states];
+        for (int i = 0; i < states; i++) {
+            s[i] = new State("S" + i);
+            automaton.addState(s[i]);
+            if (random.nextInt(5) == 0) automaton.addFinalState(s[i]);
+        }
+        automaton.setInitialState(s[0]);
+        for (String symbol : List.of("a", "b", "c")) {
+            automaton.addAlphabetSymbol(symbol);
+            for (int i = 0; i < states; i++) {
+                int next = random.nextInt(4) == 0 ? random.nextInt(states) : Math.min(states - 1, i + 1 + random.nextInt(3));
+                automaton.addTransition(s[i], symbol, s[next]);
+            }
+        }
+        return automaton;
+    }
+}
@@ -0,0 +1,146 @@
+package com.afdgraph.batch;
+
+import com.afdgraph.BatchMain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAnalyzerTest {
+    private static final String GOOD = """
+            {
+                AFD1: {
+                    descripcion: "Cadenas con a y b",
+                    estados: [S0, S1],
+                    alfabeto: ["a", "b"],
+                    inicial: S0,
+                    finales: [S1],
+                    transiciones: {
+                        S0 = ("a" -> S1),
+                        S1 = ("b" -> S0)
+                    }
+                }
+            }
+            """;
+
+    // '@' is a lexical error and leaves the description without its comma, which is a syntax error
+    private static final String BROKEN = """
+            {
+                AFD2: {
+                    descripcion: "Con errores" @
+                    estados: [Q0, Q1],
+                    alfabeto: ["0"],
+                    inicial: Q0,
+                    finales: [Q1],
+                    transiciones: {
+                        Q0 = ("0" -> Q1)
+                    }
+                }
+            }
+            """;
+
+    @Test
+    void testAnalyzeDirectory(@TempDir Path directory) throws IOException {
+        Path input = Files.createDirectories(directory.resolve("in"));
+        Path output = directory.resolve("out");
+        Path good = Files.writeString(input.resolve("bueno.lfp"), GOOD);
+        Path broken = Files.writeString(input.resolve("errores.lfp"), BROKEN);
+        // Not valid UTF-8, so reading it fails
+        Path unreadable = Files.write(input.resolve("ilegible.lfp"), new byte[]{(byte) 0xff, (byte) 0xfe, '{'});
+        Files.writeString(input.resolve("notas.txt"), "ignored");
+
+        List<FileAnalysis> results = BatchAnalyzer.withThreads(output, 2).analyzeDirectory(input);
+
+        assertEquals(List.of(good, broken, unreadable), results.stream().map(FileAnalysis::getFile).toList());
+        assertFalse(results.get(0).isFailed());
+        assertFalse(results.get(1).isFailed());
+        assertTrue(results.get(2).isFailed());
+        assertEquals(1, results.get(1).getErrors().size());
+        assertEquals(1, results.get(1).getDiagnostics().size());
+
+        List<String> rows = Files.readAllLines(output.resolve(BatchAnalyzer.SUMMARY_FILE));
+        assertEquals(4, rows.size());
+        assertEquals("file,status,tokens,lexical_errors,syntax_errors,automata,states,transitions,millis", rows.get(0));
+        assertEquals(good + ",OK,55,0,0,1,2,2", withoutMillis(rows.get(1)));
+        assertEquals(broken + ",OK,44,1,1,1,2,1", withoutMillis(rows.get(2)));
+        assertTrue(rows.get(3).startsWith(unreadable + ",FAILED: "), rows.get(3));
+        assertTrue(withoutMillis(rows.get(3)).endsWith(",0,0,0,0,0,0"), rows.get(3));
+
+        assertEquals("""
+                File: %s
+                Tokens: 55
+                Lexical errors: 0
+                Syntax errors: 0
+                Automata: 1
+                  AFD1: states=2, alphabet=2, finals=1, transitions=2
+                """.formatted(good), Files.readString(output.resolve("bueno/analysis.txt")));
+        assertEquals("""
+                File: %s
+                Tokens: 44
+                Lexical errors: 1
+                  Unexpected character: @ at line 3, column 36
+                Syntax errors: 1
+                  Missing COMMA before STATES_KEYWORD 'estados' at line 4, column 2
+                Automata: 1
+                  AFD2: states=2, alphabet=1, finals=1, transitions=1
+                """.formatted(broken), Files.readString(output.resolve("errores/analysis.txt")));
+
+        try (Stream<Path> walk = Files.walk(output)) {
+            List<String> layout = walk.filter(p -> !p.equals(output))
+                    .map(p -> output.relativize(p).toString().replace('\\', '/'))
+                    .sorted()
+                    .toList();
+            assertEquals(List.of("bueno", "bueno/AFD1.dot", "bueno/analysis.txt",
+                    "errores", "errores/AFD2.dot", "errores/analysis.txt", "summary.csv"), layout);
+        }
+    }
+
+    @Test
+    void testMissingFileIsRecordedAsFailure(@TempDir Path directory) throws IOException {
+        Path missing = directory.resolve("no-existe.lfp");
+
+        List<FileAnalysis> results = BatchAnalyzer.withVirtualThreads(directory.resolve("out")).analyzeFiles(List.of(missing));
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).isFailed());
+        assertFalse(Files.exists(directory.resolve("out/no-existe")));
+    }
+
+    @Test
+    void testCommandLineOptions() {
+        BatchMain.Options options = BatchMain.Options.parse(new String[]{
+                "in", "--output", "out", "--threads", "3", "--cache", "cache"});
+
+        assertEquals(Path.of("in"), options.getInput());
+        assertEquals(Path.of("out"), options.getOutput());
+        assertEquals(3, options.getThreads());
+        assertFalse(options.isVirtualThreads());
+        assertEquals(Path.of("cache"), options.getCache());
+        assertTrue(BatchMain.Options.parse(new String[]{"in", "--virtual-threads"}).isVirtualThreads());
+    }
+
+    @Test
+    void testCommandLineErrors() {
+        assertUsageError("Missing input directory");
+        assertUsageError("Missing value for --output", "in", "--output");
+        assertUsageError("Missing value for --threads", "in", "--threads");
+        assertUsageError("Invalid thread count: many", "in", "--threads", "many");
+        assertUsageError("Thread count must be at least 1", "in", "--threads", "0");
+        assertUsageError("Unknown option: --fast", "in", "--fast");
+    }
+
+    private static void assertUsageError(String message, String... args) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BatchMain.Options.parse(args));
+        assertEquals(message, e.getMessage());
+    }
+
+    private static String withoutMillis(String row) {
+        return row.substring(0, row.lastIndexOf(','));
+    }
+}
@@ -0,0 +1,143 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutomatonCacheTest {
+    private static final String SOURCE = """
+            {
+                AFD1: {
+                    descripcion: "Cadenas con a y b",
+                    estados: [S0, S1, S2],
+                    alfabeto: ["a", "b"],
+                    inicial: S0,
+                    finales: [S1, S9],
+                    transiciones: {
+                        S0 = ("a" -> S1),
+                        S1 = ("b" -> S2, "a" -> S1),
+                        S2 = ("a" -> S1)
+                    }
+                },
+                AFD2: {
+                    descripcion: "Dígitos",
+                    estados: [Q0, Q1],
+                    alfabeto: ["0", "1"],
+                    inicial: Q0,
+                    finales: [Q1],
+                    transiciones: {
+                        Q0 = ("0" -> Q1, "1" -> Q1),
+                        Q1 = ("0" -> Q1)
+                    }
+                }
+            }
+            """;
+
+    @Test
+    void testSecondLoadComesFromCache(@TempDir Path directory) throws IOException {
+        Path source = directory.resolve("entrada.lfp");
+        Files.writeString(source, SOURCE);
+        AutomatonCache cache = new AutomatonCache(directory.resolve("cache"));
+
+        AutomatonCache.Entry analyzed = cache.load(source);
+        AutomatonCache.Entry cached = cache.load(source);
+
+        assertFalse(analyzed.isCached());
+        assertTrue(cached.isCached());
+        assertEquals(analyzed.getTokenCount(), cached.getTokenCount());
+        assertEquals(analyzed.getErrors().toString(), cached.getErrors().toString());
+        assertEquals(2, cached.getAutomata().size());
+
+        for (int i = 0; i < 2; i++) {
+            Automaton expected = analyzed.getAutomata().get(i);
+            Automaton actual = cached.getAutomata().get(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getStates(), actual.getStates());
+            assertEquals(List.copyOf(expected.getAlphabet()), List.copyOf(actual.getAlphabet()));
+            assertEquals(expected.getInitialState(), actual.getInitialState());
+            assertEquals(expected.getFinalStates(), actual.getFinalStates());
+            assertEquals(expected.getTransitions(), actual.getTransitions());
+            assertTrue(ProductAutomata.equivalent(expected, actual));
+        }
+
+        CompiledAutomaton first = cached.getCompiled().get(0);
+        assertTrue(first.accepts("aaba"));
+        assertFalse(first.accepts("ab"));
+        for (State state : cached.getAutomata().get(0).getFinalStates()) {
+            assertTrue(state.isFinal());
+        }
+    }
+
+    @Test
+    void testChangedContentMisses(@TempDir Path directory) throws IOException {
+        Path source = directory.resolve("entrada.lfp");
+        Path cacheDirectory = directory.resolve("cache");
+        Files.writeString(source, SOURCE);
+        AutomatonCache cache = new AutomatonCache(cacheDirectory);
+        cache.load(source);
+
+        Files.writeString(source, SOURCE.replace("finales: [S1, S9]", "finales: [S2]"));
+        AutomatonCache.Entry changed = cache.load(source);
+        assertFalse(changed.isCached());
+        assertTrue(changed.getCompiled().get(0).accepts("ab"));
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            assertEquals(2, entries.count());
+        }
+    }
+
+    @Test
+    void testDamagedEntryIsAnalyzedAgain(@TempDir Path directory) throws IOException {
+        Path source = directory.resolve("entrada.lfp");
+        Path cacheDirectory = directory.resolve("cache");
+        Files.writeString(source, SOURCE);
+        AutomatonCache cache = new AutomatonCache(cacheDirectory);
+        cache.load(source);
+
+        Path entry;
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            entry = entries.findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+
+        AutomatonCache.Entry reloaded = cache.load(source);
+        assertFalse(reloaded.isCached());
+        assertEquals(2, reloaded.getAutomata().size());
+        assertTrue(cache.load(source).isCached());
+    }
+
+    @Test
+    void testEntryFromOlderVersionMisses(@TempDir Path directory) throws IOException {
+        Path source = directory.resolve("entrada.lfp");
+        Path cacheDirectory = directory.resolve("cache");
+        Files.writeString(source, SOURCE);
+        AutomatonCache cache = new AutomatonCache(cacheDirectory);
+        cache.load(source);
+
+        // Same content hash, written by the previous parser: the version right after the magic is one lower
+        Path entry;
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            entry = entries.findFirst().orElseThrow();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(entry));
+        bytes.putInt(4, bytes.getInt(4) - 1);
+        Files.write(entry, bytes.array());
+
+        AutomatonCache.Entry reloaded = cache.load(source);
+        assertFalse(reloaded.isCached());
+        assertEquals(2, reloaded.getAutomata().size());
+        assertTrue(cache.load(source).isCached());
+    }
+}
@@ -0,0 +1,76 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.TestAutomata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEvaluatorTest {
+
+    private static CompiledAutomaton afd1() throws IOException {
+        return CompiledAutomaton.compile(TestAutomata.parseFile(TestAutomata.SAMPLE, "AFD1"));
+    }
+
+    private static List<String> randomInputs(int count, int maxLength) {
+        Random random = new Random(count);
+        List<String> inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(maxLength + 1);
+            for (int j = 0; j < length; j++) {
+                input.append("1231x".charAt(random.nextInt(5)));
+            }
+            inputs.add(input.toString());
+        }
+        return inputs;
+    }
+
+    @Test
+    void testParallelResultsMatchSequentialRuns() throws IOException {
+        CompiledAutomaton dfa = afd1();
+        // Not a multiple of 64, and large enough to be split across tasks
+        List<String> inputs = randomInputs(100_003, 12);
+
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            BatchEvaluator.Result result = new BatchEvaluator(dfa, pool).evaluate(inputs, true);
+
+            assertEquals(inputs.size(), result.size());
+            int accepted = 0;
+            for (int i = 0; i < inputs.size(); i++) {
+                int state = dfa.run(inputs.get(i));
+                assertEquals(state, result.getFinalState(i), "input " + i);
+                assertEquals(dfa.isAccepting(state), result.isAccepted(i), "input " + i);
+                if (dfa.isAccepting(state)) accepted++;
+            }
+            assertEquals(accepted, result.getAcceptedCount());
+            assertEquals(accepted, result.getAccepted().cardinality());
+        }
+    }
+
+    @Test
+    void testSmallBatchesAndFiles(@TempDir Path directory) throws IOException {
+        CompiledAutomaton dfa = afd1();
+        BatchEvaluator evaluator = new BatchEvaluator(dfa);
+
+        BatchEvaluator.Result empty = evaluator.evaluate(List.of());
+        assertEquals(0, empty.size());
+        assertFalse(empty.hasFinalStates());
+        assertThrows(IllegalStateException.class, () -> empty.getFinalState(0));
+
+        Path file = directory.resolve("inputs.txt");
+        Files.write(file, List.of("", "1222", "23", "13", "231"));
+        BatchEvaluator.Result result = evaluator.evaluate(file, false);
+        assertEquals(5, result.size());
+        assertEquals("{0, 1, 4}", result.getAccepted().toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> result.isAccepted(5));
+    }
+}
@@ -0,0 +1,44 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.TestAutomata;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledAutomatonTest {
+
+    @Test
+    void testAcceptsSingleCharacterAlphabet() throws IOException {
+        CompiledAutomaton dfa = CompiledAutomaton.compile(TestAutomata.parseFile(TestAutomata.SAMPLE, "AFD1"));
+
+        assertEquals(9, dfa.getStateCount());
+        assertEquals(3, dfa.getSymbolCount());
+
+        assertTrue(dfa.accepts(""), "S0 is final, so the empty string is accepted");
+        assertTrue(dfa.accepts("1222"));
+        assertTrue(dfa.accepts("231"));
+        assertFalse(dfa.accepts("23"), "S4 is not a final state");
+        assertFalse(dfa.accepts("13"), "S1 has no transition on '3'");
+        assertFalse(dfa.accepts("1x"), "Symbols outside the alphabet reject");
+
+        assertEquals(CompiledAutomaton.DEAD, dfa.run("13"));
+        assertEquals("S4", dfa.getState(dfa.run("2333")).getName());
+    }
+
+    @Test
+    void testRunsMultiCharacterSymbols() throws IOException {
+        CompiledAutomaton dfa = CompiledAutomaton.compile(TestAutomata.parseFile(TestAutomata.SAMPLE, "numero"));
+
+        assertTrue(dfa.accepts(List.of("digit", ".", "digit")));
+        assertTrue(dfa.accepts(List.of("digit", "digit")));
+        assertFalse(dfa.accepts(List.of("digit", ".")));
+
+        int digit = dfa.getSymbolColumn("digit");
+        int dot = dfa.getSymbolColumn(".");
+        assertTrue(dfa.accepts(new int[]{digit, dot, digit, digit}));
+        assertFalse(dfa.accepts(new int[]{dot, digit}));
+    }
+}
@@ -0,0 +1,137 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.TestAutomata;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DfaMinimizerTest {
+
+    @Test
+    void testMergesEquivalentAndDropsUnreachableStates() {
+        // Even number of a's; S2 duplicates S0, S4 is unreachable and S3 can never accept
+        Automaton automaton = new Automaton("pares");
+        State[] s = new State[5];
+        for (int i = 0; i < s.length; i++) {
+            s[i] = new State("S" + i);
+            automaton.addState(s[i]);
+        }
+        automaton.addAlphabetSymbol("a");
+        automaton.addAlphabetSymbol("b");
+        automaton.setInitialState(s[0]);
+        automaton.addFinalState(s[0]);
+        automaton.addFinalState(s[2]);
+        automaton.addTransition(s[0], "a", s[1]);
+        automaton.addTransition(s[0], "b", s[0]);
+        automaton.addTransition(s[1], "a", s[2]);
+        automaton.addTransition(s[1], "b", s[3]);
+        automaton.addTransition(s[2], "a", s[1]);
+        automaton.addTransition(s[2], "b", s[2]);
+        automaton.addTransition(s[3], "a", s[3]);
+        automaton.addTransition(s[4], "a", s[0]);
+
+        DfaMinimizer.Result result = DfaMinimizer.minimize(automaton);
+        Automaton minimized = result.getAutomaton();
+
+        assertEquals(2, minimized.getStates().size());
+        assertEquals(List.of(s[4]), result.getUnreachableStates());
+        assertEquals(List.of(s[3]), result.getDeadStates());
+        assertSame(result.getStateMapping().get(s[0]), result.getStateMapping().get(s[2]));
+        assertEquals("S0", minimized.getInitialState().getName());
+        assertTrue(result.getReport().contains("S0 <- S0, S2"));
+        assertSameLanguage(automaton, minimized, List.of("a", "b"), 8);
+    }
+
+    @Test
+    void testSampleAutomataKeepTheirLanguage() throws IOException {
+        for (Automaton automaton : TestAutomata.parseFile(TestAutomata.SAMPLE)) {
+            Automaton minimized = DfaMinimizer.minimize(automaton).getAutomaton();
+            assertTrue(minimized.getStates().size() <= automaton.getStates().size());
+            assertSameLanguage(automaton, minimized, List.copyOf(automaton.getAlphabet()), 6);
+            // Minimizing twice changes nothing
+            assertEquals(minimized.getStates().size(),
+                    DfaMinimizer.minimize(minimized).getAutomaton().getStates().size());
+        }
+    }
+
+    @Test
+    void testRandomAutomataReachTheMinimalSize() {
+        Random random = new Random(7);
+        List<String> alphabet = List.of("a", "b", "c");
+        for (int round = 0; round < 200; round++) {
+            Automaton automaton = TestAutomata.random(random, 1 + random.nextInt(12), alphabet, 5);
+            Automaton minimized = DfaMinimizer.minimize(automaton).getAutomaton();
+            assertSameLanguage(automaton, minimized, alphabet, 6);
+
+            // In a minimal DFA every pair of states is told apart by some suffix
+            CompiledAutomaton dfa = CompiledAutomaton.compile(minimized);
+            boolean[][] marked = distinguishable(dfa);
+            for (int p = 0; p < dfa.getStateCount(); p++) {
+                for (int q = p + 1; q <= dfa.getStateCount(); q++) {
+                    // Only an automaton that accepts nothing keeps a state equivalent to the sink
+                    assertTrue(marked[p][q] || minimized.getFinalStates().isEmpty(), "round " + round);
+                }
+            }
+        }
+    }
+
+    // Table-filling: a pair is distinguishable if acceptance differs or some symbol leads to such a pair.
+    // The extra index dfa.getStateCount() stands for the missing-transition sink
+    private static boolean[][] distinguishable(CompiledAutomaton dfa) {
+        int n = dfa.getStateCount() + 1;
+        boolean[][] marked = new boolean[n][n];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < n; p++) {
+                for (int q = 0; q < n; q++) {
+                    if (marked[p][q]) continue;
+                    boolean differ = accepting(dfa, p) != accepting(dfa, q);
+                    for (int column = 0; !differ && column < dfa.getSymbolCount(); column++) {
+                        differ = marked[step(dfa, p, column)][step(dfa, q, column)];
+                    }
+                    if (differ) {
+                        marked[p][q] = true;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return marked;
+    }
+
+    private static boolean accepting(CompiledAutomaton dfa, int state) {
+        return state < dfa.getStateCount() && dfa.isAccepting(state);
+    }
+
+    private static int step(CompiledAutomaton dfa, int state, int column) {
+        if (state == dfa.getStateCount()) return state;
+        int next = dfa.step(state, column);
+        return next == CompiledAutomaton.DEAD ? dfa.getStateCount() : next;
+    }
+
+    private static void assertSameLanguage(Automaton expected, Automaton actual, List<String> alphabet,
+                                           int maxLength) {
+        CompiledAutomaton a = CompiledAutomaton.compile(expected);
+        CompiledAutomaton b = CompiledAutomaton.compile(actual);
+        for (int length = 0; length <= maxLength; length++) {
+            long total = (long) Math.pow(alphabet.size(), length);
+            for (long w = 0; w < total; w++) {
+                long rest = w;
+                String[] symbols = new String[length];
+                for (int i = 0; i < length; i++) {
+                    symbols[i] = alphabet.get((int) (rest % alphabet.size()));
+                    rest /= alphabet.size();
+                }
+                assertEquals(a.accepts(List.of(symbols)), b.accepts(List.of(symbols)),
+                        String.join("", symbols));
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongestMatchTokenizerTest {
+    private static final String LETTERS = "abcdefif";
+    private static final String DIGITS = "0123456789";
+
+    @Test
+    void testLongestMatchAndPriorities() {
+        Automaton keyword = keyword("if");
+        Automaton word = repeat("palabra", LETTERS);
+        Automaton number = number();
+        Automaton space = repeat("espacio", " ");
+
+        // The keyword is listed after word but has the higher priority
+        LongestMatchTokenizer tokenizer = new LongestMatchTokenizer(List.of(word, keyword, number, space),
+                new int[]{0, 1, 0, 0});
+        List<LongestMatchTokenizer.Match> matches = tokenizer.tokenize("if iff 12.5 3. x");
+
+        assertEquals("[si[0, 2), espacio[2, 3), palabra[3, 6), espacio[6, 7), numero[7, 11), " +
+                "espacio[11, 12), numero[12, 13)]", matches.subList(0, 7).toString());
+        // "3." backs up to the last accept, leaving "." and then "x" unmatched
+        List<Integer> unmatched = new ArrayList<>();
+        tokenizer.scan("3. x", new LongestMatchTokenizer.Listener() {
+            @Override
+            public void match(int automaton, int start, int end) {
+            }
+
+            @Override
+            public void unmatched(int position) {
+                unmatched.add(position);
+            }
+        });
+        assertEquals(List.of(1, 3), unmatched);
+    }
+
+    @Test
+    void testMatchesBruteForceScan() {
+        List<Automaton> automata = List.of(keyword("if"), repeat("palabra", LETTERS), number(),
+                repeat("espacio", " "));
+        LongestMatchTokenizer tokenizer = new LongestMatchTokenizer(automata);
+        List<CompiledAutomaton> compiled = new ArrayList<>();
+        for (Automaton automaton : automata) {
+            compiled.add(CompiledAutomaton.compile(automaton));
+        }
+
+        Random random = new Random(21);
+        String chars = LETTERS + DIGITS + " .x";
+        for (int round = 0; round < 500; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                text.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            assertEquals(bruteForce(compiled, text.toString()), tokenizer.tokenize(text).toString(), text.toString());
+        }
+    }
+
+    // Tries every end from the longest down, first automaton in list order wins
+    private static String bruteForce(List<CompiledAutomaton> automata, String text) {
+        List<String> matches = new ArrayList<>();
+        int position = 0;
+        while (position < text.length()) {
+            int end = -1;
+            String name = null;
+            for (int candidate = text.length(); candidate > position && name == null; candidate--) {
+                for (CompiledAutomaton dfa : automata) {
+                    if (dfa.accepts(text.substring(position, candidate))) {
+                        end = candidate;
+                        name = dfa.getName();
+                        break;
+                    }
+                }
+            }
+            if (name == null) {
+                position++;
+            } else {
+                matches.add(name + "[" + position + ", " + end + ")");
+                position = end;
+            }
+        }
+        return matches.toString();
+    }
+
+    private static Automaton keyword(String text) {
+        Automaton automaton = new Automaton("si");
+        State previous = new State("S0");
+        automaton.addState(previous);
+        automaton.setInitialState(previous);
+        for (int i = 0; i < text.length(); i++) {
+            State next = new State("S" + (i + 1));
+            String symbol = String.valueOf(text.charAt(i));
+            automaton.addState(next);
+            automaton.addAlphabetSymbol(symbol);
+            automaton.addTransition(previous, symbol, next);
+            previous = next;
+        }
+        automaton.addFinalState(previous);
+        return automaton;
+    }
+
+    // One or more chars of the given set
+    private static Automaton repeat(String name, String chars) {
+        Automaton automaton = new Automaton(name);
+        State start = new State("S0");
+        State loop = new State("S1");
+        automaton.addState(start);
+        automaton.addState(loop);
+        automaton.setInitialState(start);
+        automaton.addFinalState(loop);
+        for (char c : chars.toCharArray()) {
+            automaton.addAlphabetSymbol(String.valueOf(c));
+            automaton.addTransition(start, String.valueOf(c), loop);
+            automaton.addTransition(loop, String.valueOf(c), loop);
+        }
+        return automaton;
+    }
+
+    // digits ("." digits)?
+    private static Automaton number() {
+        Automaton automaton = new Automaton("numero");
+        State[] s = {new State("S0"), new State("S1"), new State("S2"), new State("S3")};
+        for (State state : s) {
+            automaton.addState(state);
+        }
+        automaton.setInitialState(s[0]);
+        automaton.addFinalState(s[1]);
+        automaton.addFinalState(s[3]);
+        automaton.addAlphabetSymbol(".");
+        automaton.addTransition(s[1], ".", s[2]);
+        for (char c : DIGITS.toCharArray()) {
+            String digit = String.valueOf(c);
+            automaton.addAlphabetSymbol(digit);
+            automaton.addTransition(s[0], digit, s[1]);
+            automaton.addTransition(s[1], digit, s[1]);
+            automaton.addTransition(s[2], digit, s[3]);
+            automaton.addTransition(s[3], digit, s[3]);
+        }
+        return automaton;
+    }
+}
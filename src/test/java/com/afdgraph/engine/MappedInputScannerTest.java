@@ -0,0 +1,151 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedInputScannerTest {
+
+    @Test
+    void testLinesAcrossWindows(@TempDir Path directory) throws IOException {
+        CompiledAutomaton evenAs = CompiledAutomaton.compile(evenAs());
+        Random random = new Random(4);
+        StringBuilder text = new StringBuilder();
+        for (int line = 0; line < 300; line++) {
+            for (int i = random.nextInt(30); i > 0; i--) {
+                text.append("aab".charAt(random.nextInt(3)));
+            }
+            text.append(random.nextInt(4) == 0 ? "\r\n" : "\n");
+        }
+        text.append("aa");
+        Path file = directory.resolve("lines.txt");
+        Files.writeString(file, text, StandardCharsets.ISO_8859_1);
+
+        List<String> expected = new ArrayList<>();
+        for (String line : text.toString().split("\r?\n", -1)) {
+            expected.add(line + "=" + evenAs.accepts(line));
+        }
+
+        // A tiny window puts many lines, and line breaks, across window boundaries
+        try (MappedInputScanner scanner = new MappedInputScanner(file, 7, 3)) {
+            List<String> actual = new ArrayList<>();
+            long lines = scanner.acceptLines(evenAs, (number, start, end, state, accepted) ->
+                    actual.add(text.substring((int) start, (int) end) + "=" + accepted));
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), lines);
+            assertEquals(evenAs.run(text), scanner.run(evenAs));
+        }
+    }
+
+    @Test
+    void testTokenizeMatchesInMemoryScan(@TempDir Path directory) throws IOException {
+        LongestMatchTokenizer tokenizer = new LongestMatchTokenizer(List.of(repeat("as", 'a'), repeat("bs", 'b'),
+                repeat("espacios", ' ')));
+        Random random = new Random(8);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("aaa b".charAt(random.nextInt(5)));
+        }
+        Path file = directory.resolve("tokens.txt");
+        Files.writeString(file, text, StandardCharsets.ISO_8859_1);
+
+        List<String> expected = new ArrayList<>();
+        tokenizer.scan(text, (automaton, start, end) -> expected.add(automaton + ":" + start + "-" + end));
+
+        // The overlap is longer than any token in this text, so windows change nothing
+        try (MappedInputScanner scanner = new MappedInputScanner(file, 50, 64)) {
+            List<String> actual = new ArrayList<>();
+            scanner.tokenize(tokenizer, (automaton, start, end) -> actual.add(automaton + ":" + start + "-" + end));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testTokensLongerThanOverlap(@TempDir Path directory) throws IOException {
+        LongestMatchTokenizer tokenizer = new LongestMatchTokenizer(List.of(repeat("as", 'a'), repeat("bs", 'b')));
+        Random random = new Random(15);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            text.append(String.valueOf("ab".charAt(i % 2)).repeat(1 + random.nextInt(i < 20 ? 12 : 200)));
+            if (random.nextInt(4) == 0) text.append('-');
+        }
+        Path file = directory.resolve("long-tokens.txt");
+        Files.writeString(file, text, StandardCharsets.ISO_8859_1);
+
+        List<String> expected = new ArrayList<>();
+        tokenizer.scan(text, new LongestMatchTokenizer.Listener() {
+            @Override
+            public void match(int automaton, int start, int end) {
+                expected.add(automaton + ":" + start + "-" + end);
+            }
+
+            @Override
+            public void unmatched(int position) {
+                expected.add("?" + position);
+            }
+        });
+
+        // Runs of up to 200 chars against windows of 8 and an overlap of 3: tokens are carried over
+        // to the next window and, when one is longer than a whole window, the overlap grows
+        try (MappedInputScanner scanner = new MappedInputScanner(file, 8, 3)) {
+            List<String> actual = new ArrayList<>();
+            scanner.tokenize(tokenizer, new MappedInputScanner.TokenListener() {
+                @Override
+                public void match(int automaton, long start, long end) {
+                    actual.add(automaton + ":" + start + "-" + end);
+                }
+
+                @Override
+                public void unmatched(long position) {
+                    actual.add("?" + position);
+                }
+            });
+            assertEquals(expected, actual);
+        }
+    }
+
+    // Strings of a's and b's with an even number of a's
+    private static Automaton evenAs() {
+        Automaton automaton = new Automaton("pares");
+        State even = new State("S0");
+        State odd = new State("S1");
+        automaton.addState(even);
+        automaton.addState(odd);
+        automaton.addAlphabetSymbol("a");
+        automaton.addAlphabetSymbol("b");
+        automaton.setInitialState(even);
+        automaton.addFinalState(even);
+        automaton.addTransition(even, "a", odd);
+        automaton.addTransition(odd, "a", even);
+        automaton.addTransition(even, "b", even);
+        automaton.addTransition(odd, "b", odd);
+        return automaton;
+    }
+
+    // One or more repetitions of c
+    private static Automaton repeat(String name, char c) {
+        String symbol = String.valueOf(c);
+        Automaton automaton = new Automaton(name);
+        State start = new State("S0");
+        State loop = new State("S1");
+        automaton.addState(start);
+        automaton.addState(loop);
+        automaton.addAlphabetSymbol(symbol);
+        automaton.setInitialState(start);
+        automaton.addFinalState(loop);
+        automaton.addTransition(start, symbol, loop);
+        automaton.addTransition(loop, symbol, loop);
+        return automaton;
+    }
+}
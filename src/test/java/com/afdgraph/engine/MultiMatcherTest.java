@@ -0,0 +1,81 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.TestAutomata;
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiMatcherTest {
+
+    @Test
+    void testMatchesEachAutomatonRunAlone() throws IOException {
+        List<Automaton> automata = new ArrayList<>();
+        for (String file : List.of(TestAutomata.SAMPLE, "data/input/Entrada1.lfp")) {
+            automata.addAll(TestAutomata.parseFile(file));
+        }
+        automata.add(new Automaton("sin inicial"));
+
+        MultiMatcher matcher = new MultiMatcher(automata);
+        assertEquals(automata.size(), matcher.getAutomatonCount());
+
+        Random random = new Random(9);
+        String chars = "0123abc_+-*/x.";
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder input = new StringBuilder();
+            for (int i = random.nextInt(8); i > 0; i--) {
+                input.append(chars.charAt(random.nextInt(chars.length())));
+            }
+
+            MultiMatcher.Result result = matcher.match(input);
+            for (int i = 0; i < automata.size(); i++) {
+                CompiledAutomaton dfa = CompiledAutomaton.compile(automata.get(i));
+                assertEquals(dfa.accepts(input), result.isAccepted(i), input + " " + automata.get(i).getName());
+                assertEquals(deadPosition(dfa, input), result.getDeadPosition(i),
+                        input + " " + automata.get(i).getName());
+            }
+        }
+    }
+
+    @Test
+    void testReportsAcceptingNames() {
+        Automaton ones = automaton("unos", '1');
+        Automaton twos = automaton("doses", '2');
+        MultiMatcher.Result result = new MultiMatcher(List.of(ones, twos)).match("111");
+
+        assertEquals(List.of("unos"), result.getAcceptingNames());
+        assertEquals(-1, result.getDeadPosition(0));
+        assertEquals(0, result.getDeadPosition(1));
+    }
+
+    // Accepts one or more repetitions of c
+    private static Automaton automaton(String name, char c) {
+        Automaton automaton = new Automaton(name);
+        State start = new State("S0");
+        State loop = new State("S1");
+        automaton.addState(start);
+        automaton.addState(loop);
+        automaton.addAlphabetSymbol(String.valueOf(c));
+        automaton.setInitialState(start);
+        automaton.addFinalState(loop);
+        automaton.addTransition(start, String.valueOf(c), loop);
+        automaton.addTransition(loop, String.valueOf(c), loop);
+        return automaton;
+    }
+
+    private static int deadPosition(CompiledAutomaton dfa, CharSequence input) {
+        int state = dfa.getInitialState();
+        if (state == CompiledAutomaton.DEAD) return 0;
+        for (int i = 0; i < input.length(); i++) {
+            state = dfa.step(state, dfa.getColumn(input.charAt(i)));
+            if (state == CompiledAutomaton.DEAD) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,103 @@
+package com.afdgraph.engine;
+
+import com.afdgraph.TestAutomata;
+import com.afdgraph.models.Automaton;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductAutomataTest {
+    private static final List<String> ALL_SYMBOLS = List.of("a", "b", "c");
+
+    @Test
+    void testOperationsMatchBothAutomata() {
+        Random random = new Random(11);
+        for (int round = 0; round < 100; round++) {
+            // Different alphabets, so each side also has symbols the other doesn't know
+            Automaton first = TestAutomata.random(random, 1 + random.nextInt(6), List.of("a", "b"), 4);
+            Automaton second = TestAutomata.random(random, 1 + random.nextInt(6), List.of("b", "c"), 4);
+            CompiledAutomaton a = CompiledAutomaton.compile(first);
+            CompiledAutomaton b = CompiledAutomaton.compile(second);
+            CompiledAutomaton and = CompiledAutomaton.compile(ProductAutomata.intersection(first, second));
+            CompiledAutomaton or = CompiledAutomaton.compile(ProductAutomata.union(first, second));
+            CompiledAutomaton minus = CompiledAutomaton.compile(ProductAutomata.difference(first, second));
+
+            for (List<String> word : words(ALL_SYMBOLS, 5)) {
+                boolean inA = a.accepts(word);
+                boolean inB = b.accepts(word);
+                assertEquals(inA && inB, and.accepts(word), "round " + round + " " + word);
+                assertEquals(inA || inB, or.accepts(word), "round " + round + " " + word);
+                assertEquals(inA && !inB, minus.accepts(word), "round " + round + " " + word);
+            }
+        }
+    }
+
+    @Test
+    void testComplementOverDeclaredAlphabet() {
+        Random random = new Random(5);
+        List<String> alphabet = List.of("a", "b");
+        for (int round = 0; round < 50; round++) {
+            Automaton automaton = TestAutomata.random(random, 1 + random.nextInt(6), alphabet, 4);
+            CompiledAutomaton original = CompiledAutomaton.compile(automaton);
+            CompiledAutomaton complement = CompiledAutomaton.compile(ProductAutomata.complement(automaton));
+            for (List<String> word : words(alphabet, 6)) {
+                assertNotEquals(original.accepts(word), complement.accepts(word), "round " + round + " " + word);
+            }
+        }
+    }
+
+    @Test
+    void testEquivalenceWithCounterexample() throws IOException {
+        for (Automaton automaton : TestAutomata.parseFile(TestAutomata.SAMPLE)) {
+            Automaton minimized = DfaMinimizer.minimize(automaton).getAutomaton();
+            assertTrue(ProductAutomata.equivalent(automaton, minimized), automaton.getName());
+            assertFalse(ProductAutomata.equivalent(automaton, ProductAutomata.complement(automaton)));
+        }
+
+        Random random = new Random(3);
+        for (int round = 0; round < 100; round++) {
+            Automaton first = TestAutomata.random(random, 1 + random.nextInt(6), List.of("a", "b"), 4);
+            Automaton second = TestAutomata.random(random, 1 + random.nextInt(6), List.of("a", "b"), 4);
+            CompiledAutomaton a = CompiledAutomaton.compile(first);
+            CompiledAutomaton b = CompiledAutomaton.compile(second);
+
+            // Shortest word accepted by exactly one side, found by brute force
+            List<String> expected = null;
+            for (List<String> word : words(List.of("a", "b"), 8)) {
+                if (a.accepts(word) != b.accepts(word)) {
+                    expected = word;
+                    break;
+                }
+            }
+            Optional<List<String>> counterexample = ProductAutomata.findCounterexample(first, second);
+            if (expected == null) {
+                assertTrue(counterexample.isEmpty() || counterexample.get().size() > 8, "round " + round);
+            } else {
+                List<String> word = counterexample.orElseThrow();
+                assertEquals(expected.size(), word.size(), "round " + round);
+                assertNotEquals(a.accepts(word), b.accepts(word), "round " + round);
+            }
+        }
+    }
+
+    // Every word up to maxLength, shortest first
+    private static List<List<String>> words(List<String> alphabet, int maxLength) {
+        List<List<String>> words = new ArrayList<>();
+        words.add(List.of());
+        for (int start = 0; start < words.size(); start++) {
+            if (words.get(start).size() == maxLength) break;
+            for (String symbol : alphabet) {
+                List<String> word = new ArrayList<>(words.get(start));
+                word.add(symbol);
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -3,14 +3,22 @@ package com.afdgraph.export;
 import com.afdgraph.lexer.AutomatonParser;
 import com.afdgraph.lexer.Lexer;
 import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
 import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 
+import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 public class DotGraphExporterTest {
 
     @Test
@@ -31,4 +39,26 @@ public class DotGraphExporterTest {
         }
     }
 
+    @Test
+    void testRenderSvgInProcess() throws Exception {
+        String content = Files.readString(Paths.get("data/input/Entrada.lfp"));
+
+        Lexer lexer = new Lexer(content);
+        lexer.analyze();
+        List<Automaton> automata = new AutomatonParser(lexer.getTokens()).parseAll();
+
+        for (Automaton a : automata) {
+            String svg = SvgGraphRenderer.renderToString(a);
+
+            // Must be well-formed XML with one circle per state (plus the start point and final rings)
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new InputSource(new StringReader(svg)));
+            int circles = document.getElementsByTagName("circle").getLength();
+            assertEquals(a.getStates().size() + a.getFinalStates().size() + 1, circles, a.getName());
+
+            for (State state : a.getStates()) {
+                assertTrue(svg.contains(">" + state.getName() + "</text>"), "Missing label for " + state.getName());
+            }
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package com.afdgraph.lexer;
 
 import com.afdgraph.models.Automaton;
+import com.afdgraph.models.ParseDiagnostic;
 import com.afdgraph.models.Token;
+import com.afdgraph.models.TokenStream;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -9,8 +11,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AutomatonParserTest {
@@ -105,4 +111,185 @@ public class AutomatonParserTest {
             System.out.println(automaton);
         }
     }
+
+    @Test
+    void testParserFromTokenStream() throws IOException {
+        String content = Files.readString(Paths.get("data/input/Entrada.lfp"));
+
+        Lexer listLexer = new Lexer(content);
+        listLexer.analyze();
+        List<Automaton> fromList = new AutomatonParser(listLexer.getTokens()).parseAll();
+
+        Lexer streamLexer = new Lexer(content);
+        TokenStream stream = streamLexer.analyzeToStream();
+        List<Automaton> fromStream = new AutomatonParser(stream).parseAll();
+
+        assertEquals(listLexer.getTokens().size(), stream.size());
+        for (int i = 0; i < stream.size(); i++) {
+            Token token = listLexer.getTokens().get(i);
+            assertEquals(token.getType(), stream.getType(i));
+            assertEquals(token.getLexeme(), stream.getLexeme(i));
+            assertEquals(token.getLine(), stream.getLine(i));
+            assertEquals(token.getColumn(), stream.getColumn(i));
+        }
+
+        assertEquals(fromList.size(), fromStream.size());
+        for (int i = 0; i < fromList.size(); i++) {
+            assertEquals(fromList.get(i).toString(), fromStream.get(i).toString());
+            assertEquals(fromList.get(i).getTransitions().toString(), fromStream.get(i).getTransitions().toString());
+        }
+    }
+
+    @Test
+    void testRecoversFromMissingCommaAndBrace() {
+        String input = """
+        {
+            AFD1: {
+                estados: [S0, S1]
+                alfabeto: ["a"],
+                inicial: S0,
+                finales: [S1],
+                transiciones: {
+                    S0 = ("a" -> S1)
+                }
+
+            AFD2: {
+                estados: [Q0],
+                alfabeto: ["b"],
+                inicial: Q0,
+                finales: [Q0],
+                transiciones: {
+                    Q0 = ("b" -> Q0)
+                }
+            }
+        }
+        """;
+        AutomatonParser parser = parser(input);
+        List<Automaton> automata = parser.parseAll();
+
+        // The missing comma and the unclosed AFD1 are reported, and AFD2 is still read whole
+        assertEquals(List.of("AFD1", "AFD2"), automata.stream().map(Automaton::getName).toList());
+        assertNotNull(automata.get(0).getTransition(automata.get(0).getInitialState(), "a"));
+        assertNotNull(automata.get(1).getTransition(automata.get(1).getInitialState(), "b"));
+        assertEquals(2, parser.getDiagnostics().size(), parser.getDiagnostics().toString());
+        ParseDiagnostic first = parser.getDiagnostics().get(0);
+        assertEquals(4, first.getLine());
+    }
+
+    @Test
+    void testJunkDoesNotSwallowNextAutomaton() {
+        String input = """
+        {
+            AFD1: {
+                estados: [S0 S0 = = ],
+                alfabeto: ["a"],
+                inicial: S0,
+                finales: [S0],
+                transiciones: {
+                    S0 = ("a" -> S0) ) ] "x",
+                    = ("a")
+                }
+            },
+            AFD2: {
+                estados: [Q0],
+                alfabeto: ["b"],
+                inicial: Q0,
+                finales: [Q0],
+                transiciones: { Q0 = ("b" -> Q0) }
+            }
+        }
+        """;
+        AutomatonParser parser = parser(input);
+        List<Automaton> automata = parser.parseAll();
+
+        assertEquals(List.of("AFD1", "AFD2"), automata.stream().map(Automaton::getName).toList());
+        assertFalse(parser.getDiagnostics().isEmpty());
+        Automaton second = automata.get(1);
+        assertEquals("Q0", second.getInitialState().getName());
+        assertNotNull(second.getTransition(second.getInitialState(), "b"));
+    }
+
+    @Test
+    void testCorruptedInputStaysLinear() {
+        // Thousands of definitions with errors in each one; recovery must not rescan the rest of the file
+        StringBuilder input = new StringBuilder("{\n");
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            input.append("A").append(i).append(": { estados: [S0, S1] alfabeto: [\"a\"], inicial: S0, ")
+                    .append("finales: [S1], transiciones: { S0 = (\"a\" S1) ] ] } ,\n");
+        }
+        input.append("}\n");
+
+        TokenStream tokens = new Lexer(input.toString()).analyzeToStream();
+        AutomatonParser parser = new AutomatonParser(tokens);
+        List<Automaton> automata = parser.parseAll();
+
+        assertEquals(count, automata.size());
+        assertTrue(parser.getDiagnostics().size() >= count);
+        // Each token is consumed or scanned a bounded number of times, however many errors there are
+        assertTrue(parser.getVisitedTokens() <= 3L * tokens.size(),
+                parser.getVisitedTokens() + " visits for " + tokens.size() + " tokens");
+    }
+
+    @Test
+    void testStatesDoNotAliasAcrossAutomata() {
+        String input = """
+        {
+            A: { estados: [S0, S1], alfabeto: ["a"], inicial: S0, finales: [S0], transiciones: { S0 = ("a" -> S1) } },
+            B: { estados: [S0, S1], alfabeto: ["a"], inicial: S1, finales: [S1], transiciones: { S1 = ("a" -> S0) } }
+        }
+        """;
+        List<Automaton> automata = parser(input).parseAllParallel();
+        Automaton a = automata.stream().filter(automaton -> automaton.getName().equals("A")).findFirst().orElseThrow();
+        Automaton b = automata.stream().filter(automaton -> automaton.getName().equals("B")).findFirst().orElseThrow();
+
+        assertNotSame(a.getInitialState(), b.getTransition(b.getInitialState(), "a"));
+        assertTrue(a.getInitialState().isFinal());
+        assertFalse(b.getTransition(b.getInitialState(), "a").isFinal());
+        // B making its S1 initial does not touch A's S1
+        assertFalse(a.getTransition(a.getInitialState(), "a").isInitial());
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        // Enough blocks to be split across tasks, a redefined name and errors inside some blocks
+        StringBuilder input = new StringBuilder("{\n");
+        for (int i = 0; i < 4000; i++) {
+            String name = i % 1000 == 999 ? "A0" : "A" + i;
+            String separator = i % 7 == 0 ? " " : ", ";
+            input.append(name).append(": { estados: [S0, S1], alfabeto: [\"a\", \"b\"], inicial: S0, finales: [S1], ")
+                    .append("transiciones: { S0 = (\"a\" -> S1").append(separator).append("\"b\" -> S0), ")
+                    .append("S1 = (\"a\" -> S").append(i % 2).append(") } },\n");
+        }
+        input.append("}\n");
+
+        AutomatonParser sequential = parser(input.toString());
+        List<Automaton> expected = sequential.parseAll();
+        AutomatonParser parallel = parser(input.toString());
+        List<Automaton> actual = parallel.parseAllParallel(new ForkJoinPool(4));
+
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(sequential.getDiagnostics().toString(), parallel.getDiagnostics().toString());
+        assertFalse(parallel.getDiagnostics().isEmpty());
+
+        // A missing comma between definitions is recovered from in order, the same way
+        String broken = input.toString().replaceFirst("\\},\n", "}\n");
+        AutomatonParser brokenSequential = parser(broken);
+        AutomatonParser brokenParallel = parser(broken);
+        assertEquals(describe(brokenSequential.parseAll()), describe(brokenParallel.parseAllParallel()));
+        assertEquals(brokenSequential.getDiagnostics().toString(), brokenParallel.getDiagnostics().toString());
+    }
+
+    private static String describe(List<Automaton> automata) {
+        StringBuilder description = new StringBuilder();
+        for (Automaton automaton : automata) {
+            description.append(automaton).append(automaton.getTransitions()).append('\n');
+        }
+        return description.toString();
+    }
+
+    private static AutomatonParser parser(String input) {
+        Lexer lexer = new Lexer(input);
+        return new AutomatonParser(lexer.analyzeToStream());
+    }
 }
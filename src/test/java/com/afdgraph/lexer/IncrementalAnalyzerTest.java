@@ -0,0 +1,225 @@
+package com.afdgraph.lexer;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.TokenStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalAnalyzerTest {
+    private static final String[] SNIPPETS = {
+            "a", "S1", "\n", " ", "\"", "{", "}", ",", "->", "/*", "*/", "//", "@", "12.5", "estados", "(", ")"
+    };
+
+    @Test
+    public void testRandomEditsMatchFullAnalysis() throws IOException {
+        String source = Files.readString(Path.of("data/input/Entrada.lfp"));
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(source);
+        analyzer.parseAll(automaton -> { });
+
+        Random random = new Random(42);
+        for (int edit = 0; edit < 400; edit++) {
+            int length = analyzer.getText().length();
+            int offset = random.nextInt(length + 1);
+            int removed = random.nextInt(4) == 0 ? Math.min(length - offset, random.nextInt(20)) : 0;
+            String inserted = random.nextInt(4) == 0 ? "" : SNIPPETS[random.nextInt(SNIPPETS.length)];
+            analyzer.replace(offset, removed, inserted);
+
+            IncrementalAnalyzer full = new IncrementalAnalyzer(analyzer.getText().toString());
+            List<Automaton> expected = full.parseAll(automaton -> { });
+            assertSameTokens(full.getTokens(), analyzer.getTokens(), "edit " + edit);
+            assertEquals(describeErrors(full.getErrors()), describeErrors(analyzer.getErrors()), "edit " + edit);
+            assertEquals(describe(expected), describe(analyzer.getAutomata()), "edit " + edit);
+            assertEquals(full.getDiagnostics().toString(), analyzer.getDiagnostics().toString(), "edit " + edit);
+        }
+    }
+
+    @Test
+    public void testEditsOnSingleLineText() throws IOException {
+        // Minified: no newline after any edit, so every relex runs to the end of the text
+        String source = Files.readString(Path.of("data/input/Entrada.lfp")).replaceAll("\\s*\n\\s*", " ").repeat(20);
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(source);
+        analyzer.parseAll(automaton -> { });
+
+        Random random = new Random(7);
+        for (int edit = 0; edit < 50; edit++) {
+            int offset = random.nextInt(analyzer.getText().length() + 1);
+            analyzer.insert(offset, SNIPPETS[random.nextInt(SNIPPETS.length)].replace("\n", " "));
+
+            IncrementalAnalyzer full = new IncrementalAnalyzer(analyzer.getText().toString());
+            full.parseAll(automaton -> { });
+            assertSameTokens(full.getTokens(), analyzer.getTokens(), "edit " + edit);
+            assertEquals(describeErrors(full.getErrors()), describeErrors(analyzer.getErrors()), "edit " + edit);
+        }
+    }
+
+    @Test
+    public void testEditTouchesOnlyOneBlock() throws IOException {
+        String source = Files.readString(Path.of("data/input/Entrada.lfp"));
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(source);
+        int blocks = analyzer.parseAll(automaton -> { }).size();
+        assertTrue(blocks > 1);
+
+        int offset = source.indexOf("Cadenas numéricas");
+        analyzer.insert(offset, "Nuevas ");
+        assertEquals(1, analyzer.getLastReparsedBlocks());
+        assertTrue(analyzer.getLastRelexedTokens() < 10);
+        assertEquals("Nuevas Cadenas numéricas", analyzer.getAutomata().stream()
+                .filter(a -> a.getName().equals("AFD1")).findFirst().orElseThrow().getDescription());
+    }
+
+    @Test
+    public void testMergeDefinitionsReplacesRedefinedBlocks() throws IOException {
+        String source = Files.readString(Path.of("data/input/Entrada.lfp"));
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(source);
+        List<String> before = new ArrayList<>();
+        analyzer.parseAll(automaton -> before.add(automaton.getName()));
+        int tokensBefore = analyzer.getTokens().size();
+
+        List<IncrementalAnalyzer.Edit> edits = analyzer.mergeDefinitions("""
+                AFD1: {
+                    descripcion: "Redefinido",
+                    estados: [S0],
+                    alfabeto: ["a"],
+                    inicial: S0,
+                    finales: [S0],
+                    transiciones: { S0 = ("a" -> S0) }
+                },
+                Nuevo: {
+                    descripcion: "Agregado",
+                    estados: [S0],
+                    alfabeto: ["b"],
+                    inicial: S0,
+                    finales: [S0],
+                    transiciones: { S0 = ("b" -> S0) }
+                }""");
+
+        // Replaying the edits on the original text gives the analyzer's text
+        StringBuilder replayed = new StringBuilder(source);
+        for (IncrementalAnalyzer.Edit edit : edits) {
+            replayed.replace(edit.getOffset(), edit.getOffset() + edit.getRemoved().length(), edit.getInserted());
+        }
+        assertEquals(analyzer.getText().toString(), replayed.toString());
+
+        List<String> names = analyzer.getRegistry().getNames();
+        assertEquals(before.size() + 1, names.size());
+        assertEquals(List.of("AFD1", "Nuevo"), names.subList(names.size() - 2, names.size()));
+        assertEquals("Redefinido", analyzer.getRegistry().get("AFD1").getDescription());
+        assertTrue(tokensBefore > 10 * analyzer.getLastRelexedTokens());
+
+        IncrementalAnalyzer full = new IncrementalAnalyzer(analyzer.getText().toString());
+        assertEquals(describe(full.parseAll(automaton -> { })), describe(analyzer.getAutomata()));
+        assertSameTokens(full.getTokens(), analyzer.getTokens(), "merged");
+    }
+
+    @Test
+    public void testDiagnosticsFollowEdits() {
+        String source = """
+                {
+                    A: { estados: [S0], alfabeto: ["a"], inicial: S0, finales: [S0], transiciones: { S0 = ("a" -> S0) } },
+                    B: { estados: [S0] alfabeto: ["a"], inicial: S0, finales: [S0], transiciones: { S0 = ("a" -> S0) } }
+                }""";
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(source);
+        analyzer.parseAll(automaton -> { });
+        assertEquals(1, analyzer.getDiagnostics().size());
+        assertEquals(3, analyzer.getDiagnostics().get(0).getLine());
+
+        // Lines added above the broken block move its diagnostic without reparsing it
+        analyzer.insert(source.indexOf("A:"), "\n\n");
+        assertEquals(1, analyzer.getLastReparsedBlocks());
+        assertEquals(5, analyzer.getDiagnostics().get(0).getLine());
+
+        // Fixing the block clears it
+        int missingComma = analyzer.getText().toString().indexOf("[S0] alfabeto") + 4;
+        analyzer.insert(missingComma, ",");
+        assertTrue(analyzer.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testSplitDefinitionsAtTopLevelCommas() {
+        List<String> pieces = IncrementalAnalyzer.splitDefinitions("""
+                A: { descripcion: "x, y", estados: [S0, S1] },
+                // comentario, con coma
+                B: { transiciones: { S0 = ("a" -> S1, "b" -> S0) } },
+                """);
+        assertEquals(2, pieces.size());
+        assertTrue(pieces.get(0).startsWith("A:") && pieces.get(0).endsWith("}"));
+        assertTrue(pieces.get(1).startsWith("// comentario, con coma"));
+        assertTrue(pieces.get(1).endsWith("} }"));
+
+        // Braces and commas inside comments and strings don't count; an unterminated string ends at its line
+        pieces = IncrementalAnalyzer.splitDefinitions("""
+                A: { descripcion: "{, sin cerrar },
+                     estados: [S0] } /* }, */,
+                B: { estados: [S0] }""");
+        assertEquals(2, pieces.size());
+        assertTrue(pieces.get(0).endsWith("/* }, */"), pieces.get(0));
+        assertEquals("B: { estados: [S0] }", pieces.get(1));
+    }
+
+    @Test
+    public void testMergeDefinitionsIntoEmptyText() {
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer("");
+        analyzer.mergeDefinitions("""
+                A: { descripcion: "x", estados: [S0], alfabeto: ["a"], inicial: S0, finales: [S0],
+                     transiciones: { S0 = ("a" -> S0) } }""");
+        assertEquals(List.of("A"), analyzer.getRegistry().getNames());
+    }
+
+    @Test
+    public void testMergeDefinitionsKeepsUnparsedText() {
+        String definitions = """
+                A: { descripcion: "x", estados: [S0], alfabeto: ["a"], inicial: S0, finales: [S0],
+                     transiciones: { S0 = ("a" -> S0) } }""";
+        // Text with no block yet: comments, stray words, empty or unclosed outer braces
+        for (String existing : List.of("// notas, sin definiciones\n", "hola mundo", "{\n  /* vacío */\n}",
+                "{\n  // escribiendo...\n")) {
+            IncrementalAnalyzer analyzer = new IncrementalAnalyzer(existing);
+            List<IncrementalAnalyzer.Edit> edits = analyzer.mergeDefinitions(definitions);
+
+            String merged = analyzer.getText().toString();
+            String kept = existing.endsWith("}") ? existing.substring(0, existing.length() - 1) : existing;
+            assertTrue(merged.startsWith(kept), merged);
+            assertTrue(merged.contains(definitions), merged);
+            assertEquals(List.of("A"), analyzer.getRegistry().getNames(), existing);
+            assertEquals(List.of("A"), analyzer.getLastMergedAutomata().stream().map(Automaton::getName).toList());
+            for (IncrementalAnalyzer.Edit edit : edits) {
+                assertEquals("", edit.getRemoved());
+            }
+            assertSameTokens(new Lexer(merged).analyzeToStream(), analyzer.getTokens(), existing);
+        }
+    }
+
+    private static void assertSameTokens(TokenStream expected, TokenStream actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getToken(i).toString(), actual.getToken(i).toString(), message + ", token " + i);
+            assertEquals(expected.getStart(i), actual.getStart(i), message + ", token " + i);
+        }
+    }
+
+    private static List<String> describeErrors(List<LexicalException> errors) {
+        List<String> described = new ArrayList<>();
+        for (LexicalException error : errors) {
+            described.add(error.toString());
+        }
+        return described;
+    }
+
+    private static List<String> describe(List<Automaton> automata) {
+        List<String> described = new ArrayList<>();
+        for (Automaton automaton : automata) {
+            described.add(automaton.getName() + " " + automaton.getDescription() + " " + automaton.getStates() +
+                    " " + automaton.getAlphabet() + " " + automaton.getFinalStates() + " " + automaton.getTransitions());
+        }
+        return described;
+    }
+}
@@ -95,6 +95,29 @@ class LexerTest {
         assertEquals(TokenType.STRING_LITERAL.getDescription(), tokens.get(4).getType());
     }
 
+    @Test
+    void testIdentifierClassification() {
+        String input = "S@1, S12, AFD_1, Sx";
+        Lexer lexer = new Lexer(input);
+        lexer.analyze();
+
+        List<Token> tokens = lexer.getTokens();
+        List<LexicalException> errors = lexer.getErrors();
+
+        assertEquals(7, tokens.size());
+        assertEquals(TokenType.STATE_IDENTIFIER, tokens.get(0).getType());
+        assertEquals("S1", tokens.get(0).getLexeme());
+        assertEquals(TokenType.STATE_IDENTIFIER, tokens.get(2).getType());
+        assertEquals("S12", tokens.get(2).getLexeme());
+        assertEquals(TokenType.IDENTIFIER, tokens.get(4).getType());
+        assertEquals("AFD_1", tokens.get(4).getLexeme());
+        assertEquals(TokenType.IDENTIFIER, tokens.get(6).getType());
+        assertEquals("Sx", tokens.get(6).getLexeme());
+
+        assertEquals(1, errors.size(), "Only the identifier with '@' should report cleaning");
+        assertTrue(errors.get(0).getErrorMessage().contains("S@1"));
+    }
+
     @Test
     void testFileInput() throws IOException {
         String input = Files.readString(Paths.get("data/input/Entrada.lfp"));
@@ -0,0 +1,60 @@
+package com.afdgraph.lexer;
+
+import com.afdgraph.models.Token;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingLexerTest {
+
+    private static List<Path> inputFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get("data/input"))) {
+            return files.filter(p -> p.toString().endsWith(".lfp")).sorted().toList();
+        }
+    }
+
+    @Test
+    void testMatchesLexerWithSmallRingBuffer() throws IOException {
+        for (Path path : inputFiles()) {
+            String input = Files.readString(path);
+            Lexer lexer = new Lexer(input);
+            lexer.analyze();
+
+            // A 16-char ring wraps many times over each file
+            List<Token> streamed = new ArrayList<>();
+            StreamingLexer streaming = new StreamingLexer(new StringReader(input), 16);
+            streaming.analyze(streamed::add);
+
+            assertEquals(lexer.getTokens().toString(), streamed.toString(), "Tokens differ for " + path);
+            assertEquals(lexer.getErrors().toString(), streaming.getErrors().toString(), "Errors differ for " + path);
+        }
+    }
+
+    @Test
+    void testIteratesOverChannel() throws IOException {
+        Path path = Paths.get("data/input/Entrada.lfp");
+        Lexer lexer = new Lexer(Files.readString(path));
+        lexer.analyze();
+
+        List<Token> streamed = new ArrayList<>();
+        try (StreamingLexer streaming = new StreamingLexer(FileChannel.open(path), StandardCharsets.UTF_8)) {
+            for (Token token : streaming) {
+                streamed.add(token);
+            }
+        }
+
+        assertEquals(lexer.getTokens().size(), streamed.size());
+        assertEquals(lexer.getTokens().toString(), streamed.toString());
+    }
+}
@@ -0,0 +1,61 @@
+package com.afdgraph.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutomatonTest {
+
+    @Test
+    void testSetsAreReadOnlyViews() {
+        Automaton automaton = new Automaton("AFD1");
+        State s0 = new State("S0");
+        State s1 = new State("S1");
+        automaton.addState(s0);
+        automaton.addAlphabetSymbol("a");
+        automaton.setInitialState(s0);
+        automaton.addTransition(s0, "a", s0);
+
+        assertThrows(UnsupportedOperationException.class, () -> automaton.getStates().add(s1));
+        assertThrows(UnsupportedOperationException.class, () -> automaton.getAlphabet().add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> automaton.getTransitions().clear());
+        Map<String, State> row = automaton.getTransitions().get(s0);
+        assertThrows(UnsupportedOperationException.class, () -> row.put("a", s1));
+        assertThrows(UnsupportedOperationException.class, () -> row.remove("a"));
+        assertThrows(UnsupportedOperationException.class, () -> row.entrySet().iterator().next().setValue(s1));
+
+        // The views follow the mutators, and the index is rebuilt after them
+        assertEquals(s0, automaton.getTransition(s0, "a"));
+        automaton.addState(s1);
+        automaton.addAlphabetSymbol("b");
+        automaton.addTransition(s0, "b", s1);
+        assertEquals(Set.of(s0, s1), automaton.getStates());
+        assertEquals(Set.of("a", "b"), automaton.getAlphabet());
+        assertEquals(s1, automaton.getTransition(s0, "b"));
+        assertEquals(Map.of("a", s0, "b", s1), row);
+    }
+
+    @Test
+    void testSettersCopyTheGivenSets() {
+        Automaton automaton = new Automaton("AFD1");
+        State s0 = new State("S0");
+        Set<State> states = new LinkedHashSet<>(Set.of(s0));
+        Set<String> alphabet = new LinkedHashSet<>(Set.of("a"));
+        automaton.setStates(states);
+        automaton.setAlphabet(alphabet);
+        automaton.setInitialState(s0);
+        automaton.addTransition(s0, "a", s0);
+        assertEquals(s0, automaton.getTransition(s0, "a"));
+
+        states.add(new State("S1"));
+        alphabet.add("b");
+
+        assertEquals(Set.of(s0), automaton.getStates());
+        assertEquals(Set.of("a"), automaton.getAlphabet());
+        assertNull(automaton.getTransition(s0, "b"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.afdgraph.report;
+
+import com.afdgraph.lexer.Lexer;
+import com.afdgraph.lexer.StreamingLexer;
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.Token;
+import com.afdgraph.models.TokenStream;
+import com.afdgraph.models.TokenType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlReportWriterTest {
+
+    // Written by the original StringBuilder-based ReportGenerator for data/input/Entrada.lfp, with the lexemes and
+    // error messages HTML-escaped first; the streaming writer must reproduce it byte for byte
+    private static String expectedReport() throws IOException {
+        try (InputStream in = HtmlReportWriterTest.class.getResourceAsStream("Entrada-report.html")) {
+            assertNotNull(in, "Missing Entrada-report.html fixture");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testMatchesReportGenerator(@TempDir Path directory) throws IOException {
+        String input = Files.readString(Paths.get("data/input/Entrada.lfp"));
+        Lexer lexer = new Lexer(input);
+        lexer.analyze();
+        List<LexicalException> errors = lexer.getErrors();
+        String expected = expectedReport();
+
+        Path fromTokens = directory.resolve("tokens.html");
+        ReportGenerator.generateHtmlReport(lexer.getTokens(), errors, fromTokens.toString());
+        assertEquals(expected, Files.readString(fromTokens));
+
+        Lexer columnar = new Lexer(input);
+        TokenStream stream = columnar.analyzeToStream();
+        Path fromStream = directory.resolve("stream.html");
+        ReportGenerator.generateHtmlReport(stream, columnar.getErrors(), fromStream.toString());
+        assertEquals(expected, Files.readString(fromStream));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingLexer streaming = new StreamingLexer(new StringReader(input));
+        try (HtmlReportWriter writer = new HtmlReportWriter(out)) {
+            streaming.analyze(writer);
+            writer.writeErrors(streaming.getErrors());
+        }
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEscapesLexemesAndMessages() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HtmlReportWriter writer = new HtmlReportWriter(out)) {
+            writer.writeToken(new Token(TokenType.STRING_LITERAL, "\"<a & 'b'>\"", 1, 2));
+            writer.writeErrors(List.of(new LexicalException("Unexpected character: < in \"x&y\"", 3, 4)));
+        }
+        String html = out.toString(StandardCharsets.UTF_8);
+
+        assertTrue(html.contains("<tr><td>STRING_LITERAL</td><td>&quot;&lt;a &amp; &#39;b&#39;&gt;&quot;</td><td>1</td><td>2</td></tr>"));
+        assertTrue(html.contains("<tr><td>Unexpected character: &lt; in &quot;x&amp;y&quot;</td><td>3</td><td>4</td></tr>"));
+        assertFalse(html.contains("<a"));
+    }
+
+    @Test
+    void testEncodesNonAsciiAsUtf8() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HtmlReportWriter writer = new HtmlReportWriter(out)) {
+            writer.writeToken(TokenType.STRING_LITERAL, "\"ñé€😀\uD800\"", -1, Integer.MIN_VALUE);
+        }
+        String html = out.toString(StandardCharsets.UTF_8);
+
+        assertTrue(html.contains("<td>&quot;ñé€😀?&quot;</td><td>-1</td><td>-2147483648</td>"));
+        assertTrue(html.contains("No lexical errors found!"));
+        assertTrue(html.endsWith("</html>\n"));
+    }
+
+    @Test
+    void testRowsAcrossManyBufferFlushes() throws IOException {
+        // Multi-byte chars and entities land on every buffer boundary; one lexeme is larger than the buffer
+        List<String> lexemes = new ArrayList<>();
+        Random random = new Random(6);
+        int[] codePoints = "ab<&\"'ñ€😀".codePoints().toArray();
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder lexeme = new StringBuilder();
+            for (int j = random.nextInt(12); j >= 0; j--) {
+                lexeme.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+            }
+            lexemes.add(lexeme.toString());
+        }
+        lexemes.add(10_000, "€<".repeat(40_000));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        try (HtmlReportWriter writer = new HtmlReportWriter(out)) {
+            for (int i = 0; i < lexemes.size(); i++) {
+                writer.writeToken(TokenType.STRING_LITERAL, lexemes.get(i), i, -i);
+                expected.append("<tr><td>STRING_LITERAL</td><td>")
+                        .append(lexemes.get(i).replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                                .replace("\"", "&quot;").replace("'", "&#39;"))
+                        .append("</td><td>").append(i).append("</td><td>").append(-i).append("</td></tr>");
+            }
+        }
+        String html = out.toString(StandardCharsets.UTF_8);
+
+        int start = html.indexOf("<tr><td>STRING_LITERAL");
+        assertEquals(expected.toString(), html.substring(start, html.indexOf("</table>", start)));
+    }
+
+    @Test
+    void testTokensAfterErrorsAreRejected() throws IOException {
+        HtmlReportWriter writer = new HtmlReportWriter(new ByteArrayOutputStream());
+        writer.writeErrors(List.of());
+
+        assertThrows(IllegalStateException.class, () -> writer.writeToken(new Token(TokenType.COMMA, ",", 1, 1)));
+        assertThrows(IllegalStateException.class, () -> writer.writeErrors(List.of()));
+        writer.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.afdgraph.report;
+
+import com.afdgraph.models.LexicalException;
+import com.afdgraph.models.Token;
+import com.afdgraph.models.TokenType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PagedReportWriterTest {
+
+    @Test
+    public void testChunksAndManifest(@TempDir Path directory) throws IOException {
+        PagedReportWriter writer = new PagedReportWriter(directory, 2);
+        writer.writeToken(new Token(TokenType.IDENTIFIER, "AFD1", 1, 1));
+        writer.writeToken(new Token(TokenType.STRING_LITERAL, "\"a\\b\"", 2, 5));
+        writer.writeToken(new Token(TokenType.LEFT_BRACE, "{", 2, 10));
+        writer.close(List.of(new LexicalException("Unexpected character: @", 3, 1)));
+
+        assertTrue(Files.exists(writer.getIndexFile()));
+        Path data = directory.resolve("data");
+        assertTrue(Files.exists(data.resolve("tokens-00000.js")));
+        assertTrue(Files.exists(data.resolve("tokens-00001.js")));
+        assertFalse(Files.exists(data.resolve("tokens-00002.js")));
+
+        String first = Files.readString(data.resolve("tokens-00000.js"));
+        assertEquals("AFD_REPORT.chunk(0,[[" + TokenType.IDENTIFIER.ordinal() + ",\"AFD1\",1,1],[" +
+                TokenType.STRING_LITERAL.ordinal() + ",\"\\\"a\\\\b\\\"\",2,5]]);\n", first);
+
+        String meta = Files.readString(data.resolve("meta.js"));
+        assertTrue(meta.startsWith("AFD_REPORT.meta({total:3,chunkSize:2,chunks:2,"));
+        assertTrue(meta.endsWith(",errorTotal:1,errorChunks:1});\n"));
+        assertEquals("AFD_REPORT.errors(0,[[\"Unexpected character: @\",3,1]]);\n",
+                Files.readString(data.resolve("errors-00000.js")));
+    }
+
+    @Test
+    public void testErrorsArePaged(@TempDir Path directory) throws IOException {
+        List<LexicalException> errors = List.of(
+                new LexicalException("Unexpected character: @", 1, 1),
+                new LexicalException("Unexpected character: \"", 2, 2),
+                new LexicalException("Unexpected character: #", 3, 3));
+
+        Path index = ReportGenerator.generatePagedReport(List.of(new Token(TokenType.COMMA, ",", 1, 2)), errors,
+                directory);
+
+        assertEquals(directory.resolve(PagedReportWriter.INDEX_FILE), index);
+        Path data = directory.resolve("data");
+        assertEquals("AFD_REPORT.errors(0,[[\"Unexpected character: @\",1,1],[\"Unexpected character: \\\"\",2,2]," +
+                "[\"Unexpected character: #\",3,3]]);\n", Files.readString(data.resolve("errors-00000.js")));
+        assertFalse(Files.exists(data.resolve("errors-00001.js")));
+
+        PagedReportWriter writer = new PagedReportWriter(directory.resolve("small"), 2);
+        writer.close(errors);
+        Path small = directory.resolve("small/data");
+        assertTrue(Files.readString(small.resolve("meta.js")).endsWith(",errorTotal:3,errorChunks:2});\n"));
+        assertTrue(Files.readString(small.resolve("errors-00001.js")).startsWith("AFD_REPORT.errors(1,[[\"Unexpected character: #\""));
+        assertFalse(Files.exists(small.resolve("errors-00002.js")));
+        assertFalse(Files.exists(small.resolve("tokens-00000.js")));
+    }
+
+    @Test
+    public void testChunkIsClosedWhenGenerationFails(@TempDir Path directory) throws IOException {
+        List<Token> tokens = new ArrayList<>();
+        tokens.add(new Token(TokenType.COMMA, ",", 1, 1));
+        tokens.add(null);
+
+        assertThrows(NullPointerException.class, () -> ReportGenerator.generatePagedReport(tokens, List.of(), directory));
+
+        // The chunk open when the failure hit was still finished and closed
+        Path chunk = directory.resolve("data/tokens-00000.js");
+        assertTrue(Files.readString(chunk).endsWith("]);\n"));
+    }
+}
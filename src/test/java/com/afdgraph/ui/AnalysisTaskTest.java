@@ -0,0 +1,177 @@
+package com.afdgraph.ui;
+
+import com.afdgraph.lexer.IncrementalAnalyzer;
+import com.afdgraph.models.Automaton;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisTaskTest {
+
+    @Test
+    public void testPublishesTextAndAutomata() throws Exception {
+        StringBuilder text = new StringBuilder();
+        List<String> published = new ArrayList<>();
+        List<String> badEdits = new ArrayList<>();
+        CompletableFuture<AnalysisTask.Result> result = new CompletableFuture<>();
+
+        AnalysisTask task = new AnalysisTask(new File("data/input/Entrada.lfp"), new IncrementalAnalyzer(""),
+                new AnalysisTask.Listener() {
+            @Override
+            public void textEdited(int offset, int length, String chunk) {
+                if (offset < 0 || offset + length > text.length()) {
+                    badEdits.add(offset + "+" + length + " on " + text.length() + " chars");
+                    return;
+                }
+                text.replace(offset, offset + length, chunk);
+            }
+
+            @Override
+            public void automatonParsed(Automaton automaton) {
+                published.add(automaton.getName());
+            }
+
+            @Override
+            public void finished(AnalysisTask.Result r) {
+                // Like MainWindow: edits published right before done() are dropped, so sync the rest
+                String content = r.getAnalyzer().getText().toString();
+                text.replace(0, text.length(), content);
+                result.complete(r);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        task.execute();
+
+        AnalysisTask.Result r = result.get(30, TimeUnit.SECONDS);
+        // Updates published right before done() are coalesced and may reach the EDT after it
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            boolean[] all = new boolean[1];
+            SwingUtilities.invokeAndWait(() -> all[0] = published.size() >= r.getRegistry().size());
+            if (all[0]) break;
+            Thread.sleep(20);
+        }
+        // The listener state belongs to the EDT
+        String[] shown = new String[1];
+        SwingUtilities.invokeAndWait(() -> shown[0] = text.toString());
+
+        assertEquals(List.of(), badEdits);
+        assertEquals(r.getAnalyzer().getText().toString(), shown[0]);
+        assertFalse(r.getTokens().isEmpty());
+        assertFalse(r.getRegistry().isEmpty());
+        for (Automaton automaton : r.getRegistry().getAutomata()) {
+            assertTrue(published.contains(automaton.getName()));
+        }
+    }
+
+    @Test
+    public void testLoadKeepsUnparsedEditorText() throws Exception {
+        String typed = "// borrador, sin definiciones todavía\nhola";
+        CompletableFuture<AnalysisTask.Result> result = new CompletableFuture<>();
+        AnalysisTask task = new AnalysisTask(new File("data/input/Entrada.lfp"), new IncrementalAnalyzer(typed),
+                new AnalysisTask.Listener() {
+            @Override
+            public void textEdited(int offset, int length, String text) {
+            }
+
+            @Override
+            public void automatonParsed(Automaton automaton) {
+            }
+
+            @Override
+            public void finished(AnalysisTask.Result r) {
+                result.complete(r);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        task.execute();
+
+        AnalysisTask.Result r = result.get(30, TimeUnit.SECONDS);
+        assertTrue(r.getAnalyzer().getText().toString().startsWith(typed));
+        assertFalse(r.getRegistry().isEmpty());
+    }
+
+    @Test
+    public void testCancelStopsBetweenBlocks(@TempDir Path directory) throws Exception {
+        int count = 3000;
+        StringBuilder content = new StringBuilder("{\n");
+        for (int i = 0; i < count; i++) {
+            content.append("A").append(i).append(": { estados: [S0], alfabeto: [\"a\"], inicial: S0, finales: [S0], ")
+                    .append("transiciones: { S0 = (\"a\" -> S0) } },\n");
+        }
+        Path file = directory.resolve("grande.lfp");
+        Files.writeString(file, content.append("}\n"));
+
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer("");
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        AnalysisTask[] task = new AnalysisTask[1];
+        task[0] = new AnalysisTask(file.toFile(), analyzer, new AnalysisTask.Listener() {
+            @Override
+            public void textEdited(int offset, int length, String text) {
+            }
+
+            @Override
+            public void automatonParsed(Automaton automaton) {
+                // The first published block is enough: the rest of the file must not be merged
+                task[0].cancel(true);
+            }
+
+            @Override
+            public void finished(AnalysisTask.Result result) {
+                finished.set(true);
+            }
+
+            @Override
+            public void cancelled() {
+                cancelled.countDown();
+            }
+
+            @Override
+            public void failed(Exception e) {
+                finished.set(true);
+            }
+        });
+
+        // Run on a thread of our own so the test can wait for the background work to stop
+        Thread worker = new Thread(task[0]);
+        worker.start();
+        assertTrue(cancelled.await(30, TimeUnit.SECONDS));
+        worker.join(30_000);
+        assertFalse(worker.isAlive());
+        assertTrue(task[0].isCancelled());
+        assertFalse(finished.get());
+        assertTrue(analyzer.getRegistry().size() < count, analyzer.getRegistry().size() + " blocks merged");
+    }
+}
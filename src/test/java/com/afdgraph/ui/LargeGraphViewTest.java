@@ -0,0 +1,92 @@
+package com.afdgraph.ui;
+
+import com.afdgraph.TestAutomata;
+import com.afdgraph.export.GraphLayout;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LargeGraphViewTest {
+
+    @Test
+    public void testIndexMatchesBruteForce() {
+        GraphLayout layout = GraphLayout.of(TestAutomata.randomLarge(2000, 7));
+        GraphSpatialIndex index = new GraphSpatialIndex(layout);
+        Random random = new Random(11);
+
+        for (int round = 0; round < 200; round++) {
+            double minX = random.nextDouble() * layout.getWidth();
+            double minY = random.nextDouble() * layout.getHeight();
+            double maxX = minX + random.nextDouble() * 2000;
+            double maxY = minY + random.nextDouble() * 2000;
+
+            Set<Integer> nodes = new TreeSet<>();
+            index.nodes(minX, minY, maxX, maxY, nodes::add);
+            Set<Integer> expectedNodes = new TreeSet<>();
+            for (int id = 0; id < layout.getNodes().size(); id++) {
+                GraphLayout.Node node = layout.getNodes().get(id);
+                double outer = node.getRadius() + 4;
+                if (node.getX() + outer >= minX && node.getX() - outer <= maxX &&
+                        node.getY() + outer >= minY && node.getY() - outer <= maxY) {
+                    expectedNodes.add(id);
+                }
+            }
+            assertEquals(expectedNodes, nodes);
+
+            // Every edge whose curve passes through the rectangle is found, each once
+            List<Integer> edges = new ArrayList<>();
+            index.edges(minX, minY, maxX, maxY, edges::add);
+            assertEquals(edges.size(), new HashSet<>(edges).size());
+            for (int id = 0; id < layout.getEdges().size(); id++) {
+                double[] p = layout.getEdges().get(id).getPoints();
+                if (p[0] >= minX && p[0] <= maxX && p[1] >= minY && p[1] <= maxY) {
+                    assertTrue(edges.contains(id), "edge " + id);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBundlesMergeEdgesAtLowZoom() {
+        GraphLayout layout = GraphLayout.of(TestAutomata.randomLarge(3000, 3));
+        LargeGraphView.Graph graph = new LargeGraphView.Graph(layout);
+
+        double[] coarse = LargeGraphView.bundles(graph, LargeGraphView.MIN_LEVEL);
+        double[] finer = LargeGraphView.bundles(graph, -4);
+        assertSame(coarse, LargeGraphView.bundles(graph, LargeGraphView.MIN_LEVEL));
+        assertTrue(coarse.length < finer.length);
+        double merged = 0;
+        for (int b = 4; b < finer.length; b += 5) {
+            merged += finer[b];
+        }
+        assertTrue(merged <= layout.getEdges().size());
+    }
+
+    @Test
+    public void testTilesDrawOnlyTheirRegion() {
+        GraphLayout layout = GraphLayout.of(TestAutomata.randomLarge(50, 5));
+        LargeGraphView.Graph graph = new LargeGraphView.Graph(layout);
+
+        // At zoom 1 the tile holding the initial state's center has a painted pixel there
+        GraphLayout.Node initial = layout.getInitial();
+        int tx = (int) (initial.getX() / LargeGraphView.TILE);
+        int ty = (int) (initial.getY() / LargeGraphView.TILE);
+        BufferedImage tile = LargeGraphView.renderTile(graph, 0, tx, ty);
+        int pixel = tile.getRGB((int) initial.getX() - tx * LargeGraphView.TILE,
+                (int) initial.getY() - ty * LargeGraphView.TILE);
+        assertNotEquals(0, pixel >>> 24);
+
+        // Far outside the graph nothing is drawn
+        BufferedImage empty = LargeGraphView.renderTile(graph, 0, 1000, 1000);
+        for (int y = 0; y < LargeGraphView.TILE; y += 16) {
+            for (int x = 0; x < LargeGraphView.TILE; x += 16) {
+                assertEquals(0, empty.getRGB(x, y) >>> 24);
+            }
+        }
+        assertEquals(0, LargeGraphView.levelFor(1.2));
+        assertEquals(LargeGraphView.MIN_LEVEL, LargeGraphView.levelFor(1e-9));
+    }
+}
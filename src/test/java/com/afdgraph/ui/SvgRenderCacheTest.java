@@ -0,0 +1,88 @@
+package com.afdgraph.ui;
+
+import com.afdgraph.models.Automaton;
+import com.afdgraph.models.State;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.svg.SVGDocument;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SvgRenderCacheTest {
+
+    @Test
+    public void testKeyFollowsStructure() {
+        String key = SvgRenderCache.key(chain("AFD1", 3));
+        assertEquals(key, SvgRenderCache.key(chain("AFD1", 3)));
+        assertNotEquals(key, SvgRenderCache.key(chain("AFD1", 4)));
+        assertNotEquals(key, SvgRenderCache.key(chain("AFD2", 3)));
+
+        Automaton extraFinal = chain("AFD1", 3);
+        extraFinal.addFinalState(new State("S1"));
+        assertNotEquals(key, SvgRenderCache.key(extraFinal));
+    }
+
+    @Test
+    public void testMemoryThenDiskTier(@TempDir Path directory) throws IOException {
+        Automaton automaton = chain("AFD1", 5);
+        String key = SvgRenderCache.key(automaton);
+        SvgRenderCache cache = new SvgRenderCache(directory, 4, 1 << 20);
+
+        assertNull(cache.getIfPresent(key));
+        SVGDocument document = cache.get(key, automaton);
+        assertSame(document, cache.getIfPresent(key));
+        assertSame(document, cache.get(key, chain("AFD1", 5)));
+        assertTrue(Files.isRegularFile(cache.getFile(key)));
+
+        // A new session starts with an empty memory tier but reads the markup on disk instead of rendering
+        Files.writeString(cache.getFile(key), """
+                <svg xmlns="http://www.w3.org/2000/svg" width="10" height="10"><g id="marca"/></svg>
+                """);
+        SvgRenderCache restarted = new SvgRenderCache(directory, 4, 1 << 20);
+        assertNull(restarted.getIfPresent(key));
+        assertNotNull(restarted.get(key, automaton).getElementById("marca"));
+        assertEquals(1, restarted.getDocumentCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed(@TempDir Path directory) throws IOException {
+        SvgRenderCache cache = new SvgRenderCache(directory, 2, Long.MAX_VALUE);
+        for (int states = 1; states <= 3; states++) {
+            Automaton automaton = chain("AFD", states);
+            cache.get(SvgRenderCache.key(automaton), automaton);
+        }
+        assertEquals(2, cache.getDocumentCount());
+        assertNull(cache.getIfPresent(SvgRenderCache.key(chain("AFD", 1))));
+
+        // Disk budget for about one entry: older files go, the newest always stays
+        long entrySize = Files.size(cache.getFile(SvgRenderCache.key(chain("AFD", 3))));
+        SvgRenderCache small = new SvgRenderCache(directory, 2, entrySize + 1);
+        Automaton newest = chain("AFD", 6);
+        small.get(SvgRenderCache.key(newest), newest);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+        assertTrue(Files.isRegularFile(small.getFile(SvgRenderCache.key(newest))));
+    }
+
+    private static Automaton chain(String name, int states) {
+        Automaton automaton = new Automaton(name);
+        automaton.addAlphabetSymbol("a");
+        State previous = new State("S0");
+        automaton.addState(previous);
+        automaton.setInitialState(previous);
+        for (int i = 1; i < states; i++) {
+            State next = new State("S" + i);
+            automaton.addState(next);
+            automaton.addTransition(previous, "a", next);
+            previous = next;
+        }
+        automaton.addFinalState(previous);
+        return automaton;
+    }
+}